@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import com.ascert.open.term.i3270.Term3270;
+import com.ascert.open.term.i3270.Tn3270ETelnet;
+import com.ascert.open.term.i3270.Tn3270StreamParser;
+
+/**
+ * Builds representative 3270 data streams for the benchmarks, and terminals ready to parse them without any connection.
+ *
+ * The main screen is a typical data entry form on a 24x80 display - a coloured title, and on each of 20 rows a protected label
+ * followed by an unprotected input field with the modified flag on, so that read modified has plenty to send back.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+final class DataStreams
+{
+
+    static final int ROWS = 24;
+    static final int COLS = 80;
+    static final int FORM_ROWS = 20;
+
+    // Field attributes, already in their EBCDIC graphic form
+    private static final int ATTR_PROTECTED = 0x60;
+    private static final int ATTR_INPUT_MDT = 0xC1;
+
+    private static final int ORDER_SBA = 0x11;
+    private static final int ORDER_SF = 0x1D;
+    private static final int ORDER_SA = 0x28;
+    private static final int ORDER_IC = 0x13;
+
+    private DataStreams()
+    {
+    }
+
+    /**
+     * @return erase/write of the full form screen
+     */
+    static byte[] eraseWriteForm()
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(Tn3270StreamParser.CMD_EW_EBCDIC);
+        writeForm(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return the form screen wrapped as an outbound 3270DS structured field, followed by a read partition query
+     */
+    static byte[] structuredFieldForm()
+    {
+        ByteArrayOutputStream form = new ByteArrayOutputStream();
+        form.write(Tn3270StreamParser.CMD_EW_EBCDIC);
+        writeForm(form);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(Tn3270StreamParser.CMD_WSF_EBCDIC);
+
+        // Outbound 3270DS: length(2) id partition, then the write command and its data
+        int len = 4 + form.size();
+        out.write(len >> 8);
+        out.write(len & 0xFF);
+        out.write(Tn3270StreamParser.SF_RPQ_EQUIV);
+        out.write(0x00);
+        out.write(form.toByteArray(), 0, form.size());
+
+        // Read partition query
+        out.write(new byte[]
+        {
+            0x00, 0x05, Tn3270StreamParser.SF_READ_PART, (byte) 0xFF, Tn3270StreamParser.SF_RP_QUERY
+        }, 0, 5);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * @return write updating just one input field, as a typical small host response
+     */
+    static byte[] writeOneField(int row, String text)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0xF1);
+        // WCC - restore keyboard only, leaving modified flags alone
+        out.write(0xC2);
+        sba(out, row * COLS + 23);
+        text(out, text);
+        return out.toByteArray();
+    }
+
+    static byte[] readModified()
+    {
+        return new byte[]
+        {
+            (byte) Tn3270StreamParser.CMD_RM_EBCDIC
+        };
+    }
+
+    /**
+     * Terminal with its telnet output discarded, so that replies to the host e.g. read modified or query replies can be generated
+     * without a connection.
+     */
+    static Term3270 newTerminal()
+    {
+        Term3270 term = new Term3270("IBM-3278-2");
+        term.setClient(null);
+        term.getTelnet().setOutputStream(new OutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len)
+            {
+            }
+        });
+        return term;
+    }
+
+    /**
+     * Terminal whose telnet reports itself connected, as screens only render incrementally for a live session.
+     */
+    static Term3270 newConnectedTerminal()
+    {
+        Term3270 term = newTerminal();
+        OutputStream os = new OutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+            }
+        };
+        term.setTelnet(new Tn3270ETelnet(parser(term))
+        {
+            @Override
+            public boolean isConnected()
+            {
+                return true;
+            }
+        });
+        term.getTelnet().setOutputStream(os);
+        return term;
+    }
+
+    /**
+     * @return the terminal's own parser, which keyboard actions also go through
+     */
+    static Tn3270StreamParser parser(Term3270 term)
+    {
+        return (Tn3270StreamParser) term.getStreamParser();
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    //////////////////////////////////////////////////
+    private static void writeForm(ByteArrayOutputStream out)
+    {
+        // WCC - reset, restore keyboard, reset MDT
+        out.write(0xC3);
+
+        sba(out, 30);
+        out.write(ORDER_SF);
+        out.write(ATTR_PROTECTED);
+        out.write(ORDER_SA);
+        out.write(0x42);
+        out.write(0xF2);
+        text(out, "CUSTOMER MAINTENANCE");
+        out.write(ORDER_SA);
+        out.write(0x00);
+        out.write(0x00);
+
+        for (int ix = 0; ix < FORM_ROWS; ix++)
+        {
+            int row = ix + 2;
+            sba(out, row * COLS + 1);
+            out.write(ORDER_SF);
+            out.write(ATTR_PROTECTED);
+            text(out, String.format("FIELD %02d ..........", ix + 1));
+            out.write(ORDER_SF);
+            out.write(ATTR_INPUT_MDT);
+            text(out, String.format("VALUE %02d ABCDEFGHIJKLMNOPQRSTUVWXYZ", ix + 1));
+            sba(out, row * COLS + 65);
+            out.write(ORDER_SF);
+            out.write(ATTR_PROTECTED);
+        }
+
+        sba(out, 2 * COLS + 23);
+        out.write(ORDER_IC);
+    }
+
+    private static void sba(ByteArrayOutputStream out, int pos)
+    {
+        out.write(ORDER_SBA);
+        out.write(Tn3270StreamParser.addrTable[(pos >> 6) & 0x3F]);
+        out.write(Tn3270StreamParser.addrTable[pos & 0x3F]);
+    }
+
+    private static void text(ByteArrayOutputStream out, String text)
+    {
+        for (char ch : text.toCharArray())
+        {
+            out.write(Tn3270StreamParser.asc2ebc[ch]);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import gnu.rfb.Hextile;
+import gnu.rfb.PixelFormat;
+import gnu.rfb.RRE;
+import gnu.rfb.Raw;
+import gnu.rfb.Rect;
+
+import com.ascert.open.term.gui.JTerminalScreen;
+import com.ascert.open.term.i3270.Term3270;
+
+/**
+ * RFB encoding of a real rendered terminal frame buffer, both the whole screen and a single text row as a typical update.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EncoderBenchmark
+{
+
+    @Param(
+        {
+            "screen", "row"
+        })
+    public String area;
+
+    @Param(
+        {
+            "RGB888", "BGR233"
+        })
+    public String format;
+
+    private int[] pixels;
+    private int scanline;
+    private int x;
+    private int y;
+    private int w;
+    private int h;
+    private PixelFormat pixelFormat;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        Term3270 term = DataStreams.newTerminal();
+        JTerminalScreen screen = new JTerminalScreen(term, null);
+        byte[] eraseWrite = DataStreams.eraseWriteForm();
+        DataStreams.parser(term).parse(eraseWrite, eraseWrite.length);
+        screen.refresh();
+
+        BufferedImage frame = screen.getScreenBuffer();
+        pixels = screen.getScreenPixels();
+        scanline = frame.getWidth();
+        w = frame.getWidth();
+        h = frame.getHeight();
+        if ("row".equals(area))
+        {
+            // Roughly one text row, part way down the form (frame includes the status line)
+            int rowHeight = h / DataStreams.ROWS;
+            y = 5 * rowHeight;
+            h = rowHeight;
+        }
+
+        pixelFormat = "BGR233".equals(format) ? PixelFormat.BGR233 : PixelFormat.RGB888;
+    }
+
+    @Benchmark
+    public Rect raw()
+    {
+        return new Raw(pixels, pixelFormat, 0, 0, scanline, x, y, w, h);
+    }
+
+    @Benchmark
+    public Rect rre()
+    {
+        return new RRE(pixels, pixelFormat, 0, 0, scanline, x, y, w, h);
+    }
+
+    @Benchmark
+    public Rect hextile()
+    {
+        return new Hextile(pixels, pixelFormat, 0, 0, scanline, x, y, w, h);
+    }
+}
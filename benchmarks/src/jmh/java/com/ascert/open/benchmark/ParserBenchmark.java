@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ascert.open.ohio.Ohio;
+import com.ascert.open.term.i3270.Term3270;
+import com.ascert.open.term.i3270.Tn3270StreamParser;
+
+/**
+ * 3270 data stream parsing, from raw host records through to an updated screen, and building the inbound replies.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParserBenchmark
+{
+
+    private Term3270 term;
+    private Tn3270StreamParser parser;
+
+    private byte[] eraseWrite;
+    private byte[] structuredField;
+    private byte[] writeOneField;
+    private byte[] readModified;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        term = DataStreams.newTerminal();
+        parser = DataStreams.parser(term);
+
+        eraseWrite = DataStreams.eraseWriteForm();
+        structuredField = DataStreams.structuredFieldForm();
+        writeOneField = DataStreams.writeOneField(5, "UPDATED");
+        readModified = DataStreams.readModified();
+
+        parser.parse(eraseWrite, eraseWrite.length);
+        // Read modified replies with the last AID key pressed
+        term.Fkey(Ohio.OHIO_AID.OHIO_AID_3270_ENTER);
+    }
+
+    @Benchmark
+    public Term3270 eraseWrite() throws IOException
+    {
+        parser.parse(eraseWrite, eraseWrite.length);
+        return term;
+    }
+
+    /**
+     * Outbound 3270DS structured field containing the same erase/write, plus a read partition query reply.
+     */
+    @Benchmark
+    public Term3270 structuredField() throws IOException
+    {
+        parser.parse(structuredField, structuredField.length);
+        return term;
+    }
+
+    @Benchmark
+    public Term3270 writeOneField() throws IOException
+    {
+        parser.parse(writeOneField, writeOneField.length);
+        return term;
+    }
+
+    /**
+     * Builds and sends (to nowhere) the reply for all 20 modified input fields.
+     */
+    @Benchmark
+    public Term3270 readModified() throws IOException
+    {
+        parser.parse(readModified, readModified.length);
+        return term;
+    }
+}
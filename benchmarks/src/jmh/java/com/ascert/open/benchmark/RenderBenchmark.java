@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ascert.open.term.gui.JTerminalScreen;
+import com.ascert.open.term.i3270.Term3270;
+import com.ascert.open.term.i3270.Tn3270StreamParser;
+
+/**
+ * Headless rendering of the terminal screen into its frame buffer, as used for VNC. Needs <code>-Djava.awt.headless=true</code>, which
+ * the build sets. Run with the screen in both render modes, so that the incremental path is measured as well as full rendering.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RenderBenchmark
+{
+
+    @Param(
+        {
+            "true", "false"
+        })
+    public boolean incremental;
+
+    private Term3270 term;
+    private Tn3270StreamParser parser;
+    private JTerminalScreen screen;
+    private byte[][] updates;
+    private int nextUpdate;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        term = DataStreams.newConnectedTerminal();
+        parser = DataStreams.parser(term);
+        screen = new JTerminalScreen(term, null);
+        screen.setIncrementalRender(incremental);
+
+        byte[] eraseWrite = DataStreams.eraseWriteForm();
+        parser.parse(eraseWrite, eraseWrite.length);
+        screen.refresh();
+
+        // Alternate the text so every update really changes something
+        updates = new byte[][]
+        {
+            DataStreams.writeOneField(5, "UPDATED A"), DataStreams.writeOneField(5, "UPDATED B")
+        };
+    }
+
+    /**
+     * Whole screen re-rendered, as after an erase/write or font change.
+     */
+    @Benchmark
+    public JTerminalScreen renderFull()
+    {
+        screen.invalidateFrame();
+        screen.refresh();
+        return screen;
+    }
+
+    /**
+     * One field changed by the host. In incremental mode only the changed cells are rendered, otherwise the whole screen is.
+     */
+    @Benchmark
+    public JTerminalScreen renderOneField() throws IOException
+    {
+        byte[] update = updates[nextUpdate++ & 1];
+        parser.parse(update, update.length);
+        screen.refresh();
+        return screen;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ascert.open.term.core.AbstractTerminal;
+import com.ascert.open.term.i3270.Term3270;
+
+/**
+ * Screen model operations on a populated form screen.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScreenModelBenchmark
+{
+
+    private Term3270 term;
+    private AbstractTerminal.Page page;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        term = DataStreams.newTerminal();
+        byte[] eraseWrite = DataStreams.eraseWriteForm();
+        DataStreams.parser(term).parse(eraseWrite, eraseWrite.length);
+        page = term.getActivePage();
+    }
+
+    @Benchmark
+    public AbstractTerminal.Page buildFields()
+    {
+        page.buildFields(true);
+        return page;
+    }
+
+    @Benchmark
+    public char[] getDisplay()
+    {
+        return term.getDisplay();
+    }
+}
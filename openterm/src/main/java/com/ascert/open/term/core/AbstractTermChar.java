@@ -20,7 +20,6 @@ package com.ascert.open.term.core;
 
 import java.awt.Color;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -55,88 +54,112 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
     //////////////////////////////////////////////////
     // INSTANCE VARIABLES
     //////////////////////////////////////////////////
-    protected char character;
-    protected int position;
+    // All per-character state lives in the (usually page wide) store, this object is just a view onto our own slot within it
+    private TermCharStore store;
+    private int slot;
 
     // Whetehr default char state is protected or unprotected. Varies by device type
     protected boolean dfltProtected = true;
 
-    // Reference to any field this char is in (also then links to the field attribute char)
-    protected TermField field;
-    // Reference to any video preceding video attributes which apply to this char
-    protected TermChar vaChar;
-
-    // Some devices allow video attribute changes without starting a new field, so we model these separately
-    protected Map<VideoAttribute, Object> vidAttrMap = new HashMap<>();
-    protected Map<FieldAttribute, Object> fldAttrMap = new HashMap<>();
-
-    ;
-    
     // These methods return the actual attributes held on this character position (if any)
     // The isXXX methods can be used to find attributes that apply to this character position 
     // because of a preceding attribute character
+    // Note that the map methods return snapshots, changes to them will not update this character
     
     public Map<VideoAttribute, Object> getVideoAttributes()
     {
-        return vidAttrMap;
+        return store.getVideoAttributes(slot);
     }
 
     public Map<FieldAttribute, Object> getFieldAttributes()
     {
-        return fldAttrMap;
+        return store.getFieldAttributes(slot);
     }
 
     public boolean hasVideoAttributes()
     {
-        return !vidAttrMap.isEmpty();
+        return store.hasVideoAttributes(slot);
     }
 
     public boolean hasFieldAttributes()
     {
-        return !fldAttrMap.isEmpty();
+        return store.hasFieldAttributes(slot);
     }
 
     public Object getVideoAttribute(VideoAttribute vidAttr)
     {
-        return vidAttrMap.get(vidAttr);
+        return store.getVideoAttribute(slot, vidAttr);
     }
 
     public Object getFieldAttribute(FieldAttribute fldAttr)
     {
-        return fldAttrMap.get(fldAttr);
+        return store.getFieldAttribute(slot, fldAttr);
     }
 
     public void setVideoAttribute(VideoAttribute vidAttr, Object attrVal)
     {
-        vidAttrMap.put(vidAttr, attrVal);
+        store.setVideoAttribute(slot, vidAttr, attrVal);
     }
 
     public void setFieldAttribute(FieldAttribute fldAttr, Object attrVal)
     {
-        fldAttrMap.put(fldAttr, attrVal);
+        store.setFieldAttribute(slot, fldAttr, attrVal);
     }
 
     public void clearVideoAttribute(VideoAttribute vidAttr)
     {
-        vidAttrMap.remove(vidAttr);
+        store.clearVideoAttribute(slot, vidAttr);
     }
 
     public void clearFieldAttribute(FieldAttribute fldAttr)
     {
-        fldAttrMap.remove(fldAttr);
+        store.clearFieldAttribute(slot, fldAttr);
     }
 
     public void setVAChar(TermChar ch)
     {
-        this.vaChar = ch;
+        store.setVAChar(slot, ch);
+    }
+
+    /**
+     * @return the change generation in which this character was last modified
+     */
+    public long getChangeGeneration()
+    {
+        return store.getChangeGeneration(slot);
+    }
+
+    public void markChanged()
+    {
+        store.markChanged(slot);
+    }
+
+    public int getVideoKey()
+    {
+        return store.getVideoKey(slot);
+    }
+
+    public void applyVideoKey(int key)
+    {
+        store.applyVideoKey(slot, key);
     }
 
     //////////////////////////////////////////////////
     // CONSTRUCTORS
     //////////////////////////////////////////////////
+    /**
+     * Standalone character, with its own single slot store. Fine for odd one-off uses, but pages of characters should share a store.
+     */
     public AbstractTermChar(int position)
     {
-        this.position = position;
+        this(new TermCharStore(1), 0, position);
+    }
+
+    public AbstractTermChar(TermCharStore store, int slot, int position)
+    {
+        this.store = store;
+        this.slot = slot;
+        store.positions[slot] = position;
         clear();
     }
 
@@ -181,7 +204,15 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
     {
         try
         {
-            return super.clone();
+            AbstractTermChar copy = (AbstractTermChar) super.clone();
+            // Must not share our slot, or changes to either would show in both
+            copy.store = store.copySlot(slot);
+            copy.slot = 0;
+            if (copy.store.vaChars[0] == this)
+            {
+                copy.store.vaChars[0] = copy;
+            }
+            return copy;
         }
         catch (CloneNotSupportedException ex)
         {
@@ -201,13 +232,10 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
     public void clear()
     {
         //System.out.println("** clear: " + position);
-        character = 0;
+        store.clear(slot);
         // Initially, we are our own video attribute character, which may later change.
-        vaChar = this;
-        field = null;
+        store.setVAChar(slot, this);
 
-        vidAttrMap.clear();;
-        fldAttrMap.clear();;
         // unless overridden, is the default for most devices
         setFieldAttribute(FieldAttribute.PROTECTED, dfltProtected);
     }
@@ -224,7 +252,7 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public char getChar()
     {
-        return character;
+        return store.chars[slot];
     }
 
     /**
@@ -234,7 +262,7 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public TermField getField()
     {
-        return field;
+        return store.fields[slot];
     }
 
     /**
@@ -244,13 +272,13 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public int getPositionBA()
     {
-        return position;
+        return store.positions[slot];
     }
 
     //TODO nasty, but bulk moves can change this. Might look at better ways to handle
     public void setPositionBA(int newPos)
     {
-        position = newPos;
+        store.setPosition(slot, newPos);
     }
 
     /**
@@ -260,7 +288,7 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public boolean isAltIntensity()
     {
-        return testBooleanAttribute(vaChar.getVideoAttribute(VideoAttribute.ALT_INTENSITY));
+        return testBooleanAttribute(getVAChar().getVideoAttribute(VideoAttribute.ALT_INTENSITY));
     }
 
     /**
@@ -270,7 +298,7 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public boolean isHidden()
     {
-        return testBooleanAttribute(vaChar.getVideoAttribute(VideoAttribute.HIDDEN));
+        return testBooleanAttribute(getVAChar().getVideoAttribute(VideoAttribute.HIDDEN));
     }
 
     /**
@@ -278,7 +306,7 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public boolean isReverse()
     {
-        return testBooleanAttribute(vaChar.getVideoAttribute(VideoAttribute.REVERSE));
+        return testBooleanAttribute(getVAChar().getVideoAttribute(VideoAttribute.REVERSE));
     }
 
     /**
@@ -286,23 +314,23 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public boolean isUnderscore()
     {
-        return testBooleanAttribute(vaChar.getVideoAttribute(VideoAttribute.UNDERSCORE));
+        return testBooleanAttribute(getVAChar().getVideoAttribute(VideoAttribute.UNDERSCORE));
     }
 
     public boolean isBlink()
     {
-        return testBooleanAttribute(vaChar.getVideoAttribute(VideoAttribute.BLINK));
+        return testBooleanAttribute(getVAChar().getVideoAttribute(VideoAttribute.BLINK));
     }
 
     public boolean isModified()
     {
-        return field != null ? field.isModified() : testBooleanAttribute(getFieldAttribute(FieldAttribute.MODIFIED));
+        return getField() != null ? getField().isModified() : testBooleanAttribute(getFieldAttribute(FieldAttribute.MODIFIED));
     }
 
     // Numeric needs better handling really
     public boolean isNumeric()
     {
-        return field != null ? field.isNumeric() : testBooleanAttribute(getFieldAttribute(FieldAttribute.NUMERIC));
+        return getField() != null ? getField().isNumeric() : testBooleanAttribute(getFieldAttribute(FieldAttribute.NUMERIC));
     }
 
     /**
@@ -312,7 +340,7 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public boolean isProtected()
     {
-        return field != null ? field.isProtected() : testBooleanAttribute(getFieldAttribute(FieldAttribute.PROTECTED));
+        return getField() != null ? getField().isProtected() : testBooleanAttribute(getFieldAttribute(FieldAttribute.PROTECTED));
     }
 
     /**
@@ -320,7 +348,7 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public boolean isAutoTab()
     {
-        return field != null ? field.isAutoTab() : testBooleanAttribute(getFieldAttribute(FieldAttribute.AUTO_TAB));
+        return getField() != null ? getField().isAutoTab() : testBooleanAttribute(getFieldAttribute(FieldAttribute.AUTO_TAB));
     }
 
     /**
@@ -340,7 +368,7 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public void setChar(char c)
     {
-        character = c;
+        store.setChar(slot, c);
     }
 
     /**
@@ -350,7 +378,7 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
      */
     public void setField(TermField field)
     {
-        this.field = field;
+        store.fields[slot] = field;
     }
 
     /**
@@ -365,12 +393,12 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
     public Color getBgColor(Color dfltBg)
     {
         // check for specific color
-        Object bgcolor = vaChar.getVideoAttribute(VideoAttribute.BG_COLOR);
+        Object bgcolor = getVAChar().getVideoAttribute(VideoAttribute.BG_COLOR);
 
         if (bgcolor == null || !(bgcolor instanceof Color))
         {
             // no specific color so look for attribute mapped color
-            bgcolor = vaChar.getMappedBgColor(bgcolor);
+            bgcolor = getVAChar().getMappedBgColor(bgcolor);
         }
 
         return bgcolor != null && bgcolor instanceof Color ? (Color) bgcolor : dfltBg;
@@ -380,12 +408,12 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
     public Color getFgColor(Color dfltFg)
     {
         // check for specific color
-        Object fgcolor = vaChar.getVideoAttribute(VideoAttribute.FG_COLOR);
+        Object fgcolor = getVAChar().getVideoAttribute(VideoAttribute.FG_COLOR);
 
         if (fgcolor == null || !(fgcolor instanceof Color))
         {
             // no specific color so look for attribute mapped color
-            fgcolor = vaChar.getMappedFgColor(fgcolor);
+            fgcolor = getVAChar().getMappedFgColor(fgcolor);
         }
 
         return fgcolor != null && fgcolor instanceof Color ? (Color) fgcolor : dfltFg;
@@ -394,6 +422,21 @@ public abstract class AbstractTermChar implements TermChar, Cloneable
     //////////////////////////////////////////////////
     // PROTECTED INSTANCE METHODS
     //////////////////////////////////////////////////
+    protected TermChar getVAChar()
+    {
+        return store.vaChars[slot];
+    }
+
+    protected TermCharStore getStore()
+    {
+        return store;
+    }
+
+    protected int getSlot()
+    {
+        return slot;
+    }
+
     //////////////////////////////////////////////////
     // PRIVATE INSTANCE METHODS
     //////////////////////////////////////////////////
@@ -23,10 +23,13 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.logging.Logger;
 
@@ -91,6 +94,12 @@ public abstract class AbstractTerminal
 
     protected KeyHandler keyHandler;
 
+    // Last published screen snapshot, read without locking
+    private volatile ScreenSnapshot snapshot;
+    private volatile ScreenSnapshot hostSnapshot;
+    private final ScreenChangeDispatcher screenChanges = new ScreenChangeDispatcher();
+    private final ScreenWatcher screenWatcher = new ScreenWatcher(this);
+
     //////////////////////////////////////////////////
     // CONSTRUCTORS
     //////////////////////////////////////////////////
@@ -270,7 +279,9 @@ public abstract class AbstractTerminal
      */
     public boolean contains(String search)
     {
-        return search != null ? (new String(getDisplay())).contains(search) : false;
+        // Publishes first so local changes not yet published e.g. by field setData() are seen. Where nothing changed this costs little, and
+        // the snapshot's text is kept for re-use by later searches of the same screen
+        return search != null && publishSnapshot().contains(search);
     }
 
     public Ohio.OHIO_AID getAIDEnum()
@@ -390,6 +401,94 @@ public abstract class AbstractTerminal
         return displayChars;
     }
 
+    /**
+     * @return the most recently published snapshot of the display page. One is published after each host record is processed and after
+     *         each keyboard action, so this may lag slightly behind changes still in progress.
+     */
+    @Override
+    public ScreenSnapshot getSnapshot()
+    {
+        ScreenSnapshot snap = snapshot;
+        return snap != null ? snap : publishSnapshot();
+    }
+
+    /**
+     * Takes and publishes a new snapshot of the display page, re-using as much of the previous one as is unchanged. Should be called
+     * once a set of changes is complete, normally by the data stream parser at the end of a record. The page is read holding the lock
+     * object, so changes made under it are never seen part way through.
+     */
+    @Override
+    public ScreenSnapshot publishSnapshot()
+    {
+        return publishSnapshot(false);
+    }
+
+    /**
+     * Must be called once each host update has been processed, without holding the lock object. Publishes the new screen, then re-tests
+     * any conditions being waited for.
+     */
+    protected void hostUpdated()
+    {
+        publishSnapshot(true);
+        screenWatcher.screenChanged();
+    }
+
+    /**
+     * @param hostUpdate whether the changes came from the host, as passed on to screen change listeners
+     */
+    protected ScreenSnapshot publishSnapshot(boolean hostUpdate)
+    {
+        synchronized (getLockObject())
+        {
+            ScreenSnapshot snap = ScreenSnapshot.capture(this, snapshot, hostUpdate);
+            snapshot = snap;
+            if (hostUpdate)
+            {
+                hostSnapshot = snap;
+            }
+            screenChanges.snapshotPublished(snap, hostUpdate);
+            return snap;
+        }
+    }
+
+    @Override
+    public ScreenSnapshot getHostSnapshot()
+    {
+        return hostSnapshot;
+    }
+
+    @Override
+    public void addScreenChangeListener(ScreenChangeListener listener)
+    {
+        screenChanges.addListener(listener);
+    }
+
+    @Override
+    public void removeScreenChangeListener(ScreenChangeListener listener)
+    {
+        screenChanges.removeListener(listener);
+    }
+
+    /**
+     * Waits for a screen condition without blocking. Conditions are re-tested each time host data is processed, but only against the
+     * cells which have actually changed. For example:<br/>
+     * <pre>
+     * rw.waitFor(ScreenCondition.textAt(1, 2, "READY").and(ScreenCondition.keyboardUnlocked()), 30000)
+     *   .thenAccept((ok) -&gt; ...);
+     * </pre>
+     *
+     * @param timeoutMillis how long to wait, 0 or less to wait indefinitely
+     *
+     * @return future which completes with <code>true</code> once the condition holds, or <code>false</code> if the timeout was reached
+     *
+     * @see ScreenWatcher
+     */
+    @Override
+    public CompletableFuture<Boolean> waitFor(ScreenCondition condition, long timeoutMillis)
+    {
+        return screenWatcher.waitFor(condition, timeoutMillis);
+    }
+
     /**
      * This method returns the RW3270Field object that the current cursor position is in.
      *
@@ -409,8 +508,8 @@ public abstract class AbstractTerminal
      */
     public TermField getField(int i)
     {
-        //Just in case
-        buildFields();
+        //Just in case - cheap if nothing has changed
+        buildFields(false);
         return getChar(i).getField();
     }
 
@@ -471,28 +570,8 @@ public abstract class AbstractTerminal
      */
     public short getNextUnprotectedField(int pos)
     {
-        Vector fields = getFields();
-
-        Enumeration e = fields.elements();
-        while (e.hasMoreElements())
-        {
-            TermField f = (TermField) e.nextElement();
-            if (!f.isProtected() && (f.getBeginBA() >= pos))
-            {
-                return (short) (f.getBeginBA() + 1);
-            }
-        }
-        //no next, get first unprotected (wrap)
-        e = fields.elements();
-        while (e.hasMoreElements())
-        {
-            TermField f = (TermField) e.nextElement();
-            if (!f.isProtected())
-            {
-                return (short) (f.getBeginBA() + 1);
-            }
-        }
-        return (short) pos;
+        int start = getActivePage().getNextUnprotectedFieldStart(pos);
+        return (start >= 0) ? (short) (start + 1) : (short) pos;
     }
 
     /**
@@ -509,27 +588,15 @@ public abstract class AbstractTerminal
 
     public short getPreviousUnprotectedField(int pos, boolean endpos)
     {
-        TermField prevFld = null;
-        TermField currFld = getChar(pos).getField();
-
-        Enumeration e = getFields().elements();
-        while (e.hasMoreElements())
+        Page pg = getActivePage();
+        int ix = pg.getFieldIndex(pos);
+        if (ix < 0)
         {
-            TermField fld = (TermField) e.nextElement();
-
-            if (fld == currFld && prevFld != null)
-            {
-                break;
-            }
-
-            if (!fld.isProtected())
-            {
-                // keep a rolling record of all unprotected fields we find
-                prevFld = fld;
-            }
+            // Before the first field, which is either part of the last field wrapped round, or no field at all
+            ix = (getChar(pos).getField() != null) ? pg.getFields().size() - 1 : Integer.MAX_VALUE;
         }
 
-        // most likely started at or before 1st field, so return last unprotected field we found
+        TermField prevFld = pg.getUnprotectedFieldBefore(ix);
         if (prevFld != null)
         {
             return (endpos) ? (short) prevFld.getEndBA() : (short) (prevFld.getBeginBA() + 1);
@@ -627,6 +694,7 @@ public abstract class AbstractTerminal
         throws IOException, UnknownHostException
     {
         tn.setEncryption(host.isEncryption());
+        tn.setNioTransport(host.isNioTransport());
         log.fine("connecting " + host + ":" + host.getPort()+"; "+host.isEncryption());
         //Wipe down any possible old remnants from previous session
         initTerm();
@@ -807,10 +875,21 @@ public abstract class AbstractTerminal
 
         private boolean fieldsChanged = true;
 
+        // Index over fields (which are in address order) - their start addresses, and which of them are unprotected
+        private int[] fieldStarts = new int[0];
+        private int[] unprotectedFields = new int[0];
+        // Incremental rebuilds rely on store slots being in page order, which screen operations shuffling chars could upset
+        private boolean slotsInOrder;
+
+        // Shared backing store for change tracking, null for devices whose chars aren't store backed
+        private final TermCharStore store;
+        private long changeGeneration = 1;
+
         public Page(int myNum)
         {
             this.myNum = myNum;
             this.chars = getTermCharPage();
+            this.store = (chars.length > 0 && chars[0] instanceof AbstractTermChar) ? ((AbstractTermChar) chars[0]).getStore() : null;
         }
 
         public int displaySize()
@@ -945,6 +1024,10 @@ public abstract class AbstractTerminal
          * <p>
          * The Field objects merely 'point' to the corresponding Start Field character for conceptual ease for end-programmers. No data is
          * 'contained' in a field object
+         *
+         * <p>
+         * Unless forced, or flagged via setFieldsChanged(true), only the fields covering chars whose field or video attributes have changed
+         * since the last build are re-scanned, with the rest of the fields left as they are.
          */
         //TODO - preserve protected field at 1,1: - could in fact go in buildFields??
         /*
@@ -958,76 +1041,380 @@ public abstract class AbstractTerminal
             synchronized (getLockObject())
             {
                 //TODO - some devices (e.g. NSK 6530) have an implicit start field at position 1 (p3-44)
-                if (!fieldsChanged && !force)
+                if (force || fieldsChanged)
                 {
-                    return;
+                    rebuildAllFields();
                 }
+                else if (store != null && store.getFieldsDirtyFrom() >= 0)
+                {
+                    int from = store.getFieldsDirtyFrom();
+                    int to = store.getFieldsDirtyTo();
+                    if (!slotsInOrder || !rebuildFields(from, to))
+                    {
+                        rebuildAllFields();
+                    }
+                }
+            }
+        }
 
-                fields.removeAllElements();
-                TermField lastField = null;
-                TermChar vaChar = getDefaultVAChar();
+        /**
+         * @return index into the fields of the one containing the given position, or -1 if it is before the first field
+         */
+        public int getFieldIndex(int pos)
+        {
+            buildFields(false);
+            int ix = Arrays.binarySearch(fieldStarts, pos);
+            return (ix >= 0) ? ix : -ix - 2;
+        }
 
-                for (int ix = 0; ix < chars.length; ix++)
+        /**
+         * @return start address of the first unprotected field at or after the given position, wrapping around to the first unprotected
+         *         field on screen, or -1 if there are no unprotected fields
+         */
+        public int getNextUnprotectedFieldStart(int pos)
+        {
+            buildFields(false);
+            if (unprotectedFields.length == 0)
+            {
+                return -1;
+            }
+
+            // Binary search over the unprotected field start addresses
+            int lo = 0;
+            int hi = unprotectedFields.length;
+            while (lo < hi)
+            {
+                int mid = (lo + hi) >>> 1;
+                if (fieldStarts[unprotectedFields[mid]] < pos)
+                {
+                    lo = mid + 1;
+                }
+                else
+                {
+                    hi = mid;
+                }
+            }
+            return fieldStarts[unprotectedFields[(lo < unprotectedFields.length) ? lo : 0]];
+        }
+
+        /**
+         * @return the last unprotected field before the given field index, wrapping around to the last unprotected field on screen, or
+         *         null if there are no unprotected fields
+         */
+        public TermField getUnprotectedFieldBefore(int fieldIndex)
+        {
+            buildFields(false);
+            if (unprotectedFields.length == 0)
+            {
+                return null;
+            }
+
+            int lo = 0;
+            int hi = unprotectedFields.length;
+            while (lo < hi)
+            {
+                int mid = (lo + hi) >>> 1;
+                if (unprotectedFields[mid] < fieldIndex)
+                {
+                    lo = mid + 1;
+                }
+                else
+                {
+                    hi = mid;
+                }
+            }
+            return fields.elementAt(unprotectedFields[(lo > 0) ? lo - 1 : unprotectedFields.length - 1]);
+        }
+
+        private void rebuildAllFields()
+        {
+            fields.removeAllElements();
+            TermField lastField = null;
+            TermChar vaChar = getDefaultVAChar();
+            // Tracks the effective video attributes, so that chars only count as changed if these actually did
+            int vaKey = videoKey(vaChar);
+            slotsInOrder = (store != null);
+
+            for (int ix = 0; ix < chars.length; ix++)
+            {
+                TermChar currChar = chars[ix];
+                //ensure field pos correct - can change with some screen operations (del/ins line etc)
+                currChar.setPositionBA(ix);
+
+                if (currChar.hasVideoAttributes())
+                {
+                    vaChar = currChar;
+                    vaKey = videoKey(vaChar);
+                }
+
+                currChar.setVAChar(vaChar);
+                if (currChar instanceof AbstractTermChar)
                 {
-                    TermChar currChar = chars[ix];
-                    //ensure field pos correct - can change with some screen operations (del/ins line etc)
-                    currChar.setPositionBA(ix);
+                    ((AbstractTermChar) currChar).applyVideoKey(vaKey);
+                    slotsInOrder &= (((AbstractTermChar) currChar).getSlot() == ix);
+                }
 
-                    if (currChar.hasVideoAttributes())
+                if (currChar.isStartField())
+                {
+                    if (lastField != null)
                     {
-                        vaChar = currChar;
+                        lastField.setEndBA(ix - 1);
                     }
 
-                    currChar.setVAChar(vaChar);
+                    //since it's a Start Field FA, create a new field
+                    TermField currField = newTermField(currChar);
 
-                    if (currChar.isStartField())
-                    {
-                        if (lastField != null)
-                        {
-                            lastField.setEndBA(ix - 1);
-                        }
+                    //set it's begin point as the current counter position
+                    currField.setBeginBA(ix);
 
-                        //since it's a Start Field FA, create a new field
-                        TermField currField = newTermField(currChar);
+                    //add it to the fields vector
+                    fields.addElement(currField);
 
-                        //set it's begin point as the current counter position
-                        currField.setBeginBA(ix);
+                    //move it to the last field variable, so we can set its
+                    //end point.
+                    lastField = currField;
+                }
 
-                        //add it to the fields vector
-                        fields.addElement(currField);
+                currChar.setField(lastField);
+            }
 
-                        //move it to the last field variable, so we can set its
-                        //end point.
-                        lastField = currField;
-                    }
+            // Have to find the end point for the last field.  Can't just set it to the last address in the buffer,
+            // for fields that aren't terminated when auto-wrap is enabled e.g. 3270
+            if (lastField != null)
+            {
+                if (autoFieldWrap)
+                {
+                    wrapLastField();
+                }
+                else
+                {
+                    lastField.setEndBA(chars.length - 1);
+                }
+            }
+
+            fieldsDone();
+        }
+
+        /**
+         * Re-scans just the fields which covered the changed range, splicing the fields found into the list in place of the old ones.
+         *
+         * @return false if the change can't be handled in isolation, and a full rebuild is needed
+         */
+        private boolean rebuildFields(int from, int to)
+        {
+            int first = getFieldIndexNoBuild(from);
+            // Changes before the first field, or which could remove the first field, affect the wrapped part of the last field
+            if (first < 0 || (first == 0 && !chars[fieldStarts[0]].isStartField()))
+            {
+                return false;
+            }
+
+            int next = getFieldIndexNoBuild(to) + 1;
+            int start = fieldStarts[first];
+            int end = (next < fieldStarts.length) ? fieldStarts[next] - 1 : chars.length - 1;
+
+            // Video attributes carry on past the range, unless a field attribute following it resets them
+            if (end + 1 < chars.length && !chars[end + 1].hasVideoAttributes())
+            {
+                return false;
+            }
+
+            // The range may no longer start with a field, in which case its chars belong to the preceding one
+            TermField lastField = chars[start].isStartField() ? null : fields.elementAt(first - 1);
+            // Slots being in order means these are all AbstractTermChars
+            TermChar vaChar = (start > 0) ? ((AbstractTermChar) chars[start - 1]).getVAChar() : getDefaultVAChar();
+            int vaKey = videoKey(vaChar);
+            List<TermField> found = new ArrayList<>();
+
+            for (int ix = start; ix <= end; ix++)
+            {
+                TermChar currChar = chars[ix];
+                currChar.setPositionBA(ix);
 
-                    currChar.setField(lastField);
+                if (currChar.hasVideoAttributes())
+                {
+                    vaChar = currChar;
+                    vaKey = videoKey(vaChar);
                 }
 
-                // Have to find the end point for the last field.  Can't just set it to the last address in the buffer,
-                // for fields that aren't terminated when auto-wrap is enabled e.g. 3270
-                if (lastField != null)
+                currChar.setVAChar(vaChar);
+                if (currChar instanceof AbstractTermChar)
                 {
-                    if (autoFieldWrap)
-                    {
-                        TermField firstField = fields.elementAt(0);
-                        lastField.setEndBA((firstField.getBeginBA() == 0) ? chars.length - 1
-                            : firstField.getBeginBA() - 1);
+                    ((AbstractTermChar) currChar).applyVideoKey(vaKey);
+                }
 
-                        for (int cx = 0; cx < firstField.getBeginBA(); cx++)
-                        {
-                            chars[cx].setField(lastField);
-                        }
+                if (currChar.isStartField())
+                {
+                    if (lastField != null)
+                    {
+                        lastField.setEndBA(ix - 1);
                     }
-                    else
+                    TermField currField = newTermField(currChar);
+                    currField.setBeginBA(ix);
+                    found.add(currField);
+                    lastField = currField;
+                }
+
+                currChar.setField(lastField);
+            }
+
+            if (lastField != null)
+            {
+                lastField.setEndBA(end);
+            }
+
+            fields.subList(first, next).clear();
+            fields.addAll(first, found);
+
+            // The last field may be a different one now, so anything wrapped round into it needs updating
+            if (next >= fieldStarts.length && autoFieldWrap)
+            {
+                wrapLastField();
+            }
+
+            fieldsDone();
+            return true;
+        }
+
+        private void wrapLastField()
+        {
+            TermField firstField = fields.elementAt(0);
+            TermField lastField = fields.lastElement();
+            lastField.setEndBA((firstField.getBeginBA() == 0) ? chars.length - 1 : firstField.getBeginBA() - 1);
+
+            for (int cx = 0; cx < firstField.getBeginBA(); cx++)
+            {
+                chars[cx].setField(lastField);
+            }
+        }
+
+        private void fieldsDone()
+        {
+            fieldStarts = new int[fields.size()];
+            int unprotected = 0;
+            for (int ix = 0; ix < fieldStarts.length; ix++)
+            {
+                TermField fld = fields.elementAt(ix);
+                fieldStarts[ix] = fld.getBeginBA();
+                if (!fld.isProtected())
+                {
+                    unprotected++;
+                }
+            }
+
+            unprotectedFields = new int[unprotected];
+            unprotected = 0;
+            for (int ix = 0; ix < fieldStarts.length; ix++)
+            {
+                if (!fields.elementAt(ix).isProtected())
+                {
+                    unprotectedFields[unprotected++] = ix;
+                }
+            }
+
+            if (store != null)
+            {
+                store.resetFieldsDirty();
+            }
+            fieldsChanged = false;
+        }
+
+        private int getFieldIndexNoBuild(int pos)
+        {
+            int ix = Arrays.binarySearch(fieldStarts, pos);
+            return (ix >= 0) ? ix : -ix - 2;
+        }
+
+        //////////////////////////////////////////////////
+        // Change tracking
+        //////////////////////////////////////////////////
+        /**
+         * @return the current change generation. Any modifications to this page are stamped with it until it is closed off
+         */
+        public long getChangeGeneration()
+        {
+            return store != null ? store.getGeneration() : changeGeneration;
+        }
+
+        /**
+         * Closes off the current change generation. The data stream parser does this at the start of each host record, but any consumer
+         * wanting a clean cut point can call it too. Typical consumer usage is to call this, process getChangedCells() since the generation
+         * it last closed, and then remember the one just returned.
+         *
+         * @return the generation just closed
+         */
+        public long nextChangeGeneration()
+        {
+            synchronized (getLockObject())
+            {
+                return store != null ? store.nextGeneration() : changeGeneration++;
+            }
+        }
+
+        /**
+         * Positions modified since (i.e. after) the given generation. A negative value returns all positions.
+         */
+        public BitSet getChangedCells(long sinceGeneration)
+        {
+            BitSet changed = new BitSet(chars.length);
+
+            if (sinceGeneration < 0 || store == null)
+            {
+                // Without a store we can't know, so must assume everything
+                changed.set(0, chars.length);
+                return changed;
+            }
+
+            if (slotsInOrder)
+            {
+                // Generations can be read straight from the store, saving a call per position
+                long[] gens = store.changeGens;
+                for (int ix = 0; ix < chars.length; ix++)
+                {
+                    if (gens[ix] > sinceGeneration)
                     {
-                        lastField.setEndBA(chars.length - 1);
+                        changed.set(ix);
                     }
                 }
-                fieldsChanged = false;
+                return changed;
+            }
+
+            for (int ix = 0; ix < chars.length; ix++)
+            {
+                if (!(chars[ix] instanceof AbstractTermChar) || ((AbstractTermChar) chars[ix]).getChangeGeneration() > sinceGeneration)
+                {
+                    changed.set(ix);
+                }
+            }
+            return changed;
+        }
+
+        private int videoKey(TermChar vaChar)
+        {
+            return (vaChar instanceof AbstractTermChar) ? ((AbstractTermChar) vaChar).getVideoKey() : System.identityHashCode(vaChar);
+        }
+
+        public void markChanged(int pos)
+        {
+            if (chars[pos] instanceof AbstractTermChar)
+            {
+                ((AbstractTermChar) chars[pos]).markChanged();
             }
         }
 
+        public void markChanged(int fromPos, int toPos)
+        {
+            for (int ix = fromPos; ix < toPos; ix++)
+            {
+                markChanged(ix);
+            }
+        }
+
+        public void markAllChanged()
+        {
+            markChanged(0, chars.length);
+        }
+
         //TODO - check sync of this
         public void resetMDT()
         {
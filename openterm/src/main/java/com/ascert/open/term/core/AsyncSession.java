@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import com.ascert.open.ohio.Ohio;
+
+/**
+ * Asynchronous facade over a {@link Terminal}, for automation where many sessions are driven at once. Every operation returns a
+ * CompletableFuture and runs on the supplied executor, and waits for the host don't tie up a thread at all. So a small pool can drive
+ * a large number of concurrent sessions.
+ *
+ * Operations on one session are queued and run strictly one at a time in the order they were called, so a conversation can be written
+ * as a straight sequence of calls, with only the future of the last one needing to be kept:
+ * <pre>
+ * session.type(5, 20, "USERID");
+ * session.sendAid(OHIO_AID.OHIO_AID_3270_ENTER);
+ * session.await(ScreenCondition.contains("READY").and(ScreenCondition.keyboardUnlocked()), 30000)
+ *        .thenCompose((s) -&gt; s.readField(2, 2))
+ *        .thenAccept(...);
+ * </pre>
+ * A queued operation runs whether or not the ones before it succeeded. Where later steps should only happen after earlier ones worked,
+ * chain them with thenCompose instead, as each operation completes with the session itself.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class AsyncSession
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(AsyncSession.class.getName());
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final Terminal term;
+    private final Executor executor;
+
+    // Last operation queued, which the next one waits on
+    private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    /**
+     * Session using the common fork/join pool. Fine for most uses, although connecting does block whilst the socket is opened.
+     */
+    public AsyncSession(Terminal term)
+    {
+        this(term, ForkJoinPool.commonPool());
+    }
+
+    public AsyncSession(Terminal term, Executor executor)
+    {
+        this.term = term;
+        this.executor = executor;
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    public Terminal getTerminal()
+    {
+        return term;
+    }
+
+    public CompletableFuture<AsyncSession> connect()
+    {
+        return run(() -> term.connect());
+    }
+
+    public CompletableFuture<AsyncSession> disconnect()
+    {
+        return run(() -> term.disconnect());
+    }
+
+    /**
+     * Sends an AID key to the host. Fails if the keyboard is locked, rather than the key just being ignored.
+     */
+    public CompletableFuture<AsyncSession> sendAid(Ohio.OHIO_AID aid)
+    {
+        return run(() ->
+        {
+            if (term.isKeyboardLocked())
+            {
+                throw new IllegalStateException("Keyboard locked, unable to send: " + aid);
+            }
+            term.Fkey(aid);
+        });
+    }
+
+    /**
+     * Sets the data of the input field containing the given position.
+     */
+    public CompletableFuture<AsyncSession> type(int pos, String text)
+    {
+        return run(() ->
+        {
+            synchronized (term.getLockObject())
+            {
+                getField(pos).setData(text);
+            }
+        });
+    }
+
+    public CompletableFuture<AsyncSession> type(int row, int col, String text)
+    {
+        return type(toPos(row, col), text);
+    }
+
+    /**
+     * Waits for a screen condition. The condition is first tested when the wait starts i.e. after any operations queued before it.
+     *
+     * @param timeoutMillis how long to wait, 0 or less to wait indefinitely
+     *
+     * @return future which fails with a TimeoutException if the condition didn't hold in time
+     */
+    public CompletableFuture<AsyncSession> await(ScreenCondition condition, long timeoutMillis)
+    {
+        return submit(() -> waitFor(condition, timeoutMillis));
+    }
+
+    /**
+     * Sends an AID key and then waits for a screen condition, the usual single step of a conversation. The condition is only tested
+     * once the host has updated the screen after the AID was sent, so a screen already matching when it was sent doesn't count.
+     */
+    public CompletableFuture<AsyncSession> sendAid(Ohio.OHIO_AID aid, ScreenCondition condition, long timeoutMillis)
+    {
+        return submit(() ->
+        {
+            if (term.isKeyboardLocked())
+            {
+                throw new IllegalStateException("Keyboard locked, unable to send: " + aid);
+            }
+            // Only a screen the host sends in reply counts, not the one already shown which may well match
+            long sent = term.publishSnapshot().getGeneration();
+            term.Fkey(aid);
+            return waitFor(ScreenCondition.hostUpdatedAfter(sent).and(condition), timeoutMillis);
+        });
+    }
+
+    /**
+     * Reads the display data of the field containing the given position.
+     */
+    public CompletableFuture<String> readField(int pos)
+    {
+        return call((t) -> new String(getField(pos).getDisplayChars()));
+    }
+
+    public CompletableFuture<String> readField(int row, int col)
+    {
+        return readField(toPos(row, col));
+    }
+
+    public CompletableFuture<String> readString(int pos, int len)
+    {
+        return call((t) -> t.getCharString(pos, len));
+    }
+
+    public CompletableFuture<String> readScreen()
+    {
+        return call((t) -> new String(t.getDisplay()));
+    }
+
+    /**
+     * Runs an arbitrary function against the terminal, queued in turn with other operations and holding the terminal lock. The host
+     * reader takes that lock whilst parsing, so the function must only read or update the screen, and never send anything to the host.
+     */
+    public <T> CompletableFuture<T> call(Function<Terminal, T> fn)
+    {
+        return submit(() ->
+        {
+            synchronized (term.getLockObject())
+            {
+                return CompletableFuture.completedFuture(fn.apply(term));
+            }
+        });
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    private CompletableFuture<AsyncSession> run(Action action)
+    {
+        return submit(() ->
+        {
+            action.run();
+            return CompletableFuture.completedFuture(this);
+        });
+    }
+
+    /**
+     * Queues an operation behind whatever is already queued. The operation itself returns a future, so that it can wait on the host
+     * without holding an executor thread, and the next operation doesn't start until that completes.
+     */
+    private <T> CompletableFuture<T> submit(Callable<CompletableFuture<T>> op)
+    {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<?> prev;
+
+        synchronized (this)
+        {
+            prev = tail;
+            tail = result;
+        }
+
+        prev.whenCompleteAsync((r, ex) ->
+        {
+            try
+            {
+                op.call().whenComplete((res, opEx) ->
+                {
+                    if (opEx != null)
+                    {
+                        result.completeExceptionally((opEx instanceof CompletionException && opEx.getCause() != null) ? opEx.getCause() : opEx);
+                    }
+                    else
+                    {
+                        result.complete(res);
+                    }
+                });
+            }
+            catch (Exception opEx)
+            {
+                log.fine("session operation failed: " + opEx);
+                result.completeExceptionally(opEx);
+            }
+        }, executor);
+
+        return result;
+    }
+
+    private CompletableFuture<AsyncSession> waitFor(ScreenCondition condition, long timeoutMillis)
+    {
+        return term.waitFor(condition, timeoutMillis).thenApply((met) ->
+        {
+            if (!met)
+            {
+                throw new CompletionException(new TimeoutException("Screen condition not met within " + timeoutMillis + "ms"));
+            }
+            return this;
+        });
+    }
+
+    private TermField getField(int pos)
+    {
+        TermField field = term.getField(pos);
+        if (field == null)
+        {
+            throw new IllegalArgumentException("No field at position: " + pos);
+        }
+        return field;
+    }
+
+    private int toPos(int row, int col)
+    {
+        return (row - 1) * term.getCols() + (col - 1);
+    }
+
+    //////////////////////////////////////////////////
+    // INNER CLASSES
+    //////////////////////////////////////////////////
+    @FunctionalInterface
+    private interface Action
+    {
+
+        void run() throws Exception;
+    }
+}
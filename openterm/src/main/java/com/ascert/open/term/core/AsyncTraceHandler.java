@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ascert.open.util.Threads;
+
+/**
+ * Trace handler which hands data off to another handler on a background thread, so that tracing doesn't hold up the session threads.
+ * Data is copied into a fixed size ring buffer of pre-allocated slots, with no locking on the way in. Should the buffer fill up because
+ * the handler can't keep up, data is either dropped (and counted) or the session thread waits for space, as chosen.
+ *
+ * The dispatch thread passes on everything available in one go, and then flushes the handler if it is {@link Flushable}. So a
+ * handler writing to a buffered stream gets one write per batch rather than per record. Data is passed on via
+ * {@link TraceHandler#traceData(boolean, long, byte[], int, int)} and {@link TraceHandler#traceEvent(long, String)} with the time it was
+ * originally traced.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class AsyncTraceHandler implements TraceHandler, Closeable
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(AsyncTraceHandler.class.getName());
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // Slots keep their buffers, so only unusually large records allocate
+    private static final int INITIAL_SLOT_SIZE = 512;
+
+    private static final byte KIND_OUT = 0;
+    private static final byte KIND_IN = 1;
+    private static final byte KIND_EVENT = 2;
+
+    /**
+     * What to do when the buffer is full.
+     */
+    public enum Overflow
+    {
+        /**
+         * Discard the data, never holding up the session.
+         */
+        DROP,
+        /**
+         * Wait for space, so nothing is lost.
+         */
+        BLOCK
+    }
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final TraceHandler handler;
+    private final Overflow overflow;
+
+    // Bounded multi producer ring. A slot is free for position p when its sequence is p, and holds data for p when it is p + 1
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final byte[][] data;
+    private final int[] length;
+    private final long[] timestamp;
+    private final byte[] kind;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread dispatcher;
+    private volatile boolean dispatcherParked;
+    private volatile boolean closed;
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public AsyncTraceHandler(TraceHandler handler)
+    {
+        this(handler, DEFAULT_CAPACITY, Overflow.DROP);
+    }
+
+    /**
+     * @param capacity number of records which can be buffered, rounded up to a power of two
+     */
+    public AsyncTraceHandler(TraceHandler handler, int capacity, Overflow overflow)
+    {
+        this.handler = handler;
+        this.overflow = overflow;
+
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        sequence = new AtomicLongArray(size);
+        data = new byte[size][];
+        length = new int[size];
+        timestamp = new long[size];
+        kind = new byte[size];
+        for (int ix = 0; ix < size; ix++)
+        {
+            sequence.set(ix, ix);
+            data[ix] = new byte[INITIAL_SLOT_SIZE];
+        }
+
+        dispatcher = Threads.newThread("trace-dispatcher", this::dispatch, true);
+        dispatcher.start();
+    }
+
+    //////////////////////////////////////////////////
+    // INTERFACE METHODS - TraceHandler
+    //////////////////////////////////////////////////
+    @Override
+    public void incomingData(byte[] data, int offset, int len)
+    {
+        enqueue(KIND_IN, System.currentTimeMillis(), data, offset, len);
+    }
+
+    @Override
+    public void outgoingData(byte[] data, int offset, int len)
+    {
+        enqueue(KIND_OUT, System.currentTimeMillis(), data, offset, len);
+    }
+
+    @Override
+    public void traceEvent(long timestampMillis, String event)
+    {
+        byte[] bytes = event.getBytes(StandardCharsets.UTF_8);
+        enqueue(KIND_EVENT, timestampMillis, bytes, 0, bytes.length);
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * @return number of records discarded because the buffer was full
+     */
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Passes on anything still buffered, then closes the handler if it is {@link Closeable}. Any data traced after this is dropped.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        LockSupport.unpark(dispatcher);
+        try
+        {
+            dispatcher.join();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (handler instanceof Closeable)
+        {
+            ((Closeable) handler).close();
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    private void enqueue(byte recKind, long ts, byte[] buf, int offset, int len)
+    {
+        long pos;
+
+        while (true)
+        {
+            if (closed)
+            {
+                dropped.incrementAndGet();
+                return;
+            }
+
+            pos = tail.get();
+            long diff = sequence.get((int) pos & mask) - pos;
+            if (diff == 0)
+            {
+                if (tail.compareAndSet(pos, pos + 1))
+                {
+                    break;
+                }
+            }
+            else if (diff < 0)
+            {
+                // Full
+                if (overflow == Overflow.DROP)
+                {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                LockSupport.unpark(dispatcher);
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+            // else another producer claimed this position first, go round again
+        }
+
+        int ix = (int) pos & mask;
+        if (data[ix].length < len)
+        {
+            data[ix] = new byte[len];
+        }
+        System.arraycopy(buf, offset, data[ix], 0, len);
+        length[ix] = len;
+        timestamp[ix] = ts;
+        kind[ix] = recKind;
+        sequence.set(ix, pos + 1);
+
+        if (dispatcherParked)
+        {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void dispatch()
+    {
+        while (true)
+        {
+            int count = 0;
+            int ix;
+            while (sequence.get(ix = (int) head & mask) == head + 1)
+            {
+                try
+                {
+                    if (kind[ix] == KIND_EVENT)
+                    {
+                        handler.traceEvent(timestamp[ix], new String(data[ix], 0, length[ix], StandardCharsets.UTF_8));
+                    }
+                    else
+                    {
+                        handler.traceData(kind[ix] == KIND_IN, timestamp[ix], data[ix], 0, length[ix]);
+                    }
+                }
+                catch (RuntimeException ex)
+                {
+                    log.log(Level.WARNING, "trace handler failed", ex);
+                }
+                sequence.set(ix, head + mask + 1);
+                head++;
+                count++;
+            }
+
+            if (count > 0)
+            {
+                flushHandler();
+                continue;
+            }
+
+            if (closed)
+            {
+                // Producers still part way through a slot when we closed may be lost, which is fine as they count as after the close
+                return;
+            }
+
+            dispatcherParked = true;
+            // Re-check after flagging, as a producer may have published before seeing the flag
+            if (sequence.get((int) head & mask) != head + 1 && !closed)
+            {
+                LockSupport.park(this);
+            }
+            dispatcherParked = false;
+        }
+    }
+
+    private void flushHandler()
+    {
+        if (handler instanceof Flushable)
+        {
+            try
+            {
+                ((Flushable) handler).flush();
+            }
+            catch (IOException ex)
+            {
+                log.log(Level.WARNING, "trace handler flush failed", ex);
+            }
+        }
+    }
+}
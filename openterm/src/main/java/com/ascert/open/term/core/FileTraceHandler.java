@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Trace handler writing a readable hex dump of comms data to a file, one line per record, prefixed with the time and direction e.g.
+ * <pre>
+ * 2017-11-22 10:15:02.125 IN  6 FFFD18FFFB18
+ * 2017-11-22 10:15:02.126 EVT received DO TERMINAL_TYPE
+ * </pre>
+ *
+ * Output is buffered and only written out when {@link #flush()} is called, so this is intended to be wrapped in an
+ * {@link AsyncTraceHandler} which flushes after each batch of records.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class FileTraceHandler implements TraceHandler, Flushable, Closeable
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(FileTraceHandler.class.getName());
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final OutputStream os;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS ");
+
+    // Re-used for each line
+    private byte[] line = new byte[1024];
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public FileTraceHandler(File file, boolean append)
+        throws IOException
+    {
+        this(new FileOutputStream(file, append));
+    }
+
+    public FileTraceHandler(OutputStream os)
+    {
+        this.os = new BufferedOutputStream(os, BUFFER_SIZE);
+    }
+
+    //////////////////////////////////////////////////
+    // INTERFACE METHODS - TraceHandler
+    //////////////////////////////////////////////////
+    @Override
+    public void incomingData(byte[] data, int offset, int len)
+    {
+        traceData(true, System.currentTimeMillis(), data, offset, len);
+    }
+
+    @Override
+    public void outgoingData(byte[] data, int offset, int len)
+    {
+        traceData(false, System.currentTimeMillis(), data, offset, len);
+    }
+
+    @Override
+    public synchronized void traceData(boolean incoming, long timestampMillis, byte[] data, int offset, int len)
+    {
+        byte[] prefix = (dateFormat.format(new Date(timestampMillis)) + (incoming ? "IN  " : "OUT ") + len + " ").getBytes();
+        int size = prefix.length + len * 2 + 1;
+        if (line.length < size)
+        {
+            line = new byte[size];
+        }
+
+        System.arraycopy(prefix, 0, line, 0, prefix.length);
+        int pos = prefix.length;
+        for (int ix = offset; ix < offset + len; ix++)
+        {
+            line[pos++] = HEX[(data[ix] >> 4) & 0x0F];
+            line[pos++] = HEX[data[ix] & 0x0F];
+        }
+        line[pos++] = '\n';
+
+        try
+        {
+            os.write(line, 0, pos);
+        }
+        catch (IOException ex)
+        {
+            log.log(Level.WARNING, "unable to write trace data", ex);
+        }
+    }
+
+    @Override
+    public synchronized void traceEvent(long timestampMillis, String event)
+    {
+        try
+        {
+            os.write((dateFormat.format(new Date(timestampMillis)) + "EVT " + event + "\n").getBytes());
+        }
+        catch (IOException ex)
+        {
+            log.log(Level.WARNING, "unable to write trace event", ex);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // INTERFACE METHODS - Flushable, Closeable
+    //////////////////////////////////////////////////
+    @Override
+    public synchronized void flush() throws IOException
+    {
+        os.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        os.close();
+    }
+}
@@ -242,6 +242,45 @@ public class Host implements Serializable, SimpleConfig
         setProperty("host.keepalive", Integer.toString(keepAliveTimeout));
     }
     
+    /**
+     * @return whether to use the non-blocking NIO telnet transport
+     */
+    public boolean isNioTransport()
+    {
+        return Boolean.parseBoolean(getProperty("host.nio"));
+    }
+
+    /**
+     * @param nioTransport whether to use the non-blocking NIO telnet transport
+     */
+    public void setNioTransport(boolean nioTransport)
+    {
+        setProperty("host.nio", Boolean.toString(nioTransport));
+    }
+
+    /**
+     * @return TN3270E device (LU) name to ask for, or <code>null</code> for any. Specific to this host, so no global default.
+     */
+    public String getDeviceName()
+    {
+        return props.getProperty("host.deviceName");
+    }
+
+    /**
+     * @param deviceName TN3270E device (LU) name to ask for, <code>null</code> for any
+     */
+    public void setDeviceName(String deviceName)
+    {
+        if (deviceName != null)
+        {
+            setProperty("host.deviceName", deviceName);
+        }
+        else
+        {
+            props.remove("host.deviceName");
+        }
+    }
+
     /**
      * @return the favourite
      */
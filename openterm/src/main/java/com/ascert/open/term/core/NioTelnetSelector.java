@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ascert.open.term.application.OpenTermConfig;
+import com.ascert.open.util.Threads;
+
+/**
+ * Small shared pool of selector threads used to drive telnet sessions over non-blocking NIO channels, as an alternative to the default
+ * thread per session blocking mode of RWTelnet. Each channel is pinned to a single selector thread for its lifetime, so reads and parsing
+ * for a given session always happen in order on the same thread.
+ *
+ * Parsing is done directly on the selector thread, so anything slow hanging off the parser (client refresh etc.) will hold up other
+ * sessions sharing that selector. For headless/scraping use that's not usually an issue, GUI use should stick to the blocking mode.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class NioTelnetSelector
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(NioTelnetSelector.class.getName());
+
+    public static final String KEY_SELECTOR_THREADS = "telnet.nio.selectors";
+
+    private static final int READ_BUFFER_SIZE = 2048;
+    private static final long SELECT_TIMEOUT = 1000;
+
+    private static NioTelnetSelector instance;
+
+    //////////////////////////////////////////////////
+    // STATIC PUBLIC METHODS
+    //////////////////////////////////////////////////
+    public static synchronized NioTelnetSelector getInstance() throws IOException
+    {
+        if (instance == null)
+        {
+            int dflt = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+            instance = new NioTelnetSelector(OpenTermConfig.getIntProp(KEY_SELECTOR_THREADS, dflt));
+        }
+        return instance;
+    }
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final SelectorThread[] selectors;
+    private final AtomicInteger nextSelector = new AtomicInteger();
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public NioTelnetSelector(int threads) throws IOException
+    {
+        log.fine("Starting NIO telnet selectors: " + threads);
+        selectors = new SelectorThread[Math.max(1, threads)];
+        for (int ix = 0; ix < selectors.length; ix++)
+        {
+            selectors[ix] = new SelectorThread(ix);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * Creates an unconnected channel for the supplied session, pinned to the next selector thread in turn. The caller should keep a
+     * reference to the channel before calling connect, as callbacks into the session may start as soon as the connect completes.
+     */
+    public NioChannel open(RWTelnet tn) throws IOException
+    {
+        SelectorThread sel = selectors[Math.floorMod(nextSelector.getAndIncrement(), selectors.length)];
+        return new NioChannel(tn, sel);
+    }
+
+    //////////////////////////////////////////////////
+    // NON-STATIC INNER CLASSES
+    //////////////////////////////////////////////////
+    /**
+     * A single session channel. Writes may be made from any thread, and are attempted immediately. Anything the socket won't take straight
+     * away is queued and drained by the selector thread when the channel becomes writable.
+     */
+    public class NioChannel
+    {
+
+        private final RWTelnet tn;
+        private final SelectorThread owner;
+        private final SocketChannel ch;
+        private final ByteBuffer readBuf = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+        private SelectionKey key;
+        private long connectDeadline;
+        private volatile boolean closed;
+
+        private NioChannel(RWTelnet tn, SelectorThread owner) throws IOException
+        {
+            this.tn = tn;
+            this.owner = owner;
+            this.ch = SocketChannel.open();
+            ch.configureBlocking(false);
+        }
+
+        /**
+         * Starts a non-blocking connect. Completion, or failure, is reported back to the session from the selector thread.
+         */
+        public void connect(InetSocketAddress addr, int timeoutMillis) throws IOException
+        {
+            connectDeadline = timeoutMillis > 0 ? System.currentTimeMillis() + timeoutMillis : Long.MAX_VALUE;
+            final boolean connected = ch.connect(addr);
+            owner.execute(() -> register(connected));
+        }
+
+        public boolean isConnected()
+        {
+            return !closed && ch.isConnected();
+        }
+
+        public void write(byte[] out, int off, int len) throws IOException
+        {
+            synchronized (writeQueue)
+            {
+                if (closed)
+                {
+                    throw new IOException("Telnet channel closed");
+                }
+
+                ByteBuffer bb = ByteBuffer.wrap(out, off, len);
+                if (writeQueue.isEmpty() && ch.isConnected())
+                {
+                    ch.write(bb);
+                    if (!bb.hasRemaining())
+                    {
+                        return;
+                    }
+                }
+                // Callers are free to re-use their buffers, so we need our own copy of anything left over
+                ByteBuffer pending = ByteBuffer.allocate(bb.remaining());
+                pending.put(bb).flip();
+                writeQueue.add(pending);
+            }
+
+            owner.execute(this::updateInterest);
+        }
+
+        public void close()
+        {
+            closed = true;
+            synchronized (writeQueue)
+            {
+                writeQueue.clear();
+            }
+            try
+            {
+                // Closing the channel also cancels any selector registration
+                ch.close();
+            }
+            catch (IOException ex)
+            {
+                log.finest("Channel close exception: " + ex);
+            }
+            owner.selector.wakeup();
+        }
+
+        //////////////////////////////////////////////////
+        // Selector thread only methods below here
+        //////////////////////////////////////////////////
+        private void register(boolean connected)
+        {
+            try
+            {
+                if (closed)
+                {
+                    return;
+                }
+                key = ch.register(owner.selector, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+                if (connected)
+                {
+                    tn.nioConnected();
+                }
+            }
+            catch (Exception ex)
+            {
+                failed(ex, !connected);
+            }
+        }
+
+        private void updateInterest()
+        {
+            if (key == null || !key.isValid() || ch.isConnectionPending())
+            {
+                return;
+            }
+
+            synchronized (writeQueue)
+            {
+                key.interestOps(writeQueue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        private void handle()
+        {
+            boolean connecting = false;
+            try
+            {
+                if (key.isConnectable())
+                {
+                    connecting = true;
+                    if (ch.finishConnect())
+                    {
+                        connecting = false;
+                        key.interestOps(SelectionKey.OP_READ);
+                        tn.nioConnected();
+                        updateInterest();
+                    }
+                    return;
+                }
+
+                if (key.isValid() && key.isWritable())
+                {
+                    flushQueue();
+                    updateInterest();
+                }
+
+                if (key.isValid() && key.isReadable())
+                {
+                    readBuf.clear();
+                    int n = ch.read(readBuf);
+                    if (n < 0)
+                    {
+                        failed(null, false);
+                    }
+                    else if (n > 0)
+                    {
+                        tn.nioDataIn(readBuf.array(), n);
+                    }
+                }
+            }
+            catch (Exception ex)
+            {
+                failed(ex, connecting);
+            }
+        }
+
+        private void flushQueue() throws IOException
+        {
+            synchronized (writeQueue)
+            {
+                ByteBuffer bb;
+                while ((bb = writeQueue.peek()) != null)
+                {
+                    ch.write(bb);
+                    if (bb.hasRemaining())
+                    {
+                        break;
+                    }
+                    writeQueue.poll();
+                }
+            }
+        }
+
+        private void checkConnectTimeout(long now)
+        {
+            if (ch.isConnectionPending() && now > connectDeadline)
+            {
+                failed(new SocketTimeoutException("connect timed out"), true);
+            }
+        }
+
+        private void failed(Exception ex, boolean connecting)
+        {
+            if (closed)
+            {
+                // Local disconnect, nothing to report
+                return;
+            }
+            close();
+            tn.nioClosed(ex, connecting);
+        }
+    }
+
+    private class SelectorThread implements Runnable
+    {
+
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        private SelectorThread(int num) throws IOException
+        {
+            selector = Selector.open();
+            Threads.newThread("telnet-nio-selector-" + num, this, true).start();
+        }
+
+        private void execute(Runnable task)
+        {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run()
+        {
+            log.finer("started NIO selector thread");
+
+            while (true)
+            {
+                try
+                {
+                    Runnable task;
+                    while ((task = tasks.poll()) != null)
+                    {
+                        task.run();
+                    }
+
+                    selector.select(SELECT_TIMEOUT);
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext())
+                    {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        if (key.isValid())
+                        {
+                            ((NioChannel) key.attachment()).handle();
+                        }
+                    }
+
+                    long now = System.currentTimeMillis();
+                    for (SelectionKey key : selector.keys())
+                    {
+                        if (key.isValid() && (key.interestOps() & SelectionKey.OP_CONNECT) != 0)
+                        {
+                            ((NioChannel) key.attachment()).checkConnectTimeout(now);
+                        }
+                    }
+                }
+                catch (Exception ex)
+                {
+                    // Must keep the selector alive regardless, other sessions depend on it
+                    log.log(Level.SEVERE, "Unexpected failure in NIO selector loop", ex);
+                }
+            }
+        }
+    }
+}
@@ -61,6 +61,7 @@ public class OhioScreenWrapper implements OhioScreen
     //////////////////////////////////////////////////
     Terminal term;
     OhioOIA oia;
+    Map<OhioScreenListener, ScreenChangeListener> screenListeners = new ConcurrentHashMap<>();
 
     //////////////////////////////////////////////////
     // CONSTRUCTORS
@@ -91,6 +92,7 @@ public class OhioScreenWrapper implements OhioScreen
     {
         //TODO - should only update UI if we have one rendered (e.g. in emulator or ghost/replay mode), then we probably want to refresh the display here
         term.setCursorPosition((short) OhioPosition.convertPositionToScreenOffset(cursorPos, term.getCols()), true);
+        term.publishSnapshot();
     }
 
     @Override
@@ -121,8 +123,8 @@ public class OhioScreenWrapper implements OhioScreen
     public String getString()
     {
         // Ensure nulls are returned as spaces as per spec for this method
-        // (attributes etc already seem to be handled by freehost3270)
-        return new String(term.getDisplay());
+        // (attributes etc already seem to be handled by freehost3270). Read from the snapshot so no locking is needed.
+        return new String(term.getSnapshot().getDisplay());
     }
 
     @Override
@@ -134,7 +136,10 @@ public class OhioScreenWrapper implements OhioScreen
     @Override
     public OhioPosition findString(String targetString, OhioPosition start, int length, Ohio.OHIO_DIRECTION dir, boolean ignoreCase)
     {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        ScreenSnapshot snap = term.getSnapshot();
+        boolean forward = (dir != Ohio.OHIO_DIRECTION.OHIO_DIRECTION_BACKWARD);
+        int pos = snap.indexOf(targetString, startOffset(snap, start, forward), length, forward, ignoreCase);
+        return pos >= 0 ? OhioPosition.convertScreenOffsetToPosition(pos, snap.getCols()) : null;
     }
 
     @Override
@@ -146,24 +151,29 @@ public class OhioScreenWrapper implements OhioScreen
             setCursor(location);
         }
 
-        for (int ix = 0; ix < text.length(); ix++)
+        synchronized (term.getLockObject())
         {
-            try
-            {
-                term.getCharHandler().type(text.charAt(ix));
-            }
-            catch (Exception ex)
+            for (int ix = 0; ix < text.length(); ix++)
             {
-                //TODO - need to handle or re-throw this
-                Logger.getLogger(EmulatorPanel.class.getName()).log(Level.SEVERE, "attempt to sendKeys in protected field", ex);
+                try
+                {
+                    term.getCharHandler().type(text.charAt(ix));
+                }
+                catch (Exception ex)
+                {
+                    //TODO - need to handle or re-throw this
+                    Logger.getLogger(EmulatorPanel.class.getName()).log(Level.SEVERE, "attempt to sendKeys in protected field", ex);
+                }
             }
         }
+        term.publishSnapshot();
     }
 
     @Override
     public void sendAid(int aidKey)
     {
         term.Fkey(aidKey);
+        term.publishSnapshot();
     }
 
     @Override
@@ -172,16 +182,28 @@ public class OhioScreenWrapper implements OhioScreen
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
+    /**
+     * Listeners are called on the terminal's screen change dispatcher thread, with the region covering all cells changed. Changes of
+     * cursor position alone are passed with both start and end at the new cursor position.
+     */
     @Override
     public void addScreenListener(OhioScreenListener listener)
     {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        ScreenChangeListener wrap = (delta) -> screenChanged(listener, delta);
+        if (screenListeners.putIfAbsent(listener, wrap) == null)
+        {
+            term.addScreenChangeListener(wrap);
+        }
     }
 
     @Override
     public void removeScreenListener(OhioScreenListener listener)
     {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        ScreenChangeListener wrap = screenListeners.remove(listener);
+        if (wrap != null)
+        {
+            term.removeScreenChangeListener(wrap);
+        }
     }
 
     //////////////////////////////////////////////////
@@ -190,6 +212,85 @@ public class OhioScreenWrapper implements OhioScreen
     //////////////////////////////////////////////////
     // PRIVATE INSTANCE METHODS
     //////////////////////////////////////////////////
+    /**
+     * @return screen offset of an OHIO search start position, with none meaning the first position if searching forward or last if not
+     */
+    private int startOffset(ScreenSnapshot snap, OhioPosition start, boolean forward)
+    {
+        if (start == null)
+        {
+            return forward ? 0 : snap.size() - 1;
+        }
+        return OhioPosition.convertPositionToScreenOffset(start, snap.getCols());
+    }
+
+    private void screenChanged(OhioScreenListener listener, ScreenDelta delta)
+    {
+        int start;
+        int end;
+        if (delta.isContentChanged())
+        {
+            start = delta.getFirstChanged();
+            end = delta.getLastChanged();
+        }
+        else if (delta.isCursorMoved())
+        {
+            start = end = delta.getAfter().getCursorPosition();
+        }
+        else
+        {
+            // Keyboard lock only, which OIA listeners cover
+            return;
+        }
+
+        Ohio.OHIO_UPDATE update = delta.isHostUpdate() ? Ohio.OHIO_UPDATE.OHIO_UPDATE_HOST : Ohio.OHIO_UPDATE.OHIO_UPDATE_CLIENT;
+        int cols = delta.getAfter().getCols();
+        listener.onScreenChanged(update.ordinal(), OhioPosition.convertScreenOffsetToPosition(start, cols),
+                                 OhioPosition.convertScreenOffsetToPosition(end, cols));
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    //////////////////////////////////////////////////
+    private static String describe(OhioField fld)
+    {
+        StringBuffer buf = new StringBuffer();
+
+        buf.append("start: [" + fld.getStart() + "], ");
+        buf.append("end: [" + fld.getEnd() + "], ");
+        buf.append("len: [" + fld.getLength() + "], ");
+        buf.append("val: [" + fld.getString() + "], ");
+        buf.append("attr: [0x" + Integer.toHexString(fld.getAttribute()) + " - ");
+
+        if (fld.isModified())
+        {
+            buf.append("MOD ");
+        }
+        if (fld.isProtected())
+        {
+            buf.append("PROT ");
+        }
+        if (fld.isNumeric())
+        {
+            buf.append("NUM ");
+        }
+        if (fld.isHighIntensity())
+        {
+            buf.append("HI ");
+        }
+        if (fld.isPenSelectable())
+        {
+            buf.append("PEN ");
+        }
+        if (fld.isHidden())
+        {
+            buf.append("HID ");
+        }
+        buf.append("]");
+
+        return buf.toString();
+    }
+
     //////////////////////////////////////////////////
     // STATIC INNER CLASSES
     //////////////////////////////////////////////////
@@ -225,10 +326,43 @@ public class OhioScreenWrapper implements OhioScreen
             fields = term.getFields();
         }
 
+        /**
+         * Finds the first field, in the direction given, whose data contains the target. Matches spanning more than one field don't
+         * count. The field returned is as it stood in the snapshot searched.
+         */
         @Override
         public OhioField findByString(String targeString, OhioPosition startPos, int length, Ohio.OHIO_DIRECTION dir, boolean ignoreCase)
         {
-            throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+            ScreenSnapshot snap = term.getSnapshot();
+            boolean forward = (dir != Ohio.OHIO_DIRECTION.OHIO_DIRECTION_BACKWARD);
+            int start = startOffset(snap, startPos, forward);
+            int pos = snap.indexOf(targeString, start, length, forward, ignoreCase);
+
+            while (pos >= 0)
+            {
+                ScreenSnapshot.Field fld = snap.getField(pos);
+                if (fld == null)
+                {
+                    // Unformatted screen
+                    return null;
+                }
+
+                int off = (pos - fld.getBeginBA() + snap.size()) % snap.size();
+                if (off > 0 && off + targeString.length() <= fld.size())
+                {
+                    return new SnapshotOhioField(snap, fld);
+                }
+
+                // Carry on from the next position, within what's left of the area searched
+                int next = forward ? pos + 1 : pos - 1;
+                int remaining = (length > 0) ? length - Math.abs(next - start) : 0;
+                if (length > 0 && remaining <= 0)
+                {
+                    return null;
+                }
+                pos = (next >= 0) ? snap.indexOf(targeString, next, remaining, forward, ignoreCase) : -1;
+            }
+            return null;
         }
 
         @Override
@@ -333,41 +467,110 @@ public class OhioScreenWrapper implements OhioScreen
 
         public String toString()
         {
-            StringBuffer buf = new StringBuffer();
+            return describe(this);
+        }
+    }
 
-            buf.append("start: [" + getStart() + "], ");
-            buf.append("end: [" + getEnd() + "], ");
-            buf.append("len: [" + getLength() + "], ");
-            buf.append("val: [" + getString() + "], ");
-            buf.append("attr: [0x" + Integer.toHexString(getAttribute()) + " - ");
+    /**
+     * A field as it stood in a screen snapshot, so unaffected by later changes. Being a copy, it can't be updated.
+     */
+    public class SnapshotOhioField implements OhioField
+    {
 
-            if (isModified())
-            {
-                buf.append("MOD ");
-            }
-            if (isProtected())
-            {
-                buf.append("PROT ");
-            }
-            if (isNumeric())
-            {
-                buf.append("NUM ");
-            }
-            if (isHighIntensity())
-            {
-                buf.append("HI ");
-            }
-            if (isPenSelectable())
-            {
-                buf.append("PEN ");
-            }
-            if (isHidden())
+        private final ScreenSnapshot snap;
+        private final ScreenSnapshot.Field fld;
+
+        private SnapshotOhioField(ScreenSnapshot snap, ScreenSnapshot.Field fld)
+        {
+            this.snap = snap;
+            this.fld = fld;
+        }
+
+        @Override
+        public OhioPosition getStart()
+        {
+            return OhioPosition.convertScreenOffsetToPosition(fld.getBeginBA(), snap.getCols());
+        }
+
+        @Override
+        public OhioPosition getEnd()
+        {
+            return OhioPosition.convertScreenOffsetToPosition((fld.getBeginBA() + fld.size() - 1) % snap.size(), snap.getCols());
+        }
+
+        @Override
+        public int getLength()
+        {
+            return fld.size();
+        }
+
+        @Override
+        public int getAttribute()
+        {
+            return fld.getFieldAttribute();
+        }
+
+        @Override
+        public boolean isModified()
+        {
+            return fld.isModified();
+        }
+
+        @Override
+        public boolean isProtected()
+        {
+            return fld.isProtected();
+        }
+
+        @Override
+        public boolean isNumeric()
+        {
+            return fld.isNumeric();
+        }
+
+        @Override
+        public boolean isHighIntensity()
+        {
+            return fld.isAltIntensity();
+        }
+
+        @Override
+        public boolean isPenSelectable()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isHidden()
+        {
+            return fld.isHidden();
+        }
+
+        @Override
+        public String getString()
+        {
+            return snap.getString(fld);
+        }
+
+        @Override
+        public void setString(String text)
+        {
+            throw new UnsupportedOperationException("Snapshot fields are read only");
+        }
+
+        @Override
+        public char[] getData(Ohio.OHIO_PLANE targetPlane)
+        {
+            if (targetPlane == Ohio.OHIO_PLANE.OHIO_PLANE_TEXT)
             {
-                buf.append("HID ");
+                return snap.getString(fld).toCharArray();
             }
-            buf.append("]");
+            throw new UnsupportedOperationException("Plane not supported yet: " + targetPlane);
+        }
 
-            return buf.toString();
+        public String toString()
+        {
+            return describe(this);
         }
     }
 
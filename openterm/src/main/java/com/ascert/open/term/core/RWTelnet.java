@@ -29,10 +29,14 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import java.util.logging.Logger;
 import java.util.logging.Level;
@@ -40,9 +44,11 @@ import java.util.logging.Level;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 
+import com.ascert.open.util.Threads;
+
 /**
- * TODO: - look into TN3270E protocol, SSCP LU device name, options etc https://tools.ietf.org/html/rfc1647
- *
+ * Telnet protocol handling common to all terminal types. TN3270E (RFC 2355) record headers and negotiation are layered on top of this
+ * by {@link com.ascert.open.term.i3270.Tn3270ETelnet}.
  *
  * @since 0.1
  */
@@ -57,6 +63,8 @@ public class RWTelnet implements Runnable
     public static final short NOP = 241;            //No Operation
     public static final short DATA_MARK = 242;            //data mark Operation
     public static final short BREAK = 243;            //break Operation
+    public static final short IP = 244;             //Interrupt process
+    public static final short AO = 245;             //Abort output
     public static final short SB = 250;             //Begin subnegotiation
     public static final short WILL = 251;           //Will perform an indicated option
     public static final short WONT = 252;           //Won't perform an indicated option
@@ -74,6 +82,7 @@ public class RWTelnet implements Runnable
     public static final short OPT_EOR = 25;         //End of Record
     public static final short OPT_WINDOW = 31;          //Window size
     public static final short OPT_LINE_MODE = 34;
+    public static final short OPT_TN3270E = 40;         //TN3270 Enhancements - RFC 2355
 
     public static final short OPTION_IS = 0;        //option is
     public static final short OPTION_SEND = 1;      //send option
@@ -130,23 +139,27 @@ public class RWTelnet implements Runnable
     }
 
     private InputStream is;
-    private OutputStream os;
+    private volatile OutputStream os;
     protected TnStreamParser tnParser;
     private Socket tnSocket;
     private SSLSocket tnSocketSSL;
     private volatile Thread sessionThread;
-    protected short[] bufferTerm; //put the 3270 bytes in here
+    protected byte[] bufferTerm; //put the 3270 bytes in here
     protected int bufferTermLen;
     private boolean[] doHistory;
-    private short[] inBuf; //put raw data from the inputstream here
+    private byte[] inBuf; //raw data currently being parsed
+    private final byte[] readBuf = new byte[2048]; //re-used for every socket read
     private byte[] key;
-    private short[] subOptionBuffer;
+    protected short[] subOptionBuffer;
     private boolean[] willHistory;
     private boolean encryption;
+    private boolean nioTransport;
+    // Cleared by disconnect(), which for a remote close runs on the selector thread, so read it once into a local
+    private volatile NioTelnetSelector.NioChannel nioChannel;
     private int connectionTimeout;
     private int inBufLen;
     private int keyCounter;
-    private int subOptionBufferLen;
+    protected int subOptionBufferLen;
     private int tnState;
     private short tnCommand;
 
@@ -163,8 +176,15 @@ public class RWTelnet implements Runnable
 
     protected TraceHandler traceHandler = null;
     // For keep Alive handling
-    private long lastSendTS;
+    private volatile long lastSendTS;
+    // Output held back whilst batching, so a whole parse cycle worth of replies goes out in one write
+    private byte[] outBuf = new byte[512];
+    private int outBufLen;
+    private int batchDepth;
     private int keepAliveMillis;
+    private ScheduledFuture<?> keepAliveTask;
+    private final Object keepAliveLock = new Object();
+    private final AtomicBoolean keepAliveSending = new AtomicBoolean();
 
     /**
      * DOCUMENT ME!
@@ -188,7 +208,7 @@ public class RWTelnet implements Runnable
         this.tnParser = tnParser;
         this.sendInitialCmds = sendInitialCmds;
 
-        bufferTerm = new short[50000];
+        bufferTerm = new byte[50000];
         bufferTermLen = 0;
         subOptionBuffer = new short[50];
         subOptionBufferLen = 0;
@@ -271,8 +291,22 @@ public class RWTelnet implements Runnable
         throws UnknownHostException, IOException
     {
         log.fine("connecting to " + host + ":" + port);
-        if (encryption)
+        traceEvent("connect " + host + ":" + port);
+        if (nioTransport && !encryption)
         {
+            log.fine("non-blocking NIO connection");
+            negTnCmds.clear();
+            tnState = TN_DEFAULT;
+            // Must be assigned before connecting, callbacks can start as soon as the connect completes
+            nioChannel = NioTelnetSelector.getInstance().open(this);
+            nioChannel.connect(new InetSocketAddress(host, port), connectionTimeout * 1000);
+        }
+        else if (encryption)
+        {
+            if (nioTransport)
+            {
+                log.fine("NIO transport not available for encrypted connections, using blocking mode");
+            }
 
             log.fine("encrypted connection");
             SSLSocketFactory sslFact = (SSLSocketFactory) SSLSocketFactory.getDefault();
@@ -294,7 +328,7 @@ public class RWTelnet implements Runnable
         this.os = os;
         negTnCmds.clear();
         tnState = TN_DEFAULT;
-        sessionThread = new Thread(this);
+        sessionThread = Threads.newThread("telnet-session", this);
         sessionThread.start();
     }
     
@@ -303,6 +337,23 @@ public class RWTelnet implements Runnable
      */
     protected void disconnect()
     {
+        stopKeepAlive();
+        if (isConnected())
+        {
+            traceEvent("disconnect");
+        }
+
+        if (nioChannel != null)
+        {
+            NioTelnetSelector.NioChannel nc = nioChannel;
+            nioChannel = null;
+            nc.close();
+            willHistory = new boolean[3];
+            doHistory = new boolean[3];
+            log.fine("disconnected (NIO)");
+            return;
+        }
+
         if (sessionThread == null || tnSocket == null && tnSocketSSL == null)
         {
             log.fine("socket is null, not connected");
@@ -338,7 +389,12 @@ public class RWTelnet implements Runnable
     public boolean isConnected()
     {
 
-        if (tnSocket != null)
+        NioTelnetSelector.NioChannel nc = nioChannel;
+        if (nc != null)
+        {
+            return nc.isConnected();
+        }
+        else if (tnSocket != null)
         {
             return tnSocket.isConnected();
         }
@@ -375,16 +431,17 @@ public class RWTelnet implements Runnable
      * Processes broadcast message. Is called when a broadcast message is received.
      *
      * @param netBuf DOCUMENT ME!
+     * @param len    the number of valid bytes in netBuf
      */
-    protected void receiveMessage(short[] netBuf)
+    protected void receiveMessage(byte[] netBuf, int len)
     {
         log.fine("received broadcast message");
 
-        char[] msg = new char[netBuf.length];
+        char[] msg = new char[len];
 
-        for (int i = 2; i < netBuf.length; i++)
+        for (int i = 2; i < len; i++)
         {
-            msg[i - 2] = (char) netBuf[i];
+            msg[i - 2] = (char) Byte.toUnsignedInt(netBuf[i]);
         }
 
         tnParser.broadcastMessage(new String(msg).trim());
@@ -416,7 +473,7 @@ public class RWTelnet implements Runnable
     public void sendData(byte[] out, int outLen) throws IOException
     {
 
-        if (os == null)
+        if (os == null && nioChannel == null)
         {
             log.warning("attempt to send when telnet not connected, discarding");
             return;
@@ -442,31 +499,91 @@ public class RWTelnet implements Runnable
     public synchronized void send(byte[] out, int off, int outLen) throws IOException
     {
         lastSendTS = System.currentTimeMillis();
-        //write the data out to the EncryptedOutputStream
-        os.write(out, off, outLen);
-        os.flush();
+        if (batchDepth > 0)
+        {
+            if (outBufLen + outLen > outBuf.length)
+            {
+                outBuf = Arrays.copyOf(outBuf, Math.max(outBuf.length * 2, outBufLen + outLen));
+            }
+            System.arraycopy(out, off, outBuf, outBufLen, outLen);
+            outBufLen += outLen;
+        }
+        else
+        {
+            write(out, off, outLen);
+        }
 
         if (traceHandler != null)
         {
-            // possible we'd want this waited/queued to some async handler thread
+            // Inline on the sending thread, wrap the handler in an AsyncTraceHandler if it is at all slow
             traceHandler.outgoingData(out, off, outLen);
         }
     }
 
+    /**
+     * Starts holding back sends, so that everything sent up until the matching {@link #endBatch()} goes to the host as a single write
+     * and flush. Saves a syscall, and for encrypted sessions a TLS record, per telnet negotiation reply or data record. Batches may be
+     * nested, output is only written when the outermost one ends.
+     */
+    public synchronized void beginBatch()
+    {
+        batchDepth++;
+    }
+
+    public synchronized void endBatch() throws IOException
+    {
+        if (batchDepth == 0 || --batchDepth > 0 || outBufLen == 0)
+        {
+            return;
+        }
+
+        int len = outBufLen;
+        outBufLen = 0;
+        if (os == null && nioChannel == null)
+        {
+            log.fine("telnet disconnected whilst batching, discarding output: " + len);
+            return;
+        }
+        write(outBuf, 0, len);
+    }
+
+    private void write(byte[] out, int off, int outLen) throws IOException
+    {
+        // Either may be cleared by a disconnect on another thread at any point
+        NioTelnetSelector.NioChannel nc = nioChannel;
+        OutputStream stream = os;
+        if (nc != null)
+        {
+            // non-blocking, anything not written immediately is queued for the selector thread
+            nc.write(out, off, outLen);
+        }
+        else if (stream != null)
+        {
+            //write the data out to the EncryptedOutputStream
+            stream.write(out, off, outLen);
+            stream.flush();
+        }
+        else
+        {
+            throw new SocketException("Telnet not connected");
+        }
+    }
+
+    // Telnet commands rather than data records, so sent as is without any record framing
     public void sendBreak() throws IOException
     {
-        sendData(new byte[]
+        send(new byte[]
         {
             (byte) IAC, (byte) BREAK
-        });
+        }, 0, 2);
     }
     
     public void sendNOP() throws IOException
     {
-        sendData(new byte[]
+        send(new byte[]
         {
             (byte) IAC, (byte) NOP
-        });
+        }, 0, 2);
     }
 
     /**
@@ -479,6 +596,17 @@ public class RWTelnet implements Runnable
         this.encryption = encryption;
     }
 
+    /**
+     * Selects the non-blocking NIO transport for the connect(String,int) method, in place of the default thread per session blocking
+     * mode. Has no effect for encrypted or stream based connections.
+     *
+     * @param nioTransport True = NIO False = blocking
+     */
+    protected void setNioTransport(boolean nioTransport)
+    {
+        this.nioTransport = nioTransport;
+    }
+
     /**
      * Sets the connection timeout for the connect(String,int) method.
      *
@@ -506,7 +634,7 @@ public class RWTelnet implements Runnable
 
         try
         {
-            os.write(outData, 0, outData.length);
+            send(outData, 0, outData.length);
             log.fine("SessionData sent to server");
         }
         catch (IOException e)
@@ -538,6 +666,10 @@ public class RWTelnet implements Runnable
         throws IOException
     {
         log.finer(String.format("sending command: %s - %s", decodeCmd(tnCmd), decodeOpt(tnOption)));
+        if (traceHandler != null)
+        {
+            traceEvent(String.format("sending %s %s", decodeCmd(tnCmd), decodeOpt(tnOption)));
+        }
 
         byte[] tmpBuffer = new byte[3];
         tmpBuffer[0] = (byte) IAC;
@@ -617,6 +749,8 @@ public class RWTelnet implements Runnable
                 return "LINE_MODE";
             case OPT_SUPPRESS_GA:
                 return "SUPPRESS_GA";
+            case OPT_TN3270E:
+                return "TN3270E";
             default:
                 return String.format("0x%x", opt);
         }
@@ -664,6 +798,10 @@ public class RWTelnet implements Runnable
         throws IOException
     {
         log.finer(String.format("received telnet command: %s - %s", decodeCmd(tnCmd), decodeOpt(tnOption)));
+        if (traceHandler != null)
+        {
+            traceEvent(String.format("received %s %s", decodeCmd(tnCmd), decodeOpt(tnOption)));
+        }
 
         short cmd;
 
@@ -741,21 +879,35 @@ public class RWTelnet implements Runnable
      * @throws IOException DOCUMENT ME!
      */
     private void parseData() throws IOException
+    {
+        // Any negotiation replies or records sent in response to this lot of data are written together once it is all parsed
+        beginBatch();
+        try
+        {
+            parseRecords();
+        }
+        finally
+        {
+            endBatch();
+        }
+    }
+
+    private void parseRecords() throws IOException
     {
         short curr_byte;
         log.finer("parsing data");
 
         //this if clause traps the inputStream if it is a broadcast message
-        if ((inBuf[0] == IAC) && (inBuf[1] == BROADCAST))
+        if (inBufLen > 1 && (Byte.toUnsignedInt(inBuf[0]) == IAC) && (Byte.toUnsignedInt(inBuf[1]) == BROADCAST))
         {
-            receiveMessage(inBuf);
+            receiveMessage(inBuf, inBufLen);
             inBufLen = 0;
             return;
         }
 
         for (int i = 0; i < inBufLen; i++)
         {
-            curr_byte = inBuf[i];
+            curr_byte = (short) Byte.toUnsignedInt(inBuf[i]);
 
             switch (tnState)
             {
@@ -769,7 +921,7 @@ public class RWTelnet implements Runnable
                     {
                         try
                         {
-                            bufferTerm[bufferTermLen++] = curr_byte;
+                            bufferTerm[bufferTermLen++] = (byte) curr_byte;
                         }
                         catch (ArrayIndexOutOfBoundsException ee)
                         {
@@ -786,7 +938,7 @@ public class RWTelnet implements Runnable
                         case IAC:
                             //Two IACs in a row means this is really a single occurrence
                             //of byte 255 (0xFF).  (255 is its own escape character)
-                            bufferTerm[bufferTermLen++] = curr_byte;
+                            bufferTerm[bufferTermLen++] = (byte) curr_byte;
                             //Since it wasn't really an IAC, reset the tnState to default
                             tnState = TN_DEFAULT;
                             break;
@@ -873,24 +1025,19 @@ public class RWTelnet implements Runnable
 
     private int readSocket() throws IOException
     {
-        inBufLen = 2048;
-
-        // Since inputstreams require a byte array as a parameter (and
-        // not a short[]), we have to use this temporary buffer to
-        // store the results.
-        byte[] tmpByteBuf = new byte[inBufLen];
-        int bytes_read = is.read(tmpByteBuf, 0, inBufLen);
+        // Same buffer every read, parseData() is done with it before we come round again
+        int bytes_read = is.read(readBuf, 0, readBuf.length);
 
         if (bytes_read > -1)
         {
             // System.out.println("Done... ");
             if (traceHandler != null)
             {
-                // possible we'd want this waited/queued to some async handler thread
-                traceHandler.incomingData(tmpByteBuf, 0, bytes_read);
+                // Inline on the reader thread, wrap the handler in an AsyncTraceHandler if it is at all slow
+                traceHandler.incomingData(readBuf, 0, bytes_read);
             }
 
-            inBuf = byteArrayToShort(tmpByteBuf, bytes_read);
+            inBuf = readBuf;
         }
 
         //System.out.println("Bytes read: " + bytes_read);
@@ -906,11 +1053,44 @@ public class RWTelnet implements Runnable
     public void processDataIn(byte[] buff, int len)
         throws IOException
     {
-        inBuf = byteArrayToShort(buff, len);
+        inBuf = buff;
         inBufLen = len;
         parseData();
     }
 
+    //////////////////////////////////////////////////
+    // NIO transport callbacks - all invoked on the owning selector thread
+    //////////////////////////////////////////////////
+    void nioConnected() throws IOException
+    {
+        log.finer("NIO telnet channel connected");
+        sendInitialCommands();
+        startKeepAlive();
+    }
+
+    synchronized void nioDataIn(byte[] buff, int len) throws IOException
+    {
+        if (traceHandler != null)
+        {
+            traceHandler.incomingData(buff, 0, len);
+        }
+        processDataIn(buff, len);
+    }
+
+    void nioClosed(Exception ex, boolean connecting)
+    {
+        if (ex == null)
+        {
+            log.finer("telnet channel closed by remote host, disconnecting");
+        }
+        else
+        {
+            log.log(Level.SEVERE, connecting ? "Failure connecting telnet channel" : "Failure in telnet channel", ex);
+        }
+        tnParser.status(connecting ? TnAction.CONNECTION_ERROR : TnAction.DISCONNECTED_BY_REMOTE_HOST);
+        disconnect();
+    }
+
     public void setOutputStream(OutputStream os)
     {
         this.os = os;
@@ -921,6 +1101,14 @@ public class RWTelnet implements Runnable
         this.traceHandler = traceHandler;
     }
 
+    private void traceEvent(String event)
+    {
+        if (traceHandler != null)
+        {
+            traceHandler.traceEvent(System.currentTimeMillis(), event);
+        }
+    }
+
     public void sendTnCommand(short tnCmd, short tnOption)
         throws IOException
     {
@@ -1014,45 +1202,62 @@ public class RWTelnet implements Runnable
         log.fine("Keep alive timeout: " + this.keepAliveMillis);
     }
 
+    /**
+     * Keep-alives are checked from the shared scheduler, rather than each session having a thread which just sleeps between checks.
+     */
     void startKeepAlive()
     {
-        if (keepAliveMillis > 0)
+        synchronized (keepAliveLock)
         {
-            log.fine("Starting keep alive thread");
-            Thread kaThread = new Thread(new KeepAliveRunner());
-            kaThread.start();
+            stopKeepAlive();
+            if (keepAliveMillis > 0)
+            {
+                log.fine("Starting keep alive");
+                keepAliveTask = Threads.getSharedScheduler().scheduleWithFixedDelay(this::checkKeepAlive, keepAliveMillis, keepAliveMillis,
+                                                                                     TimeUnit.MILLISECONDS);
+            }
         }
     }
-    
-    
-    private class KeepAliveRunner implements Runnable
-    {
 
-        @Override
-        public void run()
+    void stopKeepAlive()
+    {
+        synchronized (keepAliveLock)
         {
-            while (true)
+            if (keepAliveTask != null)
             {
-                try                        
-                {
-                    Thread.sleep(keepAliveMillis);
-                    if (lastSendTS < (System.currentTimeMillis() - keepAliveMillis))
-                    {
-                        log.fine("Sending keep alive ...");
-                        sendNOP();
-                    }
-                } 
-                catch (IOException ex)
-                {
-                    // Will probably get caught and handled elsewhere anyway - warn for now, disconnect on multiple maybe
-                    log.warning("IO Exception on KeepAlive: " + ex);
-                }
-                catch (InterruptedException ex)
-                {
-                    // Nothing we need to do here really
-                }
+                keepAliveTask.cancel(false);
+                keepAliveTask = null;
             }
         }
-        
+    }
+
+    /**
+     * Runs on the shared scheduler, so mustn't block. Sending can wait on the send lock, or on a socket whose buffer is full, so it's
+     * handed off to a thread of its own. Only one is ever outstanding, so a stalled connection can't pile them up.
+     */
+    private void checkKeepAlive()
+    {
+        if (lastSendTS < (System.currentTimeMillis() - keepAliveMillis) && keepAliveSending.compareAndSet(false, true))
+        {
+            Threads.newThread("telnet-keepalive", this::sendKeepAlive, true).start();
+        }
+    }
+
+    private void sendKeepAlive()
+    {
+        try
+        {
+            log.fine("Sending keep alive ...");
+            sendNOP();
+        }
+        catch (IOException ex)
+        {
+            // Will probably get caught and handled elsewhere anyway - warn for now, disconnect on multiple maybe
+            log.warning("IO Exception on KeepAlive: " + ex);
+        }
+        finally
+        {
+            keepAliveSending.set(false);
+        }
     }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ascert.open.util.Threads;
+
+/**
+ * Fans out screen changes to {@link ScreenChangeListener}s. Each time the terminal publishes a new snapshot, the delta from the one before
+ * is worked out once and passed to every listener, all on a thread of the dispatcher's own. The thread publishing is never held up by
+ * the listeners, however slow they are. The thread ends when idle, so dispatchers with no listeners or an idle screen cost nothing.
+ *
+ * Snapshots published whilst the listeners are still busy aren't queued up one by one. Instead they are merged, and the listeners get a
+ * single delta from the last snapshot they were given to the latest, so a slow listener catches up rather than falling ever further
+ * behind. At most one delivery is ever waiting, however fast the screen changes.
+ *
+ * Deltas are delivered strictly in order, and a listener throwing an exception does not stop the others getting them.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class ScreenChangeDispatcher
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(ScreenChangeDispatcher.class.getName());
+
+    private static final long IDLE_SECS = 30;
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final Set<ScreenChangeListener> listeners = new CopyOnWriteArraySet<>();
+    private final ThreadPoolExecutor executor;
+
+    // Last snapshot published
+    private ScreenSnapshot last;
+
+    // Changes waiting to be delivered, from the base snapshot through to the latest. All guarded by this.
+    private ScreenSnapshot pendingBase;
+    private ScreenSnapshot pendingLatest;
+    private boolean pendingHostUpdate;
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public ScreenChangeDispatcher()
+    {
+        // Only one delivery is ever queued, as later snapshots are merged into it
+        executor = new ThreadPoolExecutor(1, 1, IDLE_SECS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                                          Threads.newThreadFactory("ScreenChangeDispatcher", true));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    public void addListener(ScreenChangeListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ScreenChangeListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListeners()
+    {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Called with each snapshot published, which must be in the order they were taken.
+     *
+     * @param hostUpdate whether the changes came from the host, rather than local keyboard actions
+     */
+    public void snapshotPublished(ScreenSnapshot snapshot, boolean hostUpdate)
+    {
+        boolean schedule;
+
+        synchronized (this)
+        {
+            ScreenSnapshot previous = last;
+            if (snapshot == previous)
+            {
+                return;
+            }
+            last = snapshot;
+
+            if (pendingLatest != null)
+            {
+                // Delivery already waiting, which will now go up to this snapshot instead
+                pendingLatest = snapshot;
+                pendingHostUpdate |= hostUpdate;
+                return;
+            }
+
+            schedule = !listeners.isEmpty();
+            if (schedule)
+            {
+                pendingBase = previous;
+                pendingLatest = snapshot;
+                pendingHostUpdate = hostUpdate;
+            }
+        }
+
+        if (schedule)
+        {
+            executor.execute(this::dispatch);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    private void dispatch()
+    {
+        ScreenSnapshot previous;
+        ScreenSnapshot snapshot;
+        boolean hostUpdate;
+
+        synchronized (this)
+        {
+            previous = pendingBase;
+            snapshot = pendingLatest;
+            hostUpdate = pendingHostUpdate;
+            pendingBase = pendingLatest = null;
+        }
+
+        ScreenDelta delta = ScreenDelta.between(previous, snapshot, hostUpdate);
+        if (delta.isEmpty())
+        {
+            // Status line only change
+            return;
+        }
+
+        for (ScreenChangeListener listener : listeners)
+        {
+            try
+            {
+                listener.screenChanged(delta);
+            }
+            catch (RuntimeException ex)
+            {
+                log.log(Level.WARNING, "screen change listener failed", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+/**
+ * Receives what changed on screen each time a new snapshot is published. Called on the terminal's dispatcher thread, never the network
+ * thread, and always in order.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+@FunctionalInterface
+public interface ScreenChangeListener
+{
+
+    void screenChanged(ScreenDelta delta);
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.nio.CharBuffer;
+import java.util.BitSet;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A condition on the screen contents or terminal state, for use with a {@link ScreenWatcher}. Conditions are built once, typically via
+ * the static factory methods here, and can be re-used for any number of waits.
+ *
+ * Conditions are evaluated against a display char buffer the watcher maintains from just the cells that changed, so that testing them
+ * doesn't involve re-building the whole screen. A condition which only depends on certain cells can also report whether a set of changes
+ * could affect it, in which case it isn't re-evaluated at all when they can't.
+ *
+ * Positions are 0 based buffer addresses, rows and columns are 1 based as for {@link Terminal#getCurrentRow()}.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public interface ScreenCondition
+{
+
+    /**
+     * @param term    the terminal being watched
+     * @param display current display chars, as per {@link Terminal#getDisplay()}. Must not be modified
+     *
+     * @return whether the condition currently holds
+     */
+    boolean test(Terminal term, char[] display);
+
+    /**
+     * Whether the given changes might alter the result of this condition. Conditions which depend on more than just cell contents (cursor,
+     * keyboard state etc.) should return <code>true</code>, which is the default.
+     *
+     * @param changed positions changed since the condition was last tested
+     */
+    default boolean isAffectedBy(Terminal term, BitSet changed)
+    {
+        return true;
+    }
+
+    default ScreenCondition and(ScreenCondition other)
+    {
+        ScreenCondition self = this;
+        return new ScreenCondition()
+        {
+            public boolean test(Terminal term, char[] display)
+            {
+                return self.test(term, display) && other.test(term, display);
+            }
+
+            public boolean isAffectedBy(Terminal term, BitSet changed)
+            {
+                return self.isAffectedBy(term, changed) || other.isAffectedBy(term, changed);
+            }
+        };
+    }
+
+    default ScreenCondition or(ScreenCondition other)
+    {
+        ScreenCondition self = this;
+        return new ScreenCondition()
+        {
+            public boolean test(Terminal term, char[] display)
+            {
+                return self.test(term, display) || other.test(term, display);
+            }
+
+            public boolean isAffectedBy(Terminal term, BitSet changed)
+            {
+                return self.isAffectedBy(term, changed) || other.isAffectedBy(term, changed);
+            }
+        };
+    }
+
+    default ScreenCondition negate()
+    {
+        ScreenCondition self = this;
+        return new ScreenCondition()
+        {
+            public boolean test(Terminal term, char[] display)
+            {
+                return !self.test(term, display);
+            }
+
+            public boolean isAffectedBy(Terminal term, BitSet changed)
+            {
+                return self.isAffectedBy(term, changed);
+            }
+        };
+    }
+
+    //////////////////////////////////////////////////
+    // FACTORY METHODS
+    //////////////////////////////////////////////////
+    /**
+     * Text appearing anywhere on the screen, including the status line (as per {@link Terminal#contains(String)}).
+     */
+    public static ScreenCondition contains(String text)
+    {
+        char[] search = text.toCharArray();
+        return new ScreenCondition()
+        {
+            public boolean test(Terminal term, char[] display)
+            {
+                return indexOf(display, search, 0) >= 0;
+            }
+
+            public boolean isAffectedBy(Terminal term, BitSet changed)
+            {
+                return !changed.isEmpty();
+            }
+        };
+    }
+
+    /**
+     * Text appearing at a specific buffer position.
+     */
+    public static ScreenCondition textAt(int pos, String text)
+    {
+        char[] match = text.toCharArray();
+        return new ScreenCondition()
+        {
+            public boolean test(Terminal term, char[] display)
+            {
+                return regionMatches(display, pos, match);
+            }
+
+            public boolean isAffectedBy(Terminal term, BitSet changed)
+            {
+                int next = changed.nextSetBit(pos);
+                return next >= 0 && next < pos + match.length;
+            }
+        };
+    }
+
+    /**
+     * Text appearing at a specific row and column.
+     */
+    public static ScreenCondition textAt(int row, int col, String text)
+    {
+        char[] match = text.toCharArray();
+        return new ScreenCondition()
+        {
+            public boolean test(Terminal term, char[] display)
+            {
+                return regionMatches(display, toPos(term, row, col), match);
+            }
+
+            public boolean isAffectedBy(Terminal term, BitSet changed)
+            {
+                int pos = toPos(term, row, col);
+                int next = changed.nextSetBit(pos);
+                return next >= 0 && next < pos + match.length;
+            }
+        };
+    }
+
+    /**
+     * A regular expression matching somewhere on the screen. Rows are not separated, so the screen is matched as one long line.
+     */
+    public static ScreenCondition matches(Pattern pattern)
+    {
+        return new ScreenCondition()
+        {
+            public boolean test(Terminal term, char[] display)
+            {
+                return pattern.matcher(CharBuffer.wrap(display)).find();
+            }
+
+            public boolean isAffectedBy(Terminal term, BitSet changed)
+            {
+                return !changed.isEmpty();
+            }
+        };
+    }
+
+    public static ScreenCondition matches(String regex)
+    {
+        return matches(Pattern.compile(regex));
+    }
+
+    /**
+     * State of the field containing the given position. There is no field if the screen is unformatted, in which case the predicate is
+     * passed <code>null</code>.
+     */
+    public static ScreenCondition field(int pos, Predicate<TermField> state)
+    {
+        return (term, display) ->
+        {
+            synchronized (term.getLockObject())
+            {
+                return state.test(term.getField(pos));
+            }
+        };
+    }
+
+    public static ScreenCondition keyboardUnlocked()
+    {
+        return (term, display) -> !term.isKeyboardLocked();
+    }
+
+    /**
+     * The host has updated the screen since the given snapshot generation, e.g. one taken just before sending an AID so that a reply is
+     * waited for rather than matching the screen already shown.
+     */
+    public static ScreenCondition hostUpdatedAfter(long generation)
+    {
+        return (term, display) ->
+        {
+            ScreenSnapshot host = term.getHostSnapshot();
+            return host != null && host.getGeneration() > generation;
+        };
+    }
+
+    public static ScreenCondition cursorAt(int pos)
+    {
+        return (term, display) -> term.getCursorPosition() == pos;
+    }
+
+    public static ScreenCondition cursorAt(int row, int col)
+    {
+        return (term, display) -> term.getCursorPosition() == toPos(term, row, col);
+    }
+
+    //////////////////////////////////////////////////
+    // STATIC HELPERS
+    //////////////////////////////////////////////////
+    static int toPos(Terminal term, int row, int col)
+    {
+        return (row - 1) * term.getCols() + (col - 1);
+    }
+
+    static boolean regionMatches(char[] display, int pos, char[] match)
+    {
+        if (pos < 0 || pos + match.length > display.length)
+        {
+            return false;
+        }
+
+        for (int ix = 0; ix < match.length; ix++)
+        {
+            if (display[pos + ix] != match[ix])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(char[] display, char[] search, int from)
+    {
+        if (search.length == 0)
+        {
+            return from;
+        }
+
+        for (int ix = from, last = display.length - search.length; ix <= last; ix++)
+        {
+            if (display[ix] == search[0] && regionMatches(display, ix, search))
+            {
+                return ix;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The differences between two screen snapshots - spans of changed cells, fields added and removed, cursor movement and keyboard lock
+ * changes. Rows which the snapshots share are known to be unchanged without comparing them, so working out a delta costs little more than
+ * the rows actually written.
+ *
+ * A field whose attributes changed e.g. had its modified flag set, shows up as removed and then added again.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public final class ScreenDelta
+{
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final ScreenSnapshot before;
+    private final ScreenSnapshot after;
+    private final boolean hostUpdate;
+    private final List<Span> spans;
+    private final List<ScreenSnapshot.Field> fieldsAdded;
+    private final List<ScreenSnapshot.Field> fieldsRemoved;
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    private ScreenDelta(ScreenSnapshot before, ScreenSnapshot after, boolean hostUpdate)
+    {
+        this.before = before;
+        this.after = after;
+        this.hostUpdate = hostUpdate;
+        this.spans = spans(before, after);
+        this.fieldsAdded = missingFrom(before != null ? before.getFields() : Collections.emptyList(), after.getFields());
+        this.fieldsRemoved = before != null ? missingFrom(after.getFields(), before.getFields()) : Collections.emptyList();
+    }
+
+    //////////////////////////////////////////////////
+    // STATIC PUBLIC METHODS
+    //////////////////////////////////////////////////
+    /**
+     * @param before     earlier snapshot, or <code>null</code> for everything to count as changed
+     * @param hostUpdate whether the changes came from the host, rather than local keyboard actions
+     */
+    public static ScreenDelta between(ScreenSnapshot before, ScreenSnapshot after, boolean hostUpdate)
+    {
+        return new ScreenDelta(before, after, hostUpdate);
+    }
+
+    //////////////////////////////////////////////////
+    // ACCESSOR METHODS
+    //////////////////////////////////////////////////
+    /**
+     * @return earlier snapshot, <code>null</code> if there was none
+     */
+    public ScreenSnapshot getBefore()
+    {
+        return before;
+    }
+
+    public ScreenSnapshot getAfter()
+    {
+        return after;
+    }
+
+    public boolean isHostUpdate()
+    {
+        return hostUpdate;
+    }
+
+    /**
+     * @return runs of changed cells, in position order. A span never crosses the end of a row.
+     */
+    public List<Span> getChangedSpans()
+    {
+        return spans;
+    }
+
+    public List<ScreenSnapshot.Field> getFieldsAdded()
+    {
+        return fieldsAdded;
+    }
+
+    public List<ScreenSnapshot.Field> getFieldsRemoved()
+    {
+        return fieldsRemoved;
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    public boolean isCursorMoved()
+    {
+        return before == null || before.getCursorPosition() != after.getCursorPosition();
+    }
+
+    public boolean isKeyboardLockChanged()
+    {
+        return before == null || before.isKeyboardLocked() != after.isKeyboardLocked();
+    }
+
+    /**
+     * @return whether any cell changed, as opposed to only the cursor, keyboard lock or status line
+     */
+    public boolean isContentChanged()
+    {
+        return !spans.isEmpty();
+    }
+
+    public boolean isEmpty()
+    {
+        return spans.isEmpty() && fieldsAdded.isEmpty() && fieldsRemoved.isEmpty() && !isCursorMoved() && !isKeyboardLockChanged();
+    }
+
+    /**
+     * @return position of the first changed cell, or -1 if none
+     */
+    public int getFirstChanged()
+    {
+        return spans.isEmpty() ? -1 : spans.get(0).start;
+    }
+
+    /**
+     * @return position of the last changed cell, or -1 if none
+     */
+    public int getLastChanged()
+    {
+        return spans.isEmpty() ? -1 : spans.get(spans.size() - 1).end - 1;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ScreenDelta[" + (before != null ? before.getGeneration() : "-") + "->" + after.getGeneration() + ", host=" + hostUpdate
+               + ", spans=" + spans.size() + ", fields +" + fieldsAdded.size() + "/-" + fieldsRemoved.size() + ", cursor=" + isCursorMoved()
+               + ", kbdLock=" + isKeyboardLockChanged() + "]";
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    //////////////////////////////////////////////////
+    private static List<Span> spans(ScreenSnapshot before, ScreenSnapshot after)
+    {
+        boolean comparable = before != null && before.getRows() == after.getRows() && before.getCols() == after.getCols();
+        int cols = after.getCols();
+        List<Span> list = new ArrayList<>();
+
+        for (int row = 0; row < after.getRows(); row++)
+        {
+            if (comparable && before.sameRow(after, row))
+            {
+                continue;
+            }
+
+            int start = -1;
+            for (int col = 0; col <= cols; col++)
+            {
+                int pos = row * cols + col;
+                boolean diff = col < cols && (!comparable || cellDiffers(before, after, pos));
+                if (diff && start < 0)
+                {
+                    start = pos;
+                }
+                else if (!diff && start >= 0)
+                {
+                    list.add(new Span(after, start, pos));
+                    start = -1;
+                }
+            }
+        }
+
+        return list.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    private static boolean cellDiffers(ScreenSnapshot before, ScreenSnapshot after, int pos)
+    {
+        return before.getChar(pos) != after.getChar(pos)
+               || before.getAttributes(pos) != after.getAttributes(pos)
+               || !Objects.equals(before.getFgColor(pos), after.getFgColor(pos))
+               || !Objects.equals(before.getBgColor(pos), after.getBgColor(pos));
+    }
+
+    /**
+     * @return fields in the second list which aren't in the first
+     */
+    private static List<ScreenSnapshot.Field> missingFrom(List<ScreenSnapshot.Field> from, List<ScreenSnapshot.Field> fields)
+    {
+        if (from == fields || fields.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        Set<ScreenSnapshot.Field> existing = new HashSet<>(from);
+        List<ScreenSnapshot.Field> list = new ArrayList<>();
+        for (ScreenSnapshot.Field fld : fields)
+        {
+            if (!existing.contains(fld))
+            {
+                list.add(fld);
+            }
+        }
+        return list.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    //////////////////////////////////////////////////
+    // INNER CLASSES
+    //////////////////////////////////////////////////
+    /**
+     * A run of changed cells within one row.
+     */
+    public static final class Span
+    {
+
+        private final ScreenSnapshot snapshot;
+        private final int start;
+        private final int end;
+
+        private Span(ScreenSnapshot snapshot, int start, int end)
+        {
+            this.snapshot = snapshot;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @return position of the first changed cell
+         */
+        public int getStart()
+        {
+            return start;
+        }
+
+        /**
+         * @return position after the last changed cell
+         */
+        public int getEnd()
+        {
+            return end;
+        }
+
+        public int getRow()
+        {
+            return start / snapshot.getCols();
+        }
+
+        public int getCol()
+        {
+            return start % snapshot.getCols();
+        }
+
+        public int length()
+        {
+            return end - start;
+        }
+
+        /**
+         * @return the new display chars of the span
+         */
+        public String getText()
+        {
+            return snapshot.getString(start, end - start);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Span[" + getRow() + "," + getCol() + " +" + length() + "]";
+        }
+    }
+}
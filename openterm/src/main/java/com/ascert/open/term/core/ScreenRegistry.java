@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recognises screens by their signature, mapping them to names for navigation or routing of automation logic. Rather than testing for
+ * text fragments, a screen is registered once (typically from a snapshot taken whilst it's displayed, or a signature kept from earlier)
+ * and then recognised with a single hash lookup.
+ *
+ * Screens can be registered by full signature, which includes the protected text, or by layout signature alone where that text varies.
+ * Full signatures are checked first, so a screen registered both ways is recognised by its exact text where that matches.
+ *
+ * A registry is thread safe, and can be shared between any number of sessions.
+ *
+ * <pre>
+ * registry.register("LOGON", term.getSnapshot());
+ * ...
+ * if ("LOGON".equals(registry.recognise(term))) ...
+ * </pre>
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class ScreenRegistry
+{
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final Map<Long, String> bySignature = new ConcurrentHashMap<>();
+    private final Map<Long, String> byLayout = new ConcurrentHashMap<>();
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * Registers the screen in a snapshot by its full signature.
+     */
+    public void register(String name, ScreenSnapshot snapshot)
+    {
+        register(name, snapshot.getSignature());
+    }
+
+    public void register(String name, long signature)
+    {
+        bySignature.put(signature, name);
+    }
+
+    /**
+     * Registers the screen in a snapshot by its field layout only.
+     */
+    public void registerLayout(String name, ScreenSnapshot snapshot)
+    {
+        registerLayout(name, snapshot.getLayoutSignature());
+    }
+
+    public void registerLayout(String name, long layoutSignature)
+    {
+        byLayout.put(layoutSignature, name);
+    }
+
+    /**
+     * Removes all registrations for the name.
+     */
+    public void unregister(String name)
+    {
+        bySignature.values().removeIf(name::equals);
+        byLayout.values().removeIf(name::equals);
+    }
+
+    public void clear()
+    {
+        bySignature.clear();
+        byLayout.clear();
+    }
+
+    /**
+     * @return name of the screen, or <code>null</code> if it isn't one registered
+     */
+    public String recognise(ScreenSnapshot snapshot)
+    {
+        String name = bySignature.get(snapshot.getSignature());
+        if (name == null)
+        {
+            name = byLayout.get(snapshot.getLayoutSignature());
+        }
+        return name;
+    }
+
+    /**
+     * @return name of the screen currently shown by the terminal, or <code>null</code> if it isn't one registered
+     */
+    public String recognise(Terminal term)
+    {
+        return recognise(term.getSnapshot());
+    }
+}
@@ -0,0 +1,825 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Vector;
+
+/**
+ * Immutable copy of the display page - chars, attributes, fields and cursor - as it stood at the end of a host record or keyboard action.
+ * Snapshots are published by the terminal (see {@link Terminal#getSnapshot()}), so readers such as scrapers or renderers can use them
+ * from any thread without taking the terminal lock, and without holding up the parser however long they take.
+ *
+ * Producing one is cheap. Storage is by row, and rows with no cells changed since the previous snapshot are shared with it rather than
+ * copied. If nothing at all has changed the previous snapshot is simply re-used.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public final class ScreenSnapshot
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    // Attribute flags, as returned by getAttributes()
+    public static final int ATTR_START_FIELD = 0x0001;
+    public static final int ATTR_PROTECTED = 0x0002;
+    public static final int ATTR_HIDDEN = 0x0004;
+    public static final int ATTR_NUMERIC = 0x0008;
+    public static final int ATTR_MODIFIED = 0x0010;
+    public static final int ATTR_ALT_INTENSITY = 0x0020;
+    public static final int ATTR_BLINK = 0x0040;
+    public static final int ATTR_REVERSE = 0x0080;
+    public static final int ATTR_UNDERSCORE = 0x0100;
+
+    private static final char[] NO_CHARS = new char[0];
+
+    // 64 bit FNV-1a, chosen so signatures are the same on every run and can be kept in configuration
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Field attributes which make up the layout. Modified is left out, as typing into a screen doesn't make it a different one.
+    private static final int LAYOUT_ATTRS = ATTR_PROTECTED | ATTR_HIDDEN | ATTR_NUMERIC;
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final long generation;
+    private final int rows;
+    private final int cols;
+    private final int cursorPosition;
+    private final boolean keyboardLocked;
+    private final Row[] rowData;
+    private final List<Field> fields;
+    private final char[] statusLine;
+
+    // Page the snapshot was taken from, only to decide whether rows can be shared with the next one
+    private final Object page;
+
+    // Text planes for searching, built on first use. Snapshots are re-used while the screen is unchanged, so these are too.
+    private volatile char[] display;
+    private volatile char[] foldedDisplay;
+
+    // Signatures, worked out on first use
+    private volatile boolean signed;
+    private long signature;
+    private long layoutSignature;
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    private ScreenSnapshot(long generation, int rows, int cols, int cursorPosition, boolean keyboardLocked, Row[] rowData, List<Field> fields,
+                           char[] statusLine, Object page)
+    {
+        this.generation = generation;
+        this.rows = rows;
+        this.cols = cols;
+        this.cursorPosition = cursorPosition;
+        this.keyboardLocked = keyboardLocked;
+        this.rowData = rowData;
+        this.fields = fields;
+        this.statusLine = statusLine;
+        this.page = page;
+    }
+
+    //////////////////////////////////////////////////
+    // STATIC PACKAGE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * Takes a snapshot of the terminal's display page. Must be called holding the terminal's lock object, which the parser also holds
+     * for each record, so that rows shared with later snapshots are never captured part way through a change.
+     *
+     * @param previous last snapshot taken of this terminal, or <code>null</code>
+     * @param always   whether to take a new snapshot even if nothing changed, rather than returning the previous one
+     */
+    static ScreenSnapshot capture(AbstractTerminal term, ScreenSnapshot previous, boolean always)
+    {
+        AbstractTerminal.Page pg = term.getDisplayPage();
+        int rows = term.getRows();
+        int cols = term.getCols();
+
+        // Field attribute changes need applying to the chars they cover before their attributes can be read
+        pg.buildFields(false);
+
+        boolean sameLayout = previous != null && previous.page == pg && previous.rows == rows && previous.cols == cols;
+        long closed = pg.nextChangeGeneration();
+        BitSet changed = pg.getChangedCells(sameLayout ? previous.generation : -1);
+        char[] statusLine = statusLine(term.getStatusLine());
+        int cursor = pg.getCursorPosition();
+        boolean locked = term.isKeyboardLocked();
+
+        if (!always && sameLayout && changed.isEmpty() && previous.cursorPosition == cursor && previous.keyboardLocked == locked
+            && Arrays.equals(previous.statusLine, statusLine))
+        {
+            return previous;
+        }
+
+        List<Field> fields = (sameLayout && changed.isEmpty()) ? previous.fields : fields(pg.getFields());
+        if (sameLayout && fields != previous.fields)
+        {
+            // Field membership and field attributes aren't stamped on the cells they cover, so take those from the fields themselves
+            markFieldChanges(previous.fields, fields, changed, rows * cols);
+        }
+
+        TermChar[] chars = pg.getCharBuffer();
+        Row[] rowData = new Row[rows];
+        for (int row = 0; row < rows; row++)
+        {
+            int start = row * cols;
+            int next = changed.nextSetBit(start);
+            rowData[row] = (sameLayout && (next < 0 || next >= start + cols)) ? previous.rowData[row] : new Row(chars, start, cols);
+        }
+
+        return new ScreenSnapshot(closed, rows, cols, cursor, locked, rowData, fields, statusLine, pg);
+    }
+
+    //////////////////////////////////////////////////
+    // ACCESSOR METHODS
+    //////////////////////////////////////////////////
+    /**
+     * @return the page change generation this snapshot was closed off at. Any later change to the page has a greater generation.
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    public int getRows()
+    {
+        return rows;
+    }
+
+    public int getCols()
+    {
+        return cols;
+    }
+
+    public int size()
+    {
+        return rows * cols;
+    }
+
+    public int getCursorPosition()
+    {
+        return cursorPosition;
+    }
+
+    public boolean isKeyboardLocked()
+    {
+        return keyboardLocked;
+    }
+
+    /**
+     * @return the fields in position order, empty if the screen is unformatted
+     */
+    public List<Field> getFields()
+    {
+        return fields;
+    }
+
+    public boolean isFormatted()
+    {
+        return !fields.isEmpty();
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    public char getChar(int pos)
+    {
+        return rowData[pos / cols].chars[pos % cols];
+    }
+
+    /**
+     * @return the char as it should be shown i.e. space for nulls and hidden fields
+     */
+    public char getDisplayChar(int pos)
+    {
+        Row row = rowData[pos / cols];
+        int col = pos % cols;
+        char ch = row.chars[col];
+        return ((row.attrs[col] & ATTR_HIDDEN) != 0 || ch < 0x20) ? ' ' : ch;
+    }
+
+    /**
+     * @return combination of the ATTR_ flags for the position
+     */
+    public int getAttributes(int pos)
+    {
+        return rowData[pos / cols].attrs[pos % cols];
+    }
+
+    public boolean isAttribute(int pos, int attr)
+    {
+        return (getAttributes(pos) & attr) != 0;
+    }
+
+    /**
+     * @return the mapped foreground colour, or <code>null</code> for the display's default
+     */
+    public Color getFgColor(int pos)
+    {
+        return rowData[pos / cols].fgColors[pos % cols];
+    }
+
+    /**
+     * @return the mapped background colour, or <code>null</code> for the display's default
+     */
+    public Color getBgColor(int pos)
+    {
+        return rowData[pos / cols].bgColors[pos % cols];
+    }
+
+    /**
+     * @return display chars from the given position, wrapping from the end of the screen to the start
+     */
+    public String getString(int pos, int len)
+    {
+        char[] buf = new char[len];
+        int size = size();
+        for (int ix = 0; ix < len; ix++)
+        {
+            buf[ix] = getDisplayChar((pos + ix) % size);
+        }
+        return new String(buf);
+    }
+
+    public String getRowString(int row)
+    {
+        return getString(row * cols, cols);
+    }
+
+    /**
+     * @return display chars of the whole screen, excluding any status line
+     */
+    public String getString()
+    {
+        return getString(0, size());
+    }
+
+    /**
+     * @return display chars of the whole screen followed by those of the status line, as per {@link AbstractTerminal#getDisplay()}
+     */
+    public char[] getDisplay()
+    {
+        return displayPlane(false).clone();
+    }
+
+    /**
+     * @return display chars of the status line, empty if the terminal has none
+     */
+    public String getStatusString()
+    {
+        return new String(statusLine);
+    }
+
+    /**
+     * @return display chars of a field's data, excluding its attribute position
+     */
+    public String getString(Field field)
+    {
+        return getString((field.begin + 1) % size(), field.length - 1);
+    }
+
+    /**
+     * @return the field containing the position, or <code>null</code> if the screen is unformatted
+     */
+    public Field getField(int pos)
+    {
+        if (fields.isEmpty())
+        {
+            return null;
+        }
+
+        int lo = 0;
+        int hi = fields.size() - 1;
+        while (lo <= hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (fields.get(mid).begin <= pos)
+            {
+                lo = mid + 1;
+            }
+            else
+            {
+                hi = mid - 1;
+            }
+        }
+
+        // Positions before the first field belong to the last, which wraps round to them
+        return fields.get(hi >= 0 ? hi : fields.size() - 1);
+    }
+
+    /**
+     * Searches the screen text as per OHIO findString. The area searched is <code>length</code> positions from <code>start</code>
+     * inclusive, going towards the end of the screen if forward or towards the start if not, and a match must lie wholly within it. The
+     * status line is not included.
+     *
+     * @param length positions to search, 0 or less for as far as the end (or start) of the screen
+     *
+     * @return position of the match nearest to start in the direction searched, or -1 if none
+     */
+    public int indexOf(String target, int start, int length, boolean forward, boolean ignoreCase)
+    {
+        int size = size();
+        if (target == null || target.isEmpty() || start < 0 || start >= size)
+        {
+            return -1;
+        }
+
+        // Bounds of the area searched, end exclusive
+        int from;
+        int to;
+        if (forward)
+        {
+            from = start;
+            to = (length > 0) ? Math.min(size, start + length) : size;
+        }
+        else
+        {
+            from = (length > 0) ? Math.max(0, start - length + 1) : 0;
+            to = start + 1;
+        }
+
+        char[] text = displayPlane(ignoreCase);
+        char first = ignoreCase ? Character.toLowerCase(target.charAt(0)) : target.charAt(0);
+        int last = to - target.length();
+        if (forward)
+        {
+            for (int pos = from; pos <= last; pos++)
+            {
+                if (text[pos] == first && matchesAt(text, pos, target, ignoreCase))
+                {
+                    return pos;
+                }
+            }
+        }
+        else
+        {
+            for (int pos = last; pos >= from; pos--)
+            {
+                if (text[pos] == first && matchesAt(text, pos, target, ignoreCase))
+                {
+                    return pos;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Signature identifying which screen (panel, map) this is, regardless of the data entered on it. It is a hash of the screen size, the
+     * position, size and attributes of every field, and the text of the protected fields. An unformatted screen has only its text to go
+     * on, so all of that is used.
+     *
+     * Signatures are stable across runs and versions, so can be stored.
+     *
+     * @see ScreenRegistry
+     */
+    public long getSignature()
+    {
+        sign();
+        return signature;
+    }
+
+    /**
+     * Signature of the field layout alone, leaving out all text. Useful for screens whose protected fields include varying data such as
+     * dates or record details. The same as {@link #getSignature()} for unformatted screens.
+     */
+    public long getLayoutSignature()
+    {
+        sign();
+        return layoutSignature;
+    }
+
+    public int indexOf(String target)
+    {
+        return indexOf(target, 0, 0, true, false);
+    }
+
+    /**
+     * @return whether the text appears anywhere on the screen including the status line, as per {@link Terminal#contains(String)}
+     */
+    public boolean contains(String target)
+    {
+        if (target == null)
+        {
+            return false;
+        }
+
+        if (target.isEmpty())
+        {
+            return true;
+        }
+
+        char[] text = displayPlane(false);
+        char first = target.charAt(0);
+        for (int pos = 0; pos <= text.length - target.length(); pos++)
+        {
+            if (text[pos] == first && matchesAt(text, pos, target, false))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ScreenSnapshot[gen=" + generation + ", " + rows + "x" + cols + ", cursor=" + cursorPosition + ", fields=" + fields.size()
+               + "]";
+    }
+
+    //////////////////////////////////////////////////
+    // PACKAGE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * @return whether a row is shared with another snapshot, and so known to be identical without comparing it
+     */
+    boolean sameRow(ScreenSnapshot other, int row)
+    {
+        return rowData[row] == other.rowData[row];
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * @return display chars of the screen followed by the status line, lower cased if folded. Must not be modified.
+     */
+    private char[] displayPlane(boolean folded)
+    {
+        char[] plane = folded ? foldedDisplay : display;
+        if (plane != null)
+        {
+            return plane;
+        }
+
+        // Races just build the same content twice
+        int size = size();
+        plane = new char[size + statusLine.length];
+        for (int pos = 0; pos < size; pos++)
+        {
+            plane[pos] = getDisplayChar(pos);
+        }
+        System.arraycopy(statusLine, 0, plane, size, statusLine.length);
+
+        if (folded)
+        {
+            for (int pos = 0; pos < plane.length; pos++)
+            {
+                plane[pos] = Character.toLowerCase(plane[pos]);
+            }
+            foldedDisplay = plane;
+        }
+        else
+        {
+            display = plane;
+        }
+        return plane;
+    }
+
+    private void sign()
+    {
+        if (signed)
+        {
+            return;
+        }
+
+        long hash = hash(hash(FNV_OFFSET, rows), cols);
+        if (fields.isEmpty())
+        {
+            layoutSignature = hash(hash, displayPlane(false), 0, size());
+            signature = layoutSignature;
+        }
+        else
+        {
+            for (Field fld : fields)
+            {
+                hash = hash(hash(hash(hash, fld.begin), fld.length), fld.attrs & LAYOUT_ATTRS);
+            }
+            layoutSignature = hash;
+
+            char[] text = displayPlane(false);
+            for (Field fld : fields)
+            {
+                if (fld.isProtected())
+                {
+                    // Field data only, which may wrap round to the start of the screen
+                    int from = fld.begin + 1;
+                    int to = Math.min(size(), fld.begin + fld.length);
+                    hash = hash(hash, text, from, to);
+                    hash = hash(hash, text, 0, Math.max(0, fld.begin + fld.length - size()));
+                }
+            }
+            signature = hash;
+        }
+
+        // Written last, so both signatures are visible once this is
+        signed = true;
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    //////////////////////////////////////////////////
+    private static long hash(long hash, int val)
+    {
+        for (int shift = 0; shift < 32; shift += 8)
+        {
+            hash = (hash ^ ((val >>> shift) & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, char[] text, int from, int to)
+    {
+        for (int ix = from; ix < to; ix++)
+        {
+            hash = (hash ^ (text[ix] & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (text[ix] >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static boolean matchesAt(char[] text, int pos, String target, boolean ignoreCase)
+    {
+        for (int ix = 0; ix < target.length(); ix++)
+        {
+            char ch = target.charAt(ix);
+            if (text[pos + ix] != (ignoreCase ? Character.toLowerCase(ch) : ch))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char[] statusLine(TermChar[] status)
+    {
+        if (status == null)
+        {
+            return NO_CHARS;
+        }
+        char[] buf = new char[status.length];
+        for (int ix = 0; ix < status.length; ix++)
+        {
+            buf[ix] = status[ix].getDisplayChar();
+        }
+        return buf;
+    }
+
+    private static List<Field> fields(Vector<?> termFields)
+    {
+        if (termFields == null || termFields.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        List<Field> list = new ArrayList<>(termFields.size());
+        for (Object fld : termFields)
+        {
+            list.add(new Field((TermField) fld));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Marks as changed all positions covered by fields which are new or differ from the previous ones.
+     */
+    private static void markFieldChanges(List<Field> oldFields, List<Field> newFields, BitSet changed, int size)
+    {
+        if (oldFields.isEmpty() || newFields.isEmpty())
+        {
+            if (oldFields.size() != newFields.size())
+            {
+                changed.set(0, size);
+            }
+            return;
+        }
+
+        Set<Field> unchanged = new HashSet<>(oldFields);
+        for (Field fld : newFields)
+        {
+            if (!unchanged.contains(fld))
+            {
+                int end = fld.begin + fld.length;
+                changed.set(fld.begin, Math.min(end, size));
+                if (end > size)
+                {
+                    changed.set(0, end - size);
+                }
+            }
+        }
+    }
+
+    private static int attributes(TermChar ch)
+    {
+        return videoAttributes(ch) | fieldAttributes(ch) | (ch.isStartField() ? ATTR_START_FIELD : 0);
+    }
+
+    private static int videoAttributes(TermChar ch)
+    {
+        int attrs = 0;
+        attrs |= ch.isHidden() ? ATTR_HIDDEN : 0;
+        attrs |= ch.isAltIntensity() ? ATTR_ALT_INTENSITY : 0;
+        attrs |= ch.isBlink() ? ATTR_BLINK : 0;
+        attrs |= ch.isReverse() ? ATTR_REVERSE : 0;
+        attrs |= ch.isUnderscore() ? ATTR_UNDERSCORE : 0;
+        return attrs;
+    }
+
+    private static int fieldAttributes(TermChar ch)
+    {
+        int attrs = 0;
+        attrs |= ch.isProtected() ? ATTR_PROTECTED : 0;
+        attrs |= ch.isNumeric() ? ATTR_NUMERIC : 0;
+        attrs |= ch.isModified() ? ATTR_MODIFIED : 0;
+        return attrs;
+    }
+
+    //////////////////////////////////////////////////
+    // INNER CLASSES
+    //////////////////////////////////////////////////
+    /**
+     * One row of cells, never modified once built.
+     */
+    private static final class Row
+    {
+
+        private final char[] chars;
+        private final int[] attrs;
+        private final Color[] fgColors;
+        private final Color[] bgColors;
+
+        private Row(TermChar[] page, int start, int cols)
+        {
+            chars = new char[cols];
+            attrs = new int[cols];
+            fgColors = new Color[cols];
+            bgColors = new Color[cols];
+
+            // Runs of chars share the same video attribute char and field, so their attributes need only be read once per run
+            TermChar lastVA = null;
+            TermField lastField = null;
+            int vidAttrs = 0;
+            int fldAttrs = 0;
+            Color fg = null;
+            Color bg = null;
+
+            for (int col = 0; col < cols; col++)
+            {
+                TermChar ch = page[start + col];
+                chars[col] = ch.getChar();
+
+                if (!(ch instanceof AbstractTermChar))
+                {
+                    attrs[col] = attributes(ch);
+                    fgColors[col] = ch.getFgColor(null);
+                    bgColors[col] = ch.getBgColor(null);
+                    continue;
+                }
+
+                TermChar va = ((AbstractTermChar) ch).getVAChar();
+                if (va != lastVA || lastVA == null)
+                {
+                    lastVA = va;
+                    vidAttrs = videoAttributes(ch);
+                    fg = ch.getFgColor(null);
+                    bg = ch.getBgColor(null);
+                }
+
+                TermField fld = ch.getField();
+                if (fld == null)
+                {
+                    lastField = null;
+                    fldAttrs = fieldAttributes(ch);
+                }
+                else if (fld != lastField)
+                {
+                    lastField = fld;
+                    fldAttrs = fieldAttributes(ch);
+                }
+
+                attrs[col] = vidAttrs | fldAttrs | (ch.isStartField() ? ATTR_START_FIELD : 0);
+                fgColors[col] = fg;
+                bgColors[col] = bg;
+            }
+        }
+    }
+
+    /**
+     * A field as it stood when the snapshot was taken. Its data is read from the snapshot with {@link ScreenSnapshot#getString(Field)}.
+     */
+    public static final class Field
+    {
+
+        private final int begin;
+        private final int length;
+        private final int attrs;
+        private final int fieldAttribute;
+
+        private Field(TermField fld)
+        {
+            begin = fld.getBeginBA();
+            length = fld.size();
+            attrs = attributes(fld.getFAChar());
+            fieldAttribute = fld.getFieldAttribute();
+        }
+
+        /**
+         * @return position of the field attribute
+         */
+        public int getBeginBA()
+        {
+            return begin;
+        }
+
+        /**
+         * @return number of positions covered, including the field attribute
+         */
+        public int size()
+        {
+            return length;
+        }
+
+        public boolean isProtected()
+        {
+            return (attrs & ATTR_PROTECTED) != 0;
+        }
+
+        public boolean isHidden()
+        {
+            return (attrs & ATTR_HIDDEN) != 0;
+        }
+
+        public boolean isNumeric()
+        {
+            return (attrs & ATTR_NUMERIC) != 0;
+        }
+
+        public boolean isModified()
+        {
+            return (attrs & ATTR_MODIFIED) != 0;
+        }
+
+        public boolean isAltIntensity()
+        {
+            return (attrs & ATTR_ALT_INTENSITY) != 0;
+        }
+
+        /**
+         * @return the device specific field attribute value, as per {@link TermField#getFieldAttribute()}
+         */
+        public int getFieldAttribute()
+        {
+            return fieldAttribute;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Field))
+            {
+                return false;
+            }
+            Field other = (Field) obj;
+            return begin == other.begin && length == other.length && attrs == other.attrs && fieldAttribute == other.fieldAttribute;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (begin * 31 + length) * 31 + attrs;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Field[begin=" + begin + ", size=" + length + ", attrs=0x" + Integer.toHexString(attrs) + "]";
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ascert.open.util.Threads;
+
+/**
+ * Tracks pending waits on {@link ScreenCondition}s for a terminal, completing them as the screen changes rather than having a thread
+ * parked for each. The terminal calls {@link #screenChanged()} whenever it has processed new host data.
+ *
+ * A copy of the display chars is kept up to date from just the cells changed since the last check, using the page change generations.
+ * Nothing at all is done on a screen change if there are no pending waits.
+ *
+ * Futures are completed on whichever thread notices the change - usually the telnet reader - so any lengthy follow on work should use
+ * the async forms of the CompletableFuture methods.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class ScreenWatcher
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(ScreenWatcher.class.getName());
+
+    // Only used to expire waits, so one thread shared by all terminals is plenty
+    private static ScheduledExecutorService timer;
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final Terminal term;
+    private final List<Watch> watches = new ArrayList<>();
+
+    private AbstractTerminal.Page page;
+    private char[] display = new char[0];
+    private long lastGeneration = -1;
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public ScreenWatcher(Terminal term)
+    {
+        this.term = term;
+    }
+
+    //////////////////////////////////////////////////
+    // STATIC METHODS
+    //////////////////////////////////////////////////
+    private static synchronized ScheduledExecutorService getTimer()
+    {
+        if (timer == null)
+        {
+            ScheduledThreadPoolExecutor stpe = new ScheduledThreadPoolExecutor(1, Threads.newThreadFactory("ScreenWatcher-timer", true));
+            stpe.setRemoveOnCancelPolicy(true);
+            timer = stpe;
+        }
+        return timer;
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * Waits for a condition to hold. The condition is tested straight away, and the future may already be complete on return.
+     *
+     * @param timeoutMillis how long to wait, 0 or less to wait indefinitely
+     *
+     * @return future completing with <code>true</code> once the condition holds, or <code>false</code> if the timeout expires first.
+     *         Cancelling the future abandons the wait.
+     */
+    public CompletableFuture<Boolean> waitFor(ScreenCondition condition, long timeoutMillis)
+    {
+        Watch watch = new Watch(condition);
+        boolean met;
+
+        synchronized (this)
+        {
+            refresh();
+            met = test(watch);
+            if (!met)
+            {
+                watches.add(watch);
+            }
+        }
+
+        if (met)
+        {
+            watch.complete(true);
+            return watch.future;
+        }
+
+        if (timeoutMillis > 0)
+        {
+            watch.timeout = getTimer().schedule(() -> expire(watch), timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        watch.future.whenComplete((res, ex) -> remove(watch));
+        return watch.future;
+    }
+
+    public synchronized int getPendingCount()
+    {
+        return watches.size();
+    }
+
+    /**
+     * Re-tests pending conditions against whatever has changed on screen since the last check.
+     */
+    public void screenChanged()
+    {
+        List<Watch> met = null;
+
+        synchronized (this)
+        {
+            if (watches.isEmpty())
+            {
+                return;
+            }
+
+            BitSet changed = refresh();
+            for (Iterator<Watch> it = watches.iterator(); it.hasNext();)
+            {
+                Watch watch = it.next();
+                if (watch.condition.isAffectedBy(term, changed) && test(watch))
+                {
+                    it.remove();
+                    if (met == null)
+                    {
+                        met = new ArrayList<>();
+                    }
+                    met.add(watch);
+                }
+            }
+        }
+
+        // Completed outside the lock, since dependent actions run right here on this thread
+        if (met != null)
+        {
+            for (Watch watch : met)
+            {
+                watch.complete(true);
+            }
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * Brings the display chars up to date.
+     *
+     * @return positions changed since the last refresh
+     */
+    private BitSet refresh()
+    {
+        synchronized (term.getLockObject())
+        {
+            // Any field attribute changes need applying to the chars they cover, else hidden status etc. could be stale
+            term.buildFields(false);
+
+            AbstractTerminal.Page currPage = term.getDisplayPage();
+            TermChar[] chars = currPage.getCharBuffer();
+            long closed = term.nextChangeGeneration();
+
+            // Page switch or first time - everything needs fetching
+            long since = (currPage == page && lastGeneration >= 0) ? lastGeneration : -1;
+            BitSet changed = term.getChangedCells(since);
+            page = currPage;
+            lastGeneration = closed;
+
+            TermChar[] status = term.getStatusLine();
+            int size = chars.length + (status != null ? status.length : 0);
+            if (display.length != size)
+            {
+                display = new char[size];
+                changed.set(0, chars.length);
+            }
+
+            for (int ix = changed.nextSetBit(0); ix >= 0 && ix < chars.length; ix = changed.nextSetBit(ix + 1))
+            {
+                display[ix] = chars[ix].getDisplayChar();
+            }
+
+            // Status line is small and not change tracked, so just compare it
+            for (int ix = chars.length; ix < size; ix++)
+            {
+                char ch = status[ix - chars.length].getDisplayChar();
+                if (display[ix] != ch)
+                {
+                    display[ix] = ch;
+                    changed.set(ix);
+                }
+            }
+
+            return changed;
+        }
+    }
+
+    /**
+     * @return whether the wait is finished with, which includes the condition failing
+     */
+    private boolean test(Watch watch)
+    {
+        try
+        {
+            return watch.condition.test(term, display);
+        }
+        catch (RuntimeException ex)
+        {
+            log.log(Level.WARNING, "screen condition failed", ex);
+            watch.failure = ex;
+            return true;
+        }
+    }
+
+    private void expire(Watch watch)
+    {
+        synchronized (this)
+        {
+            if (!watches.remove(watch))
+            {
+                return;
+            }
+        }
+        watch.complete(false);
+    }
+
+    private synchronized void remove(Watch watch)
+    {
+        watches.remove(watch);
+        if (watch.timeout != null)
+        {
+            watch.timeout.cancel(false);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // INNER CLASSES
+    //////////////////////////////////////////////////
+    private static class Watch
+    {
+
+        private final ScreenCondition condition;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private volatile ScheduledFuture<?> timeout;
+        private RuntimeException failure;
+
+        Watch(ScreenCondition condition)
+        {
+            this.condition = condition;
+        }
+
+        void complete(boolean met)
+        {
+            if (failure != null)
+            {
+                future.completeExceptionally(failure);
+            }
+            else
+            {
+                future.complete(met);
+            }
+        }
+    }
+}
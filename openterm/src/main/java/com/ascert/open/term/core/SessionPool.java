@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ascert.open.util.Threads;
+
+/**
+ * Pool of connected, headless terminal sessions, so that scripted transactions don't pay for a connect, telnet negotiation and host
+ * logon every time. Sessions are keyed by host name, port, terminal type, encryption and any TN3270E device (LU) name.
+ *
+ * A session checked out is either an idle one which passes validation, or a newly created and connected one which has had the logon
+ * action run against it. Idle sessions are validated as connected, keyboard unlocked and (if set) showing the expected screen - any that
+ * fail are discarded. Sessions returned have the reset action run against them, which should put them back on the expected screen, and
+ * are discarded if that fails. Sessions left idle for too long are disconnected and discarded by a background sweep.
+ *
+ * There is no limit on the number of sessions checked out at once, only on the number held idle for each host.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class SessionPool
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(SessionPool.class.getName());
+
+    public static final int DEFAULT_MAX_IDLE = 8;
+    public static final long DEFAULT_IDLE_TIMEOUT = 5 * 60 * 1000;
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final Map<HostKey, Deque<Pooled>> idle = new HashMap<>();
+    private final Map<Terminal, HostKey> active = new IdentityHashMap<>();
+
+    private int maxIdlePerHost = DEFAULT_MAX_IDLE;
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    private SessionAction logonAction;
+    private SessionAction resetAction;
+    private ScreenCondition validScreen;
+
+    private ScheduledExecutorService sweeper;
+    private boolean closed;
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public SessionPool()
+    {
+    }
+
+    /**
+     * @param logonAction run against each newly connected session, and should leave it at the expected screen
+     * @param resetAction run against each returned session to get it back to the expected screen
+     * @param validScreen condition an idle session must meet to be handed out, may be <code>null</code>
+     */
+    public SessionPool(SessionAction logonAction, SessionAction resetAction, ScreenCondition validScreen)
+    {
+        this.logonAction = logonAction;
+        this.resetAction = resetAction;
+        this.validScreen = validScreen;
+    }
+
+    //////////////////////////////////////////////////
+    // ACCESSOR METHODS
+    //////////////////////////////////////////////////
+    public int getMaxIdlePerHost()
+    {
+        return maxIdlePerHost;
+    }
+
+    public void setMaxIdlePerHost(int maxIdlePerHost)
+    {
+        this.maxIdlePerHost = maxIdlePerHost;
+    }
+
+    public long getIdleTimeout()
+    {
+        return idleTimeout;
+    }
+
+    /**
+     * @param idleTimeout milliseconds a session may sit idle before being discarded, 0 or less to keep them indefinitely
+     */
+    public synchronized void setIdleTimeout(long idleTimeout)
+    {
+        this.idleTimeout = idleTimeout;
+        if (sweeper != null)
+        {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+        // Sessions already idle still need sweeping, at the new interval
+        if (!closed && getIdleCount() > 0)
+        {
+            startSweeper();
+        }
+    }
+
+    public void setLogonAction(SessionAction logonAction)
+    {
+        this.logonAction = logonAction;
+    }
+
+    public void setResetAction(SessionAction resetAction)
+    {
+        this.resetAction = resetAction;
+    }
+
+    public void setValidScreen(ScreenCondition validScreen)
+    {
+        this.validScreen = validScreen;
+    }
+
+    public synchronized int getIdleCount()
+    {
+        int count = 0;
+        for (Deque<Pooled> sessions : idle.values())
+        {
+            count += sessions.size();
+        }
+        return count;
+    }
+
+    public synchronized int getActiveCount()
+    {
+        return active.size();
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * Gets a session for the host, re-using an idle one if there is a valid one available, else creating and logging on a new one.
+     */
+    public Terminal checkout(Host host)
+        throws Exception
+    {
+        HostKey key = new HostKey(host);
+
+        while (true)
+        {
+            Pooled pooled;
+            synchronized (this)
+            {
+                if (closed)
+                {
+                    throw new IllegalStateException("Session pool closed");
+                }
+                Deque<Pooled> sessions = idle.get(key);
+                pooled = (sessions != null) ? sessions.pollFirst() : null;
+                if (pooled == null)
+                {
+                    break;
+                }
+            }
+
+            if (isValid(pooled.term))
+            {
+                activate(pooled.term, key);
+                return pooled.term;
+            }
+            log.fine("discarding invalid idle session: " + host);
+            discard(pooled.term);
+        }
+
+        Terminal term = createTerminal(host);
+        try
+        {
+            term.connect();
+            if (logonAction != null)
+            {
+                logonAction.apply(term);
+            }
+        }
+        catch (Exception ex)
+        {
+            discard(term);
+            throw ex;
+        }
+
+        activate(term, key);
+        return term;
+    }
+
+    /**
+     * Returns a session to the pool. It is reset and held idle for re-use, or discarded if it can't be reset or there are already
+     * enough idle sessions for its host.
+     */
+    public void checkin(Terminal term)
+    {
+        HostKey key;
+        synchronized (this)
+        {
+            key = active.remove(term);
+        }
+        if (key == null)
+        {
+            log.warning("session not checked out from this pool: " + term);
+            return;
+        }
+
+        try
+        {
+            if (!term.getTelnet().isConnected())
+            {
+                discard(term);
+                return;
+            }
+            if (resetAction != null)
+            {
+                resetAction.apply(term);
+            }
+        }
+        catch (Exception ex)
+        {
+            log.log(Level.FINE, "session reset failed, discarding", ex);
+            discard(term);
+            return;
+        }
+
+        synchronized (this)
+        {
+            Deque<Pooled> sessions = idle.computeIfAbsent(key, (k) -> new ArrayDeque<>());
+            if (!closed && sessions.size() < maxIdlePerHost)
+            {
+                // Most recently used go first, so surplus sessions are the ones left to time out
+                sessions.addFirst(new Pooled(term));
+                startSweeper();
+                return;
+            }
+        }
+        discard(term);
+    }
+
+    /**
+     * Discards a checked out session which is known to be broken, rather than returning it.
+     */
+    public void invalidate(Terminal term)
+    {
+        synchronized (this)
+        {
+            active.remove(term);
+        }
+        discard(term);
+    }
+
+    /**
+     * Discards idle sessions which have timed out or lost their connection.
+     */
+    public void evictIdle()
+    {
+        List<Terminal> evicted = new ArrayList<>();
+        long cutoff = System.currentTimeMillis() - idleTimeout;
+
+        synchronized (this)
+        {
+            for (Deque<Pooled> sessions : idle.values())
+            {
+                for (Iterator<Pooled> it = sessions.iterator(); it.hasNext();)
+                {
+                    Pooled pooled = it.next();
+                    if ((idleTimeout > 0 && pooled.idleSince < cutoff) || !pooled.term.getTelnet().isConnected())
+                    {
+                        it.remove();
+                        evicted.add(pooled.term);
+                    }
+                }
+            }
+        }
+
+        if (!evicted.isEmpty())
+        {
+            log.fine("evicting idle sessions: " + evicted.size());
+        }
+        for (Terminal term : evicted)
+        {
+            discard(term);
+        }
+    }
+
+    /**
+     * Disconnects all idle sessions and stops pooling. Sessions still checked out are discarded when returned.
+     */
+    public void close()
+    {
+        List<Terminal> sessions = new ArrayList<>();
+        synchronized (this)
+        {
+            closed = true;
+            if (sweeper != null)
+            {
+                sweeper.shutdownNow();
+                sweeper = null;
+            }
+            for (Deque<Pooled> hostSessions : idle.values())
+            {
+                for (Pooled pooled : hostSessions)
+                {
+                    sessions.add(pooled.term);
+                }
+            }
+            idle.clear();
+        }
+
+        for (Terminal term : sessions)
+        {
+            discard(term);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // PROTECTED INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * @return a new, unconnected session for the host
+     */
+    protected Terminal createTerminal(Host host)
+        throws Exception
+    {
+        return TerminalFactoryRegistrar.createTerminal(host);
+    }
+
+    protected boolean isValid(Terminal term)
+    {
+        if (!term.getTelnet().isConnected() || term.isKeyboardLocked())
+        {
+            return false;
+        }
+        return validScreen == null || validScreen.test(term, term.getDisplay());
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    private synchronized void activate(Terminal term, HostKey key)
+    {
+        active.put(term, key);
+    }
+
+    private void discard(Terminal term)
+    {
+        try
+        {
+            term.disconnect();
+        }
+        catch (Exception ex)
+        {
+            log.log(Level.FINEST, "disconnect exception", ex);
+        }
+    }
+
+    private synchronized void startSweeper()
+    {
+        if (sweeper != null || idleTimeout <= 0)
+        {
+            return;
+        }
+
+        ScheduledThreadPoolExecutor stpe = new ScheduledThreadPoolExecutor(1, Threads.newThreadFactory("SessionPool-sweeper", true));
+        long interval = Math.max(1000, idleTimeout / 4);
+        stpe.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+        sweeper = stpe;
+    }
+
+    //////////////////////////////////////////////////
+    // STATIC INNER CLASSES
+    //////////////////////////////////////////////////
+    /**
+     * Action run against a pooled session e.g. to log on or reset it. Throwing an exception causes the session to be discarded.
+     */
+    @FunctionalInterface
+    public interface SessionAction
+    {
+
+        void apply(Terminal term) throws Exception;
+    }
+
+    private static class Pooled
+    {
+
+        private final Terminal term;
+        private final long idleSince = System.currentTimeMillis();
+
+        Pooled(Terminal term)
+        {
+            this.term = term;
+        }
+    }
+
+    /**
+     * Hosts are mutable and don't define equality, so pooling is keyed on a snapshot of the parts which identify a connection.
+     */
+    private static class HostKey
+    {
+
+        private final String hostName;
+        private final int port;
+        private final String termType;
+        private final boolean encryption;
+        // Sessions pinned to a specific LU aren't interchangeable with any other
+        private final String deviceName;
+
+        HostKey(Host host)
+        {
+            this.hostName = host.getHostName();
+            this.port = host.getPort();
+            this.termType = host.getTermType();
+            this.encryption = host.isEncryption();
+            this.deviceName = host.getDeviceName();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof HostKey))
+            {
+                return false;
+            }
+            HostKey other = (HostKey) obj;
+            return port == other.port && encryption == other.encryption && Objects.equals(hostName, other.hostName)
+                && Objects.equals(termType, other.termType) && Objects.equals(deviceName, other.deviceName);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(hostName, port, termType, encryption, deviceName);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Trace handler which records a session in a compact binary form, for later replay with {@link SessionReplayer}. The format is:
+ * <pre>
+ * header:  "OTRC" version(byte) startMillis(long) description(UTF)
+ * record:  type(byte) deltaMillis(varint) length(varint) data
+ * </pre>
+ * where the record type is one of {@link #REC_IN}, {@link #REC_OUT} or {@link #REC_EVENT} (data is then the UTF-8 event text), and
+ * deltaMillis is the time since the previous record. Varints are unsigned, 7 bits per byte, low order first.
+ *
+ * Output is buffered and only written out when {@link #flush()} is called, so best wrapped in an {@link AsyncTraceHandler}.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class SessionRecorder implements TraceHandler, Flushable, Closeable
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(SessionRecorder.class.getName());
+
+    public static final byte[] MAGIC = "OTRC".getBytes(StandardCharsets.US_ASCII);
+    public static final int VERSION = 1;
+
+    public static final int REC_IN = 1;
+    public static final int REC_OUT = 2;
+    public static final int REC_EVENT = 3;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final DataOutputStream dos;
+    private long lastTimestamp;
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public SessionRecorder(File file, String description)
+        throws IOException
+    {
+        this(new FileOutputStream(file), description);
+    }
+
+    /**
+     * @param description free text stored in the header e.g. host and terminal type
+     */
+    public SessionRecorder(OutputStream os, String description)
+        throws IOException
+    {
+        dos = new DataOutputStream(new BufferedOutputStream(os, BUFFER_SIZE));
+        lastTimestamp = System.currentTimeMillis();
+
+        dos.write(MAGIC);
+        dos.writeByte(VERSION);
+        dos.writeLong(lastTimestamp);
+        dos.writeUTF(description != null ? description : "");
+    }
+
+    //////////////////////////////////////////////////
+    // INTERFACE METHODS - TraceHandler
+    //////////////////////////////////////////////////
+    @Override
+    public void incomingData(byte[] data, int offset, int len)
+    {
+        traceData(true, System.currentTimeMillis(), data, offset, len);
+    }
+
+    @Override
+    public void outgoingData(byte[] data, int offset, int len)
+    {
+        traceData(false, System.currentTimeMillis(), data, offset, len);
+    }
+
+    @Override
+    public void traceData(boolean incoming, long timestampMillis, byte[] data, int offset, int len)
+    {
+        record(incoming ? REC_IN : REC_OUT, timestampMillis, data, offset, len);
+    }
+
+    @Override
+    public void traceEvent(long timestampMillis, String event)
+    {
+        byte[] bytes = event.getBytes(StandardCharsets.UTF_8);
+        record(REC_EVENT, timestampMillis, bytes, 0, bytes.length);
+    }
+
+    //////////////////////////////////////////////////
+    // INTERFACE METHODS - Flushable, Closeable
+    //////////////////////////////////////////////////
+    @Override
+    public synchronized void flush() throws IOException
+    {
+        dos.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        dos.close();
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    private synchronized void record(int type, long timestampMillis, byte[] data, int offset, int len)
+    {
+        // Records can arrive slightly out of time order from different threads, which just counts as no gap
+        long delta = Math.max(0, timestampMillis - lastTimestamp);
+        lastTimestamp = Math.max(lastTimestamp, timestampMillis);
+
+        try
+        {
+            dos.writeByte(type);
+            writeVarint(delta);
+            writeVarint(len);
+            dos.write(data, offset, len);
+        }
+        catch (IOException ex)
+        {
+            log.log(Level.WARNING, "unable to write session record", ex);
+        }
+    }
+
+    private void writeVarint(long value) throws IOException
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            dos.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dos.writeByte((int) value);
+    }
+}
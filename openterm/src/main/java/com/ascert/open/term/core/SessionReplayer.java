@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Reads sessions recorded by {@link SessionRecorder}, and replays them through a telnet instance without any socket involved. Host data
+ * is fed to {@link RWTelnet#processDataIn(byte[], int)} exactly as it was originally received, so the parser and terminal see the same
+ * sequence of data as the real session did. Replay can be at the recorded pace, scaled, or as fast as possible for load testing.
+ *
+ * Records can also just be read one at a time with {@link #next()}.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class SessionReplayer implements Closeable
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(SessionReplayer.class.getName());
+
+    // Far beyond any single read from a telnet connection, so a length bigger than this means a corrupt recording
+    private static final int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final DataInputStream dis;
+    private final long startTime;
+    private final String description;
+
+    // Re-used for every record read
+    private final Record record = new Record();
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public SessionReplayer(File file)
+        throws IOException
+    {
+        this(new FileInputStream(file));
+    }
+
+    public SessionReplayer(InputStream is)
+        throws IOException
+    {
+        dis = new DataInputStream(new BufferedInputStream(is));
+
+        byte[] magic = new byte[SessionRecorder.MAGIC.length];
+        dis.readFully(magic);
+        if (!Arrays.equals(magic, SessionRecorder.MAGIC))
+        {
+            throw new IOException("Not a session recording");
+        }
+        int version = dis.readUnsignedByte();
+        if (version != SessionRecorder.VERSION)
+        {
+            throw new IOException("Unsupported session recording version: " + version);
+        }
+
+        startTime = dis.readLong();
+        description = dis.readUTF();
+        record.timestamp = startTime;
+    }
+
+    //////////////////////////////////////////////////
+    // ACCESSOR METHODS
+    //////////////////////////////////////////////////
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    public String getDescription()
+    {
+        return description;
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * Reads the next record. The same Record instance is returned each time, and its data buffer re-used, so copy anything which needs
+     * keeping.
+     *
+     * @return the record, or <code>null</code> at the end of the recording
+     *
+     * @throws IOException if the recording is corrupt
+     */
+    public Record next() throws IOException
+    {
+        int type = dis.read();
+        if (type < 0)
+        {
+            return null;
+        }
+
+        try
+        {
+            record.type = type;
+            record.timestamp += readVarint();
+            long length = readVarint();
+            if (length > MAX_RECORD_LENGTH)
+            {
+                throw new IOException("Malformed session recording, record length " + length);
+            }
+            record.length = (int) length;
+            if (record.data.length < record.length)
+            {
+                record.data = new byte[Math.max(record.length, record.data.length * 2)];
+            }
+            dis.readFully(record.data, 0, record.length);
+        }
+        catch (EOFException ex)
+        {
+            // Recording cut short e.g. process killed before a final flush, everything up to here is still usable
+            log.fine("session recording truncated");
+            return null;
+        }
+
+        return record;
+    }
+
+    /**
+     * Replays the rest of the recording into a telnet instance. Anything the terminal sends in response goes to the given stream, which
+     * replaces the telnet's own output stream, so this should not be used on a connected session.
+     *
+     * @param responses where to write data sent to the host, <code>null</code> to discard it
+     * @param speed     1.0 to replay at the pace recorded, 2.0 twice as fast etc. 0 or less replays as fast as possible.
+     *
+     * @return number of inbound records replayed
+     */
+    public int replay(RWTelnet telnet, OutputStream responses, double speed)
+        throws IOException
+    {
+        telnet.setOutputStream(responses != null ? responses : new NullOutputStream());
+
+        int count = 0;
+        long replayStart = System.nanoTime();
+        long recordStart = -1;
+        Record rec;
+
+        while ((rec = next()) != null)
+        {
+            if (rec.type == SessionRecorder.REC_EVENT)
+            {
+                log.fine("recorded event: " + rec.getEvent());
+            }
+            if (rec.type != SessionRecorder.REC_IN)
+            {
+                continue;
+            }
+
+            if (recordStart < 0)
+            {
+                recordStart = rec.timestamp;
+            }
+            else if (speed > 0)
+            {
+                pace(replayStart, (long) ((rec.timestamp - recordStart) / speed));
+            }
+
+            // Same locking as the telnet reader thread
+            synchronized (telnet)
+            {
+                telnet.processDataIn(rec.data, rec.length);
+            }
+            count++;
+        }
+
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        dis.close();
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    private void pace(long replayStart, long offsetMillis) throws IOException
+    {
+        long waitMillis = offsetMillis - (System.nanoTime() - replayStart) / 1000000;
+        if (waitMillis > 0)
+        {
+            try
+            {
+                Thread.sleep(waitMillis);
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Replay interrupted");
+            }
+        }
+    }
+
+    private long readVarint() throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = dis.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Malformed session recording");
+    }
+
+    //////////////////////////////////////////////////
+    // INNER CLASSES
+    //////////////////////////////////////////////////
+    /**
+     * A single recorded record.
+     */
+    public static class Record
+    {
+
+        private int type;
+        private long timestamp;
+        private int length;
+        private byte[] data = new byte[2048];
+
+        /**
+         * @return one of the SessionRecorder REC_ types
+         */
+        public int getType()
+        {
+            return type;
+        }
+
+        public long getTimestamp()
+        {
+            return timestamp;
+        }
+
+        public byte[] getData()
+        {
+            return data;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+
+        public String getEvent()
+        {
+            return new String(data, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class NullOutputStream extends OutputStream
+    {
+
+        @Override
+        public void write(int b)
+        {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+        }
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.core;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.ascert.open.term.core.TermChar.FieldAttribute;
+import com.ascert.open.term.core.TermChar.VideoAttribute;
+
+/**
+ * Compact backing store for a page (or status line) of TermChar state. Everything is held in parallel primitive arrays indexed by slot,
+ * with the TermChar objects acting as lightweight views onto a single slot each. A view owns its slot for life, so operations which
+ * shuffle TermChar objects around within a page still carry their data with them.
+ *
+ * Attributes are packed two bits per attribute ordinal: 00 not set, 01 false, 11 true, and 10 for any value which is not a simple Boolean.
+ * Those odd cases are rare, so they go in a lazily created overflow map rather than costing every slot. Colour values are held in their
+ * own arrays since they're objects.
+ *
+ * Device types with extra per-character state (e.g. 3270 extended attributes) can subclass this to add their own arrays.
+ *
+ * Every change which could affect rendering stamps the slot with the current change generation. Consumers (renderers, remote screen
+ * servers, scrapers) can then find just the slots modified since a generation they've previously seen. Derived state which buildFields()
+ * recalculates on every pass (field and video attribute char references) is not tracked directly. Instead buildFields() applies a key of
+ * the effective video attributes to each slot, and only a real change in that key counts as a change to the slot.
+ *
+ * Separately, the range of slots whose field or video attributes have been altered, or which have been cleared, is tracked so that
+ * buildFields() need only re-scan the fields covering that range rather than the whole page.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class TermCharStore
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final int ATTR_MASK = 0x03;
+    private static final int ATTR_FALSE = 0x01;
+    private static final int ATTR_OTHER = 0x02;
+    private static final int ATTR_TRUE = 0x03;
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    protected final char[] chars;
+    protected final int[] positions;
+    protected final int[] vidAttrs;
+    protected final int[] fldAttrs;
+    protected final Object[] fgColors;
+    protected final Object[] bgColors;
+    protected final TermField[] fields;
+    protected final TermChar[] vaChars;
+    protected final long[] changeGens;
+    protected final int[] videoKeys;
+
+    private volatile long generation = 1;
+
+    // Slots whose field/video structure may have changed since last taken, empty when from > to
+    private int fieldsDirtyFrom = Integer.MAX_VALUE;
+    private int fieldsDirtyTo = -1;
+
+    // Non-Boolean attribute values, keyed by slot. Null unless ever needed.
+    private Map<Integer, Map<Enum<?>, Object>> otherAttrs;
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public TermCharStore(int size)
+    {
+        chars = new char[size];
+        positions = new int[size];
+        vidAttrs = new int[size];
+        fldAttrs = new int[size];
+        fgColors = new Object[size];
+        bgColors = new Object[size];
+        fields = new TermField[size];
+        vaChars = new TermChar[size];
+        changeGens = new long[size];
+        videoKeys = new int[size];
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    public int size()
+    {
+        return chars.length;
+    }
+
+    /**
+     * Creates a new single slot store of the same type, holding a copy of the given slot. Used when cloning TermChar views, subclasses with
+     * their own arrays must override this to copy them too.
+     */
+    public TermCharStore copySlot(int slot)
+    {
+        TermCharStore copy = new TermCharStore(1);
+        copyTo(slot, copy);
+        return copy;
+    }
+
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Closes off the current change generation, any changes from here on are stamped with the next one.
+     *
+     * @return the generation just closed
+     */
+    public synchronized long nextGeneration()
+    {
+        return generation++;
+    }
+
+    public long getChangeGeneration(int slot)
+    {
+        return changeGens[slot];
+    }
+
+    public void markChanged(int slot)
+    {
+        changeGens[slot] = generation;
+    }
+
+    /**
+     * Records a change to a slot's field or video attributes, which affects the fields and effective video attributes buildFields()
+     * derives.
+     */
+    public void markFieldsDirty(int slot)
+    {
+        if (slot < fieldsDirtyFrom)
+        {
+            fieldsDirtyFrom = slot;
+        }
+        if (slot > fieldsDirtyTo)
+        {
+            fieldsDirtyTo = slot;
+        }
+    }
+
+    /**
+     * @return first slot with field changes since the last {@link #resetFieldsDirty()}, or -1 if none
+     */
+    public int getFieldsDirtyFrom()
+    {
+        return fieldsDirtyTo < 0 ? -1 : fieldsDirtyFrom;
+    }
+
+    public int getFieldsDirtyTo()
+    {
+        return fieldsDirtyTo;
+    }
+
+    public void resetFieldsDirty()
+    {
+        fieldsDirtyFrom = Integer.MAX_VALUE;
+        fieldsDirtyTo = -1;
+    }
+
+    public void setChar(int slot, char c)
+    {
+        if (chars[slot] != c)
+        {
+            chars[slot] = c;
+            markChanged(slot);
+        }
+    }
+
+    public void setPosition(int slot, int position)
+    {
+        if (positions[slot] != position)
+        {
+            positions[slot] = position;
+            markChanged(slot);
+        }
+    }
+
+    public void setVAChar(int slot, TermChar vaChar)
+    {
+        vaChars[slot] = vaChar;
+    }
+
+    /**
+     * @return a key summarising the video attributes held on a slot, for change detection only
+     */
+    public int getVideoKey(int slot)
+    {
+        int key = vidAttrs[slot];
+        key = 31 * key + (fgColors[slot] != null ? fgColors[slot].hashCode() : 0);
+        key = 31 * key + (bgColors[slot] != null ? bgColors[slot].hashCode() : 0);
+        return key;
+    }
+
+    /**
+     * Records the key of the video attributes which apply to a slot, marking it changed if they differ from last time.
+     */
+    public void applyVideoKey(int slot, int key)
+    {
+        if (videoKeys[slot] != key)
+        {
+            videoKeys[slot] = key;
+            markChanged(slot);
+        }
+    }
+
+    /**
+     * Resets a slot to empty. Callers are responsible for anything device specific, such as the default protected state.
+     */
+    public void clear(int slot)
+    {
+        chars[slot] = 0;
+        vidAttrs[slot] = 0;
+        fldAttrs[slot] = 0;
+        fgColors[slot] = null;
+        bgColors[slot] = null;
+        fields[slot] = null;
+        vaChars[slot] = null;
+        if (otherAttrs != null)
+        {
+            otherAttrs.remove(slot);
+        }
+        markChanged(slot);
+        markFieldsDirty(slot);
+    }
+
+    public boolean hasVideoAttributes(int slot)
+    {
+        return vidAttrs[slot] != 0;
+    }
+
+    public boolean hasFieldAttributes(int slot)
+    {
+        return fldAttrs[slot] != 0;
+    }
+
+    public Object getVideoAttribute(int slot, VideoAttribute vidAttr)
+    {
+        switch (vidAttr)
+        {
+            case FG_COLOR:
+                return fgColors[slot];
+            case BG_COLOR:
+                return bgColors[slot];
+            default:
+                return getAttr(vidAttrs[slot], slot, vidAttr);
+        }
+    }
+
+    public Object getFieldAttribute(int slot, FieldAttribute fldAttr)
+    {
+        return getAttr(fldAttrs[slot], slot, fldAttr);
+    }
+
+    public void setVideoAttribute(int slot, VideoAttribute vidAttr, Object attrVal)
+    {
+        int oldBits = vidAttrs[slot];
+        switch (vidAttr)
+        {
+            case FG_COLOR:
+                if (getBits(oldBits, vidAttr) != 0 && Objects.equals(fgColors[slot], attrVal))
+                {
+                    return;
+                }
+                fgColors[slot] = attrVal;
+                // Presence is tracked separately as a null colour is still a meaningful attribute
+                vidAttrs[slot] = setBits(oldBits, vidAttr, ATTR_OTHER);
+                break;
+            case BG_COLOR:
+                if (getBits(oldBits, vidAttr) != 0 && Objects.equals(bgColors[slot], attrVal))
+                {
+                    return;
+                }
+                bgColors[slot] = attrVal;
+                vidAttrs[slot] = setBits(oldBits, vidAttr, ATTR_OTHER);
+                break;
+            default:
+                vidAttrs[slot] = setAttr(oldBits, slot, vidAttr, attrVal);
+                if (vidAttrs[slot] == oldBits && getBits(oldBits, vidAttr) != ATTR_OTHER)
+                {
+                    // Same boolean value as before, nothing to mark
+                    return;
+                }
+        }
+        markChanged(slot);
+        markFieldsDirty(slot);
+    }
+
+    public void setFieldAttribute(int slot, FieldAttribute fldAttr, Object attrVal)
+    {
+        int oldBits = fldAttrs[slot];
+        fldAttrs[slot] = setAttr(oldBits, slot, fldAttr, attrVal);
+        if (fldAttrs[slot] != oldBits || getBits(oldBits, fldAttr) == ATTR_OTHER)
+        {
+            markChanged(slot);
+            markFieldsDirty(slot);
+        }
+    }
+
+    public void clearVideoAttribute(int slot, VideoAttribute vidAttr)
+    {
+        switch (vidAttr)
+        {
+            case FG_COLOR:
+                fgColors[slot] = null;
+                break;
+            case BG_COLOR:
+                bgColors[slot] = null;
+                break;
+            default:
+                removeOther(slot, vidAttr);
+        }
+        vidAttrs[slot] = setBits(vidAttrs[slot], vidAttr, 0);
+        markChanged(slot);
+        markFieldsDirty(slot);
+    }
+
+    public void clearFieldAttribute(int slot, FieldAttribute fldAttr)
+    {
+        removeOther(slot, fldAttr);
+        fldAttrs[slot] = setBits(fldAttrs[slot], fldAttr, 0);
+        markChanged(slot);
+        markFieldsDirty(slot);
+    }
+
+    /**
+     * Builds a snapshot map of the video attributes set on a slot. Changes to the map are not reflected back in the store.
+     */
+    public Map<VideoAttribute, Object> getVideoAttributes(int slot)
+    {
+        Map<VideoAttribute, Object> map = new EnumMap<>(VideoAttribute.class);
+        for (VideoAttribute va : VideoAttribute.values())
+        {
+            if (getBits(vidAttrs[slot], va) != 0)
+            {
+                map.put(va, getVideoAttribute(slot, va));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Builds a snapshot map of the field attributes set on a slot. Changes to the map are not reflected back in the store.
+     */
+    public Map<FieldAttribute, Object> getFieldAttributes(int slot)
+    {
+        Map<FieldAttribute, Object> map = new EnumMap<>(FieldAttribute.class);
+        for (FieldAttribute fa : FieldAttribute.values())
+        {
+            if (getBits(fldAttrs[slot], fa) != 0)
+            {
+                map.put(fa, getFieldAttribute(slot, fa));
+            }
+        }
+        return map;
+    }
+
+    //////////////////////////////////////////////////
+    // PROTECTED INSTANCE METHODS
+    //////////////////////////////////////////////////
+    protected void copyTo(int slot, TermCharStore dest)
+    {
+        dest.chars[0] = chars[slot];
+        dest.positions[0] = positions[slot];
+        dest.vidAttrs[0] = vidAttrs[slot];
+        dest.fldAttrs[0] = fldAttrs[slot];
+        dest.fgColors[0] = fgColors[slot];
+        dest.bgColors[0] = bgColors[slot];
+        dest.fields[0] = fields[slot];
+        dest.vaChars[0] = vaChars[slot];
+        dest.changeGens[0] = changeGens[slot];
+        dest.videoKeys[0] = videoKeys[slot];
+        if (otherAttrs != null && otherAttrs.containsKey(slot))
+        {
+            dest.otherAttrs = new HashMap<>();
+            dest.otherAttrs.put(0, new HashMap<>(otherAttrs.get(slot)));
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    private static int getBits(int bits, Enum<?> attr)
+    {
+        return (bits >>> (attr.ordinal() * 2)) & ATTR_MASK;
+    }
+
+    private static int setBits(int bits, Enum<?> attr, int val)
+    {
+        int shift = attr.ordinal() * 2;
+        return (bits & ~(ATTR_MASK << shift)) | (val << shift);
+    }
+
+    private Object getAttr(int bits, int slot, Enum<?> attr)
+    {
+        switch (getBits(bits, attr))
+        {
+            case ATTR_FALSE:
+                return Boolean.FALSE;
+            case ATTR_TRUE:
+                return Boolean.TRUE;
+            case ATTR_OTHER:
+                return otherAttrs.get(slot).get(attr);
+            default:
+                return null;
+        }
+    }
+
+    private int setAttr(int bits, int slot, Enum<?> attr, Object attrVal)
+    {
+        if (attrVal instanceof Boolean)
+        {
+            removeOther(slot, attr);
+            return setBits(bits, attr, ((Boolean) attrVal) ? ATTR_TRUE : ATTR_FALSE);
+        }
+
+        if (otherAttrs == null)
+        {
+            otherAttrs = new HashMap<>();
+        }
+        otherAttrs.computeIfAbsent(slot, k -> new HashMap<>()).put(attr, attrVal);
+        return setBits(bits, attr, ATTR_OTHER);
+    }
+
+    private void removeOther(int slot, Enum<?> attr)
+    {
+        if (otherAttrs != null)
+        {
+            Map<Enum<?>, Object> other = otherAttrs.get(slot);
+            if (other != null)
+            {
+                other.remove(attr);
+                if (other.isEmpty())
+                {
+                    otherAttrs.remove(slot);
+                }
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package com.ascert.open.term.core;
 
 import java.awt.Color;
+import java.io.IOException;
 
 /**
  *
@@ -84,6 +85,14 @@ public interface TermField
 
     void setProtected(boolean b);
 
+    /**
+     * Sets the data of an input field, marking it modified.
+     *
+     * @exception IOException          thrown if the string is longer than the field
+     * @exception IsProtectedException thrown if the field is protected
+     */
+    void setData(String s) throws IOException, IsProtectedException;
+
     //////////////////////////////////////////////////
     // INTERFACE METHODS
     //////////////////////////////////////////////////
@@ -24,7 +24,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.UnknownHostException;
+import java.util.BitSet;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
 
 import com.ascert.open.ohio.Ohio;
 
@@ -273,6 +275,56 @@ public interface Terminal
 
     void setDisplayPage(int pg);
 
+    // Change tracking, for the display page. See Page for details
+    default long getChangeGeneration()
+    {
+        return getDisplayPage().getChangeGeneration();
+    }
+
+    default long nextChangeGeneration()
+    {
+        return getDisplayPage().nextChangeGeneration();
+    }
+
+    default BitSet getChangedCells(long sinceGeneration)
+    {
+        return getDisplayPage().getChangedCells(sinceGeneration);
+    }
+
+    /**
+     * Immutable copy of the display page, which can be read from any thread without locking.
+     */
+    ScreenSnapshot getSnapshot();
+
+    /**
+     * Publishes a new snapshot, for use once a set of changes to the display page is complete.
+     */
+    ScreenSnapshot publishSnapshot();
+
+    /**
+     * @return snapshot published after the most recent host update, or <code>null</code> if there hasn't been one yet. Each host update
+     *         publishes a new snapshot, even where nothing changed, so its generation always moves on.
+     */
+    ScreenSnapshot getHostSnapshot();
+
+    /**
+     * Listeners are told what changed each time a snapshot is published, on a dispatcher thread.
+     */
+    void addScreenChangeListener(ScreenChangeListener listener);
+
+    void removeScreenChangeListener(ScreenChangeListener listener);
+
+    /**
+     * Waits for a screen condition without blocking.
+     *
+     * @param timeoutMillis how long to wait, 0 or less to wait indefinitely
+     *
+     * @return future which completes with <code>true</code> once the condition holds, or <code>false</code> if the timeout was reached
+     *
+     * @see ScreenWatcher
+     */
+    CompletableFuture<Boolean> waitFor(ScreenCondition condition, long timeoutMillis);
+
     /**
      * Returns an array of Term3270Char objects representing the data buffer.
      *
@@ -19,6 +19,7 @@
 package com.ascert.open.term.core;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import com.ascert.open.ohio.Ohio.OHIO_AID;
 
@@ -35,15 +36,24 @@ public interface TnStreamParser
     //////////////////////////////////////////////////
 
     /**
-     * Temporary measure to parse data stream from ghost
-     *
-     * @return the tnParser
+     * Byte-native entry point, and the one RWTelnet uses. The buffer may be re-used by the caller after this returns, so implementations
+     * must not hold on to it. Default widens to short for parsers which only implement the older method, parsers should override this
+     * where they can to avoid the copy.
      */
     default void parse(byte[] inBuf, int inBufLen) throws IOException
     {
         parse(RWTelnet.byteArrayToShort(inBuf, inBufLen), inBufLen);
     }
 
+    /**
+     * As above, for a record which starts part way into the buffer e.g. after a protocol header. Default copies out the record, parsers
+     * should override this where they can to parse it in place.
+     */
+    default void parse(byte[] inBuf, int offset, int len) throws IOException
+    {
+        parse((offset == 0) ? inBuf : Arrays.copyOfRange(inBuf, offset, offset + len), len);
+    }
+
     /**
      * This method takes an input buffer and executes the appropriate commands and orders.
      */
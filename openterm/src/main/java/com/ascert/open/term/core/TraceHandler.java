@@ -52,4 +52,27 @@ public interface TraceHandler
         }
     }
 
+    /**
+     * Data traced with the time it was actually sent or received. Used by handlers which deliver trace data later on e.g.
+     * {@link AsyncTraceHandler}, so that handlers which record times can override this to get the right one.
+     */
+    default void traceData(boolean incoming, long timestampMillis, byte[] data, int offset, int len)
+    {
+        if (incoming)
+        {
+            incomingData(data, offset, len);
+        }
+        else
+        {
+            outgoingData(data, offset, len);
+        }
+    }
+
+    /**
+     * Session level events e.g. connect, disconnect and telnet option negotiation. Ignored unless overridden.
+     */
+    default void traceEvent(long timestampMillis, String event)
+    {
+    }
+
 }
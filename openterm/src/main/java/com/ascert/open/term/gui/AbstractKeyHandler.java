@@ -106,6 +106,7 @@ public abstract class AbstractKeyHandler implements KeyHandler
                     log.finest("AID/F-key pressed: " + aid);
                     term.Fkey(aid);
                     // Need to refresh in case lock changed
+                    term.publishSnapshot();
                     term.getClient().refresh();
                 }
             };
@@ -271,10 +272,12 @@ public abstract class AbstractKeyHandler implements KeyHandler
                 try
                 {
                     log.finest("typed char: " + typedChar);
-                    if (getCharHandler().type(typedChar));
+                    synchronized (term.getLockObject())
                     {
-                        term.getClient().refresh();
+                        getCharHandler().type(typedChar);
                     }
+                    term.publishSnapshot();
+                    term.getClient().refresh();
                     evt.consume();
                 }
                 catch (IsProtectedException e)
@@ -400,10 +403,16 @@ public abstract class AbstractKeyHandler implements KeyHandler
                     return;
                 }
 
-                if (handle())
+                boolean handled;
+                synchronized (term.getLockObject())
+                {
+                    handled = handle();
+                }
+                if (handled)
                 {
                     if (withRefresh)
                     {
+                        term.publishSnapshot();
                         term.getClient().refresh();
                     }
                 }
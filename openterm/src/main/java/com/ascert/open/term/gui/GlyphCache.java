@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.gui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Cache of pre-rendered character cells, held as tiles in a single atlas image. Painting a cached cell is then just an image blit rather
+ * than a trip through the full text pipeline. Tiles include the background fill and any underscore, so each one is a complete cell.
+ *
+ * Tiles are keyed by char, colours and underscore. Font and cell metrics apply to the cache as a whole, and changing them throws
+ * everything away. When the atlas fills up it is simply cleared and refilled - a terminal screen only uses a small working set of
+ * char/colour combinations, so this is rare in practice.
+ *
+ * Not thread safe, callers are expected to hold the terminal lock as for any other rendering.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class GlyphCache
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(GlyphCache.class.getName());
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int ATLAS_COLS = 64;
+    // Colour indexes are packed into 16 bits of the key, but anywhere near this many colours means something odd is going on
+    private static final int MAX_PALETTE = 256;
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final int capacity;
+
+    private Font font;
+    private RenderingHints hints;
+    private int cellWidth;
+    private int cellHeight;
+    private int ascent;
+
+    private BufferedImage atlas;
+    private Graphics2D atlasGfx;
+    private int count;
+
+    // Small open addressed key -> tile map, avoids boxing on every lookup. A key of 0 marks an empty slot,
+    // which can never clash with a real key since colour indexes are stored +1
+    private long[] keys;
+    private int[] tiles;
+    private int mask;
+
+    private final Map<Color, Integer> palette = new HashMap<>();
+
+    private final char[] ca = new char[1];
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    /**
+     * @param capacity maximum number of tiles held. A capacity of 0 or less disables the cache
+     */
+    public GlyphCache(int capacity)
+    {
+        this.capacity = Math.max(0, capacity);
+
+        int size = Integer.highestOneBit(Math.max(1, this.capacity) * 2 - 1) << 1;
+        keys = new long[size];
+        tiles = new int[size];
+        mask = size - 1;
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    public boolean isEnabled()
+    {
+        return capacity > 0 && font != null && cellWidth > 0 && cellHeight > 0;
+    }
+
+    /**
+     * Sets the font and cell metrics tiles are rendered with. Anything already cached is discarded if these differ from the current ones.
+     */
+    public void setMetrics(Font font, RenderingHints hints, int cellWidth, int cellHeight, int ascent)
+    {
+        if (font.equals(this.font) && cellWidth == this.cellWidth && cellHeight == this.cellHeight && ascent == this.ascent
+            && hints.equals(this.hints))
+        {
+            return;
+        }
+
+        this.font = font;
+        this.hints = hints;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.ascent = ascent;
+
+        if (atlasGfx != null)
+        {
+            atlasGfx.dispose();
+        }
+        atlas = null;
+        atlasGfx = null;
+        invalidate();
+    }
+
+    /**
+     * Discards all cached tiles. The atlas image itself is kept for re-use.
+     */
+    public void invalidate()
+    {
+        log.finer("glyph cache invalidated, tiles: " + count);
+        Arrays.fill(keys, 0L);
+        palette.clear();
+        count = 0;
+    }
+
+    /**
+     * Paints a complete character cell - background, char and optional underscore - with its top left corner at x,y.
+     */
+    public void drawChar(Graphics2D g, char ch, Color fg, Color bg, boolean underscore, int x, int y)
+    {
+        int fgIx = paletteIndex(fg);
+        int bgIx = paletteIndex(bg);
+        if (fgIx < 0 || bgIx < 0)
+        {
+            // Palette was reset to make room, so any previous index is now stale
+            invalidate();
+            fgIx = paletteIndex(fg);
+            bgIx = paletteIndex(bg);
+        }
+
+        long key = ((long) (fgIx + 1) << 48) | ((long) (bgIx + 1) << 32) | (underscore ? 0x10000L : 0L) | ch;
+
+        int tile = lookup(key);
+        if (tile < 0)
+        {
+            if (count >= capacity)
+            {
+                invalidate();
+                // Indexes are gone along with the palette, so the key must be rebuilt
+                drawChar(g, ch, fg, bg, underscore, x, y);
+                return;
+            }
+            tile = count++;
+            renderTile(tile, ch, fg, bg, underscore);
+            insert(key, tile);
+        }
+
+        int sx = (tile % ATLAS_COLS) * cellWidth;
+        int sy = (tile / ATLAS_COLS) * cellHeight;
+        g.drawImage(atlas, x, y, x + cellWidth, y + cellHeight, sx, sy, sx + cellWidth, sy + cellHeight, null);
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    private int paletteIndex(Color color)
+    {
+        Integer ix = palette.get(color);
+        if (ix == null)
+        {
+            if (palette.size() >= MAX_PALETTE)
+            {
+                return -1;
+            }
+            ix = palette.size();
+            palette.put(color, ix);
+        }
+        return ix;
+    }
+
+    private void renderTile(int tile, char ch, Color fg, Color bg, boolean underscore)
+    {
+        if (atlas == null)
+        {
+            int rows = (capacity + ATLAS_COLS - 1) / ATLAS_COLS;
+            atlas = new BufferedImage(ATLAS_COLS * cellWidth, rows * cellHeight, BufferedImage.TYPE_INT_RGB);
+            atlasGfx = atlas.createGraphics();
+            atlasGfx.setRenderingHints(hints);
+            atlasGfx.setFont(font);
+        }
+
+        int sx = (tile % ATLAS_COLS) * cellWidth;
+        int sy = (tile / ATLAS_COLS) * cellHeight;
+
+        // Clip so that wide glyphs can't spill into neighbouring tiles
+        atlasGfx.setClip(sx, sy, cellWidth, cellHeight);
+        atlasGfx.setColor(bg);
+        atlasGfx.fillRect(sx, sy, cellWidth, cellHeight);
+
+        ca[0] = ch;
+        atlasGfx.setColor(fg);
+        atlasGfx.drawChars(ca, 0, 1, sx, sy + ascent - 2);
+
+        if (underscore)
+        {
+            int uy = sy + cellHeight - 2;
+            atlasGfx.drawLine(sx, uy, sx + cellWidth - 1, uy);
+        }
+    }
+
+    private int lookup(long key)
+    {
+        for (int ix = hash(key); ; ix = (ix + 1) & mask)
+        {
+            if (keys[ix] == key)
+            {
+                return tiles[ix];
+            }
+            if (keys[ix] == 0)
+            {
+                return -1;
+            }
+        }
+    }
+
+    private void insert(long key, int tile)
+    {
+        int ix = hash(key);
+        while (keys[ix] != 0)
+        {
+            ix = (ix + 1) & mask;
+        }
+        keys[ix] = key;
+        tiles[ix] = tile;
+    }
+
+    private int hash(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -36,6 +36,9 @@ import java.awt.print.PageFormat;
 import java.awt.print.Printable;
 import java.awt.print.PrinterException;
 import java.awt.print.PrinterJob;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.logging.Level;
@@ -133,7 +136,17 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
     {
         return OpenTermConfig.getProp("color.selection", "Gray");
     }
-    
+
+    public static boolean isIncrementalRender()
+    {
+        return Boolean.parseBoolean(OpenTermConfig.getProp("screen.incremental", "false"));
+    }
+
+    public static int getGlyphCacheSize()
+    {
+        return OpenTermConfig.getIntProp("screen.glyphcache", GlyphCache.DEFAULT_CAPACITY);
+    }
+
     public static Color getColor(String colorName)
     {
         // TODO - be much tidier as a map, this was quick and simple for now
@@ -202,8 +215,23 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
     
     // Keyboad Lock listener handling - rather trivial implementation but workable for now
     protected final Set<ScreenImageListener> listeners = new CopyOnWriteArraySet<>();
-    
-    
+
+    // Incremental render state. Anything that invalidates the frame as a whole (fonts, colours, selection, page switch etc.)
+    // just sets fullRender and lets the next refresh repaint everything
+    private boolean incrementalRender;
+    private boolean fullRender = true;
+    private Page renderedPage;
+    private long renderedGeneration = -1;
+    private int renderedCursorPos = -1;
+    private Color renderedBGColor;
+    private int[] renderedStatus = new int[0];
+    // Area of the frame buffer touched by the last render
+    private final Rectangle dirtyRect = new Rectangle();
+
+    // Pre-rendered character cells, see paintChar
+    private final GlyphCache glyphs = new GlyphCache(getGlyphCacheSize());
+
+
     /**
      * Construct a new GUI session with a terminalModel of 2, and a terminalType of 3279-E.
      */
@@ -222,7 +250,8 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
         currentFGColor = getColor(getFgColor());
         cursorColor = getColor(getCursorColor());
         selectionColor = getColor(getSelectionColor());
-        
+        incrementalRender = isIncrementalRender();
+
         origInputMap = this.getInputMap(WHEN_IN_FOCUSED_WINDOW);
         origActionMap = this.getActionMap();
 
@@ -302,6 +331,7 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
         frameBuff = new BufferedImage(term.getCols() * DEFAULT_WIDTH_PER_COL, term.getRows() * DEFAULT_HEIGHT_PER_ROW,
                                       BufferedImage.TYPE_INT_RGB);
         frame = frameBuff.createGraphics();
+        invalidateFrame();
         windowMsgOnScreen = false;
         rectStartPoint = new Point();
         selectRect = new Rectangle(-1, -1, 0, 0);
@@ -361,10 +391,31 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
         synchronized (term.getLockObject())
         {
             renderScreen();
-            repaint();
+            if (!dirtyRect.isEmpty())
+            {
+                repaint(dirtyRect.x, dirtyRect.y, dirtyRect.width, dirtyRect.height);
+            }
         }
     }
 
+    /**
+     * Forces the next refresh to re-render the whole screen, rather than just the cells which have changed since the last one.
+     */
+    public void invalidateFrame()
+    {
+        fullRender = true;
+    }
+
+    /**
+     * @param incrementalRender whether refreshes should only re-render the cells changed since the last one, rather than the whole
+     *                          screen. Initially as per the screen.incremental property.
+     */
+    public void setIncrementalRender(boolean incrementalRender)
+    {
+        this.incrementalRender = incrementalRender;
+        invalidateFrame();
+    }
+
     public void paintCursor(int pos)
     {
         frame.setFont(font);
@@ -418,11 +469,24 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
         TermChar[] stsCh = term.getStatusLine();
         if (stsCh != null)
         {
+            if (renderedStatus.length != stsCh.length)
+            {
+                // Nothing usable from a previous paint, so force all cells to be painted
+                renderedStatus = new int[stsCh.length];
+                Arrays.fill(renderedStatus, -1);
+            }
+
             // Status row is 2 lines below last row - will this ever need to be configurable?
             int statusOffset = (term.getRows() + 1) * term.getCols();
             for (int ix = 0; ix < stsCh.length; ix++)
             {
-                paintChar(stsCh[ix], ix + statusOffset);
+                int key = statusKey(stsCh[ix]);
+                if (key != renderedStatus[ix])
+                {
+                    renderedStatus[ix] = key;
+                    paintChar(stsCh[ix], ix + statusOffset);
+                    addDirtyCell(ix + statusOffset);
+                }
             }
         }
     }
@@ -438,6 +502,7 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
             beep();
             String message = null;
             windowMsgOnScreen = true;
+            invalidateFrame();
 
             // frame.setFont(font);
             frame.setColor(currentBGColor);
@@ -526,66 +591,167 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
         {
             if (this.windowMsgOnScreen)
             {
+                dirtyRect.setBounds(0, 0, getWidth(), getHeight());
                 return;
             }
 
-            blankScreen(false);
-
             try
             {
                 frame.setFont(font);
 
-                // Any lingering text after a text we'll show partly transparent
-                if (!term.getTelnet().isConnected())
-                {
-                    frame.setComposite(AC_50PCT);            
-                }
-
                 Page pg = term.getDisplayPage();
                 // Possibly in startup or term re-init, or if some special "blank page" is in use
-                if (pg != null && pg.displaySize() > 0)
+                boolean hasPage = pg != null && pg.displaySize() > 0;
+                if (hasPage)
                 {
                     pg.buildFields(false);
                     log.finest("field count: " + pg.getFields().size());
+                }
 
-                    int len = pg.displaySize();
-                    for (int ix = 0; ix < len; ix++)
-                    {
-                        paintChar(pg.getChar(ix), ix);
-                    }
+                // Must close off the generation after buildFields, since that can itself change cells
+                long generation = hasPage ? pg.nextChangeGeneration() : -1;
+                boolean connected = term.getTelnet().isConnected();
+                Image overlayImg = term.getOverlayImage();
+                Color bgColor = term.getBackgroundColor(currentBGColor);
+
+                // Disconnected screens are drawn translucent, and overlays drawn on top, so neither can be patched up cell by cell
+                if (!incrementalRender || fullRender || !hasPage || pg != renderedPage || !connected || overlayImg != null
+                    || !Objects.equals(bgColor, renderedBGColor))
+                {
+                    renderFull(pg, connected, overlayImg);
                 }
-                    
-                if (term.getTelnet().isConnected())
+                else
                 {
-                    paintCursor(term.getDisplayCursorPosition());
+                    renderChanges(pg);
                 }
-                
-                // Overlay images will typically only be used when disconnected to provide something
-                // visual like branding logos etc
-                Image overlayImg = term.getOverlayImage();
-                log.fine("background logo: " + overlayImg);
 
-                if (overlayImg != null)
+                fullRender = false;
+                renderedPage = pg;
+                renderedGeneration = generation;
+                renderedBGColor = bgColor;
+                renderedCursorPos = connected ? term.getDisplayCursorPosition() : -1;
+
+                if (!dirtyRect.isEmpty())
                 {
-                    frame.setComposite(AC_75PCT);            
-                    int x = (frameBuff.getWidth() - overlayImg.getWidth(null)) / 2;
-                    int y = (frameBuff.getHeight() - overlayImg.getHeight(null)) / 2;            
-                    frame.drawImage(overlayImg, x, y, null);
+                    checkChanges();
+                    fireScreenListeners();
                 }
-                
-                frame.setComposite(AC_OPAQUE);            
-                paintStatusLine();
-                
-                checkChanges();
-                fireScreenListeners();                
             }
             catch (NullPointerException e)
             {
+                invalidateFrame();
                 log.log(Level.SEVERE, "Exception in JTerminalScreen.paintComponent: ", e);
             }
         }
     }
 
+    private void renderFull(Page pg, boolean connected, Image overlayImg)
+    {
+        blankScreen(false);
+
+        // Any lingering text after a text we'll show partly transparent
+        if (!connected)
+        {
+            frame.setComposite(AC_50PCT);
+        }
+
+        if (pg != null)
+        {
+            int len = pg.displaySize();
+            for (int ix = 0; ix < len; ix++)
+            {
+                paintChar(pg.getChar(ix), ix);
+            }
+        }
+
+        if (connected)
+        {
+            paintCursor(term.getDisplayCursorPosition());
+        }
+
+        // Overlay images will typically only be used when disconnected to provide something
+        // visual like branding logos etc
+        log.fine("background logo: " + overlayImg);
+
+        if (overlayImg != null)
+        {
+            frame.setComposite(AC_75PCT);
+            int x = (frameBuff.getWidth() - overlayImg.getWidth(null)) / 2;
+            int y = (frameBuff.getHeight() - overlayImg.getHeight(null)) / 2;
+            frame.drawImage(overlayImg, x, y, null);
+        }
+
+        frame.setComposite(AC_OPAQUE);
+        renderedStatus = new int[0];
+        paintStatusLine();
+
+        dirtyRect.setBounds(0, 0, frameBuff.getWidth(), frameBuff.getHeight());
+    }
+
+    /**
+     * Paints only cells changed since the last render, the old and new cursor cells, and any status line cells which differ from those
+     * last painted. Only valid when connected and there is no overlay, both of which force a full render.
+     */
+    private void renderChanges(Page pg)
+    {
+        dirtyRect.setBounds(0, 0, 0, 0);
+
+        int len = pg.displaySize();
+        int cursorPos = term.getDisplayCursorPosition();
+
+        BitSet changed = pg.getChangedCells(renderedGeneration);
+        if (cursorPos != renderedCursorPos)
+        {
+            if (renderedCursorPos >= 0 && renderedCursorPos < len)
+            {
+                changed.set(renderedCursorPos);
+            }
+            if (cursorPos >= 0 && cursorPos < len)
+            {
+                changed.set(cursorPos);
+            }
+        }
+
+        for (int ix = changed.nextSetBit(0); ix >= 0 && ix < len; ix = changed.nextSetBit(ix + 1))
+        {
+            paintChar(pg.getChar(ix), ix);
+            addDirtyCell(ix);
+        }
+
+        // Cursor only needs redrawing if the cell under it was just repainted
+        if (cursorPos >= 0 && cursorPos < len && changed.get(cursorPos))
+        {
+            paintCursor(cursorPos);
+        }
+        paintStatusLine();
+    }
+
+    private void addDirtyCell(int pos)
+    {
+        int x = ((pos % term.getCols()) * char_width) + MARGIN_X;
+        int y = ((pos / term.getCols()) * char_height) + 1 + MARGIN_Y;
+        if (dirtyRect.isEmpty())
+        {
+            dirtyRect.setBounds(x, y, char_width, char_height);
+        }
+        else
+        {
+            dirtyRect.add(new Rectangle(x, y, char_width, char_height));
+        }
+    }
+
+    // Cheap signature of how a status char will paint, so unchanged status cells can be skipped
+    private int statusKey(TermChar c)
+    {
+        int key = c.getDisplayChar();
+        key = 31 * key + Objects.hashCode(c.getFgColor(null));
+        key = 31 * key + Objects.hashCode(c.getBgColor(null));
+        key = 31 * key + (c.isAltIntensity() ? 1 : 0);
+        key = 31 * key + (c.isReverse() ? 1 : 0);
+        key = 31 * key + (c.isUnderscore() ? 1 : 0);
+        return 31 * key + (c.isStartField() ? 1 : 0);
+    }
+
     public void run()
     {
         // blinked is a toggle.  When true, the affected text is 'off'...
@@ -613,6 +779,8 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
         OpenTermConfig.setProp("color.background", c);
         currentBGColor = getColor(c);
         setBackground(currentBGColor);
+        glyphs.invalidate();
+        invalidateFrame();
         refresh();
     }
 
@@ -620,6 +788,8 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
     {
         OpenTermConfig.setProp("color.bold", c);
         boldColor = getColor(c);
+        glyphs.invalidate();
+        invalidateFrame();
         refresh();
     }
 
@@ -657,6 +827,8 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
             setPreferredSize(new Dimension(width, height));
             frameBuff = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
             frame = frameBuff.createGraphics();
+            glyphs.setMetrics(font, frame.getRenderingHints(), char_width, char_height, char_ascent);
+            invalidateFrame();
 
             if (log.isLoggable(Level.FINE))
             {
@@ -671,6 +843,8 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
     {
         OpenTermConfig.setProp("color.foreground", c);
         currentFGColor = getColor(c);
+        glyphs.invalidate();
+        invalidateFrame();
         refresh();
     }
 
@@ -742,6 +916,7 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
 
     public void blankScreen(boolean paint)
     {
+        invalidateFrame();
         frame.setColor(term.getBackgroundColor(currentBGColor));
         frame.fillRect(0, 0, getSize().width, getSize().height);
         
@@ -800,6 +975,12 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
             return;
         }
 
+        if (glyphs.isEnabled() && fgcolor != null && bgcolor != null)
+        {
+            glyphs.drawChar(frame, c.getDisplayChar(), fgcolor, bgcolor, c.isUnderscore(), fillX, fillY);
+            return;
+        }
+
         frame.setFont(font);
         // We have to draw the background
         frame.setColor(bgcolor);
@@ -979,13 +1160,21 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
         selectStartPos = 0;
         selectEndPos = term.getDisplayPage().displaySize()-1;
         selectRect.setBounds(0, 0, term.getCols(), term.getRows());
+        invalidateFrame();
         refresh();
     }
 
     public void clearSelection()
     {
+        if (selectStartPos == -1 && selectRect.x == -1)
+        {
+            // Nothing selected, so nothing to repaint
+            return;
+        }
+
         selectStartPos = selectEndPos = -1;
         selectRect.setBounds(-1, -1, 0, 0);
+        invalidateFrame();
         refresh();
     }
 
@@ -1052,12 +1241,14 @@ public class JTerminalScreen extends JPanel implements TnAction, Printable, Scre
     public void mouseReleased(MouseEvent e)
     {
         setSelected(e.getX(), e.getY());
+        invalidateFrame();
         refresh();
     }
 
     public void mouseDragged(MouseEvent e)
     {
         setSelected(e.getX(), e.getY());
+        invalidateFrame();
         refresh();
     }
     
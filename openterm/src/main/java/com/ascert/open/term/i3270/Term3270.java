@@ -23,7 +23,12 @@
  */
 package com.ascert.open.term.i3270;
 
+import java.io.IOException;
+import java.net.UnknownHostException;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.ascert.open.ohio.Ohio.OHIO_AID;
@@ -31,7 +36,7 @@ import com.ascert.open.ohio.Ohio.OHIO_TYPE;
 import com.ascert.open.ohio.OhioPosition;
 
 import com.ascert.open.term.core.AbstractTerminal;
-import com.ascert.open.term.core.RWTelnet;
+import com.ascert.open.term.core.ScreenCondition;
 import com.ascert.open.term.core.TermChar;
 import com.ascert.open.term.core.TermField;
 import com.ascert.open.term.core.TnAction;
@@ -64,10 +69,6 @@ public class Term3270
     private short tnModel;
     private boolean extAttribs;
 
-    // Always false at present. Telnet handler doesn't yet support TN3270E. 
-    // Marker purely in place for status line
-    private boolean tn3270e = false;
-
     //private Term3270Char[] chars; // array of current characters
     // Default video attributes
     Term3270Char vaVideoDefault = new Term3270Char(0);
@@ -139,7 +140,7 @@ public class Term3270
         tnParser = new Tn3270StreamParser(this);
 
         // create the TELNET object
-        setTelnet(new RWTelnet(tnParser));
+        setTelnet(new Tn3270ETelnet((Tn3270StreamParser) tnParser));
         waitObject = new WaitObject();
     }
 
@@ -215,11 +216,14 @@ public class Term3270
 
         if (aid == OHIO_AID.OHIO_AID_3270_CLEAR)
         {
-            TermChar[] chars = getCharBuffer();
-
-            for (int i = 0; i < chars.length; i++)
+            synchronized (getLockObject())
             {
-                chars[i].clear();
+                TermChar[] chars = getCharBuffer();
+
+                for (int i = 0; i < chars.length; i++)
+                {
+                    chars[i].clear();
+                }
             }
 
             resumeParentThread();
@@ -231,7 +235,8 @@ public class Term3270
     {
 
         // Quick hack for now, following x3270 indicators
-        String commStatus = String.format("4%c%c", tn3270e ? 'B' : 'A', tn.isConnected() ? ' ' : '?');
+        // Called for every screen snapshot, so avoids String.format
+        String commStatus = new String(new char[] { '4', isTn3270e() ? 'B' : 'A', tn.isConnected() ? ' ' : '?' });
         setStatusChars(0, commStatus);
 
         // According to various online sources, also marks comm status:
@@ -252,13 +257,73 @@ public class Term3270
         // Opinions seem to differ on whether it starts in column 9 or 10
         setStatusChars(8, kbdStatus);
 
-        String cursorStatus = String.format("%03d/%03d", getCurrentRow(), getCurrentCol());
+        String cursorStatus = threeDigits(getCurrentRow()) + "/" + threeDigits(getCurrentCol());
         setStatusChars(this.getCols() - 7, cursorStatus);
 
-        log.finer(String.format("comm status: %s (%s)", commStatus, cursorStatus));
+        if (log.isLoggable(Level.FINER))
+        {
+            log.finer(String.format("comm status: %s (%s)", commStatus, cursorStatus));
+        }
         return statusLine;
     }
 
+    /**
+     * Asks for the TN3270E device (LU) name set for the host, if any, before connecting.
+     */
+    @Override
+    public void connect()
+        throws IOException, UnknownHostException
+    {
+        if (tn instanceof Tn3270ETelnet)
+        {
+            ((Tn3270ETelnet) tn).setRequestedDeviceName(host.getDeviceName());
+        }
+        super.connect();
+    }
+
+    /**
+     * @return <code>true</code> if the session is using TN3270E rather than plain TN3270
+     */
+    public boolean isTn3270e()
+    {
+        return (tn instanceof Tn3270ETelnet) && ((Tn3270ETelnet) tn).isTn3270e();
+    }
+
+    /**
+     * @return <code>true</code> if the host is currently talking to us from the SSCP rather than an application (TN3270E only)
+     */
+    public boolean isSscpLu()
+    {
+        return (tn instanceof Tn3270ETelnet) && ((Tn3270ETelnet) tn).isSscpLu();
+    }
+
+    /**
+     * @return the device (LU) name the host assigned the session, or <code>null</code> if not known (TN3270E only)
+     */
+    public String getDeviceName()
+    {
+        return (tn instanceof Tn3270ETelnet) ? ((Tn3270ETelnet) tn).getDeviceName() : null;
+    }
+
+    /**
+     * Handles the SYSREQ key via TN3270E where possible.
+     *
+     * @return <code>false</code> if SYSREQ should instead be sent as an AID
+     */
+    boolean sysReq()
+    {
+        try
+        {
+            return (tn instanceof Tn3270ETelnet) && ((Tn3270ETelnet) tn).sysReq();
+        }
+        catch (IOException ex)
+        {
+            // Leave the key to go as an AID instead, which will fail in turn if the connection really has gone
+            log.warning("exception sending SYSREQ: " + ex.getMessage());
+            return false;
+        }
+    }
+
     public TermChar getDefaultVAChar()
     {
         return vaVideoDefault;
@@ -315,16 +380,27 @@ public class Term3270
 
     public boolean waitForText(String search, long timeoutMillis)
     {
-        boolean found = contains(search);
-        long cur = System.currentTimeMillis();
-        long finish = cur + timeoutMillis;
-        while (!found && cur < finish)
+        if (search == null || timeoutMillis <= 0)
+        {
+            return contains(search);
+        }
+
+        CompletableFuture<Boolean> found = waitFor(ScreenCondition.contains(search), timeoutMillis);
+        try
+        {
+            return found.get();
+        }
+        catch (InterruptedException e)
         {
-            waitForNewData(finish-cur);
-            cur = System.currentTimeMillis();
-            found = contains(search);
+            Thread.currentThread().interrupt();
+            found.cancel(false);
+            return false;
+        }
+        catch (ExecutionException e)
+        {
+            found.cancel(false);
+            return false;
         }
-        return found;
     }
 
     /**
@@ -370,6 +446,7 @@ public class Term3270
             }
             catch (InterruptedException e)
             {
+                Thread.currentThread().interrupt();
             }
         }
         return false;
@@ -377,6 +454,9 @@ public class Term3270
 
     protected void resumeParentThread()
     {
+        // Published before anyone waiting is woken, so they see the screen this record produced
+        hostUpdated();
+
         if (waitObject != null)
         {
             synchronized (waitObject)
@@ -396,10 +476,11 @@ public class Term3270
     @Override
     protected TermChar[] initTermChars(TermChar[] tch, int baOff)
     {
-        // create TermChar instances for each position in the databuffer (chars array)
+        // create TermChar views for each position in the databuffer (chars array), all backed by one compact store
+        Term3270CharStore store = new Term3270CharStore(tch.length);
         for (int i = 0; i < tch.length; i++)
         {
-            tch[i] = new Term3270Char(i + baOff);
+            tch[i] = new Term3270Char(store, i, i + baOff);
         }
         return tch;
     }
@@ -409,6 +490,11 @@ public class Term3270
         return new Term3270Field((Term3270Char) currChar, this);
     }
 
+    private static String threeDigits(int val)
+    {
+        return (val < 10 ? "00" : val < 100 ? "0" : "") + val;
+    }
+
     static class WaitObject
     {
 
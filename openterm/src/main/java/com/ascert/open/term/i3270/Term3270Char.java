@@ -91,11 +91,6 @@ public class Term3270Char extends AbstractTermChar
     public static final short OL_OVER_RIGHT_LEFT = 14;
     public static final short OL_RECTANGLE = 15;
 
-    private short attribute;
-    private short background;
-    private short foreground;
-    private short highlighting;
-    private short outlining;
 
     /**
      * Instanitates a new RW3270 character.
@@ -109,18 +104,33 @@ public class Term3270Char extends AbstractTermChar
      */
     protected Term3270Char(int position)
     {
-        super(position);
-        clear();
+        this(new Term3270CharStore(1), 0, position);
+    }
+
+    /**
+     * View onto a slot of a shared page store.
+     */
+    protected Term3270Char(Term3270CharStore store, int slot, int position)
+    {
+        super(store, slot, position);
     }
 
     public void clear()
     {
         super.clear();
-        highlighting = HL_NORMAL;
-        background = BGCOLOR_DEFAULT;
-        foreground = FGCOLOR_DEFAULT;
-        attribute = 0;
-        outlining = 0;
+        Term3270CharStore st = ext();
+        int slot = getSlot();
+        st.highlighting[slot] = HL_NORMAL;
+        st.background[slot] = BGCOLOR_DEFAULT;
+        st.foreground[slot] = FGCOLOR_DEFAULT;
+        st.attribute[slot] = 0;
+        st.outlining[slot] = 0;
+    }
+
+    // Store type is fixed by our constructors
+    private Term3270CharStore ext()
+    {
+        return (Term3270CharStore) getStore();
     }
 
     /**
@@ -140,7 +150,7 @@ public class Term3270Char extends AbstractTermChar
      */
     public int getBackground()
     {
-        return background;
+        return ext().background[getSlot()];
     }
 
     /**
@@ -152,12 +162,8 @@ public class Term3270Char extends AbstractTermChar
     {
 
         // We no longer track modified in the attribute itself, and so have to overlay it
-        if (isModified())
-        {
-            return attribute |= 1;
-        }
-
-        return attribute ^= 1;
+        short attribute = ext().attribute[getSlot()];
+        return (short) (isModified() ? attribute | 1 : attribute & ~1);
     }
 
     /**
@@ -167,7 +173,7 @@ public class Term3270Char extends AbstractTermChar
      */
     public int getForeground()
     {
-        return foreground;
+        return ext().foreground[getSlot()];
     }
 
     /**
@@ -177,7 +183,7 @@ public class Term3270Char extends AbstractTermChar
      */
     public int getOutlining()
     {
-        return outlining;
+        return ext().outlining[getSlot()];
     }
 
     /**
@@ -187,7 +193,7 @@ public class Term3270Char extends AbstractTermChar
      */
     protected short getHighlighting()
     {
-        return highlighting;
+        return ext().highlighting[getSlot()];
     }
 
     /**
@@ -199,7 +205,7 @@ public class Term3270Char extends AbstractTermChar
     {
         setVideoAttribute(VideoAttribute.BG_COLOR, translateColor(in));
         // Preserve the actual color attribute supplied in case we need it later
-        background = in;
+        ext().background[getSlot()] = in;
     }
 
     /**
@@ -210,7 +216,8 @@ public class Term3270Char extends AbstractTermChar
     protected void setFieldAttribute(short in)
     {
         //System.out.println("FA - " + in + ", at: " + position);
-        attribute = in;
+        short attribute = in;
+        ext().attribute[getSlot()] = in;
 
         setFieldAttribute(FieldAttribute.PROTECTED, (attribute & 0x20) != 0);
         setFieldAttribute(FieldAttribute.NUMERIC, (attribute & 0x10) != 0);
@@ -245,7 +252,7 @@ public class Term3270Char extends AbstractTermChar
     {
         setVideoAttribute(VideoAttribute.FG_COLOR, translateColor(in));
         // Preserve the actual color attribute supplied in case we need it later
-        foreground = in;
+        ext().foreground[getSlot()] = in;
     }
 
     /**
@@ -257,7 +264,7 @@ public class Term3270Char extends AbstractTermChar
     {
         //System.out.println("HL - " + in + ", at: " + position);
 
-        highlighting = in;
+        ext().highlighting[getSlot()] = in;
 
         if (in == HL_NORMAL || in == HL_DEFAULT)
         {
@@ -282,6 +289,8 @@ public class Term3270Char extends AbstractTermChar
      */
     protected void setOutlining(short in)
     {
+        short outlining = ext().outlining[getSlot()];
+
         if (in == 0)
         {
             outlining = OL_NONE;
@@ -346,6 +355,8 @@ public class Term3270Char extends AbstractTermChar
         { //00001111
             outlining = OL_RECTANGLE;
         }
+
+        ext().outlining[getSlot()] = outlining;
     }
 
     /**
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.i3270;
+
+import com.ascert.open.term.core.TermCharStore;
+
+/**
+ * Adds the raw 3270 field attribute, extended highlighting, colour and outlining values to the common character store.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class Term3270CharStore extends TermCharStore
+{
+
+    final short[] attribute;
+    final short[] background;
+    final short[] foreground;
+    final short[] highlighting;
+    final short[] outlining;
+
+    public Term3270CharStore(int size)
+    {
+        super(size);
+        attribute = new short[size];
+        background = new short[size];
+        foreground = new short[size];
+        highlighting = new short[size];
+        outlining = new short[size];
+    }
+
+    @Override
+    public TermCharStore copySlot(int slot)
+    {
+        Term3270CharStore copy = new Term3270CharStore(1);
+        copyTo(slot, copy);
+        copy.attribute[0] = attribute[slot];
+        copy.background[0] = background[slot];
+        copy.foreground[0] = foreground[slot];
+        copy.highlighting[0] = highlighting[slot];
+        copy.outlining[0] = outlining[slot];
+        return copy;
+    }
+}
@@ -0,0 +1,576 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.term.i3270;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import com.ascert.open.term.core.RWTelnet;
+
+/**
+ * Telnet handling for 3270 sessions, adding TN3270E (RFC 2355) to plain TN3270. When the host offers TN3270E the device type, and
+ * optionally a specific device (LU) name, are negotiated followed by the BIND-IMAGE, RESPONSES and SYSREQ functions. If the host doesn't
+ * offer TN3270E, or rejects the device requested, the session carries on as plain TN3270.
+ *
+ * Once in TN3270E mode every record has a 5 byte header - data type, request flag, response flag and a 2 byte sequence number. The
+ * header is decoded once per record and the data passed on from where it sits in the telnet buffer, without being copied. 3270 data goes
+ * to the parser, with a response sent back if the host asked for one. SSCP-LU data is displayed as plain text, and BIND/UNBIND images
+ * are tracked. Records sent to the host get a 3270-DATA or SSCP-LU-DATA header as appropriate.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class Tn3270ETelnet extends RWTelnet
+{
+
+    //////////////////////////////////////////////////
+    // STATIC VARIABLES
+    //////////////////////////////////////////////////
+    private static final Logger log = Logger.getLogger(Tn3270ETelnet.class.getName());
+
+    /*             TN3270E sub-negotiation codes        */
+    public static final short TN3270E_ASSOCIATE = 0;
+    public static final short TN3270E_CONNECT = 1;
+    public static final short TN3270E_DEVICE_TYPE = 2;
+    public static final short TN3270E_FUNCTIONS = 3;
+    public static final short TN3270E_IS = 4;
+    public static final short TN3270E_REASON = 5;
+    public static final short TN3270E_REJECT = 6;
+    public static final short TN3270E_REQUEST = 7;
+    public static final short TN3270E_SEND = 8;
+
+    /*             TN3270E functions                    */
+    public static final short FUNC_BIND_IMAGE = 0;
+    public static final short FUNC_DATA_STREAM_CTL = 1;
+    public static final short FUNC_RESPONSES = 2;
+    public static final short FUNC_SCS_CTL_CODES = 3;
+    public static final short FUNC_SYSREQ = 4;
+
+    /*             TN3270E header data types            */
+    public static final int DT_3270_DATA = 0x00;
+    public static final int DT_SCS_DATA = 0x01;
+    public static final int DT_RESPONSE = 0x02;
+    public static final int DT_BIND_IMAGE = 0x03;
+    public static final int DT_UNBIND = 0x04;
+    public static final int DT_NVT_DATA = 0x05;
+    public static final int DT_REQUEST = 0x06;
+    public static final int DT_SSCP_LU_DATA = 0x07;
+    public static final int DT_PRINT_EOJ = 0x08;
+
+    /*             TN3270E header response flags        */
+    public static final int RSF_NO_RESPONSE = 0x00;
+    public static final int RSF_ERROR_RESPONSE = 0x01;
+    public static final int RSF_ALWAYS_RESPONSE = 0x02;
+    public static final int RSF_POSITIVE_RESPONSE = 0x00;
+    public static final int RSF_NEGATIVE_RESPONSE = 0x01;
+
+    /*             TN3270E response data                */
+    public static final int POS_DEVICE_END = 0x00;
+    public static final int NEG_COMMAND_REJECT = 0x00;
+    public static final int NEG_OPERATION_CHECK = 0x02;
+
+    public static final int HEADER_LEN = 5;
+
+    // Functions we ask for, as a bit mask by function code
+    private static final int REQUESTED_FUNCTIONS = (1 << FUNC_BIND_IMAGE) | (1 << FUNC_RESPONSES) | (1 << FUNC_SYSREQ);
+
+    //////////////////////////////////////////////////
+    // INSTANCE VARIABLES
+    //////////////////////////////////////////////////
+    private final Tn3270StreamParser parser;
+
+    // Device (LU) name to ask for, and the one the host actually connected us to
+    private String requestedDeviceName;
+    private volatile String deviceName;
+
+    private volatile boolean tn3270e;
+    private volatile boolean sscpLu;
+    private volatile boolean bound;
+    private volatile byte[] bindImage;
+    private int functions;
+    private int sendSeq;
+
+    // Re-used for outbound record headers, worst case every byte is an IAC which has to be doubled
+    private final byte[] header = new byte[HEADER_LEN * 2];
+    private final byte[] response = new byte[(HEADER_LEN * 2) + 3];
+
+    //////////////////////////////////////////////////
+    // CONSTRUCTORS
+    //////////////////////////////////////////////////
+    public Tn3270ETelnet(Tn3270StreamParser parser)
+    {
+        super(parser, new Short[]
+          {
+              OPT_TERMINAL_TYPE
+        }, new Short[]
+          {
+              OPT_BINARY, OPT_EOR, OPT_TN3270E
+        }, false);
+        this.parser = parser;
+    }
+
+    //////////////////////////////////////////////////
+    // ACCESSOR METHODS
+    //////////////////////////////////////////////////
+    /**
+     * @return device (LU) name to request on the next connect, or <code>null</code> for any the host cares to give us
+     */
+    public String getRequestedDeviceName()
+    {
+        return requestedDeviceName;
+    }
+
+    public void setRequestedDeviceName(String requestedDeviceName)
+    {
+        this.requestedDeviceName = (requestedDeviceName != null && !requestedDeviceName.trim().isEmpty())
+                                   ? requestedDeviceName.trim() : null;
+    }
+
+    /**
+     * @return device (LU) name the host connected the session to during TN3270E negotiation, or <code>null</code>
+     */
+    public String getDeviceName()
+    {
+        return deviceName;
+    }
+
+    /**
+     * @return <code>true</code> once TN3270E device type and functions have been agreed
+     */
+    public boolean isTn3270e()
+    {
+        return tn3270e;
+    }
+
+    /**
+     * @return <code>true</code> if the host is currently sending SSCP-LU data, rather than LU-LU session 3270 data
+     */
+    public boolean isSscpLu()
+    {
+        return sscpLu;
+    }
+
+    public boolean isBound()
+    {
+        return bound;
+    }
+
+    /**
+     * @return copy of the BIND image from the host, or <code>null</code> if not bound
+     */
+    public byte[] getBindImage()
+    {
+        byte[] bind = bindImage;
+        return (bind != null) ? bind.clone() : null;
+    }
+
+    public boolean isFunction(short function)
+    {
+        return tn3270e && (functions & (1 << function)) != 0;
+    }
+
+    //////////////////////////////////////////////////
+    // PUBLIC INSTANCE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * TN3270E records are always framed with IAC EOR, and binary, without either option needing to be negotiated.
+     */
+    @Override
+    public boolean using(short opt)
+    {
+        return super.using(opt) || (tn3270e && (opt == OPT_EOR || opt == OPT_BINARY));
+    }
+
+    /**
+     * Adds the TN3270E header, when in TN3270E mode. Header and data go out in a single write, and nothing else can be sent in between.
+     */
+    @Override
+    public synchronized void sendData(byte[] out, int outLen) throws IOException
+    {
+        if (!tn3270e)
+        {
+            super.sendData(out, outLen);
+            return;
+        }
+
+        int hdrLen = putHeader(header, 0, sscpLu ? DT_SSCP_LU_DATA : DT_3270_DATA, RSF_NO_RESPONSE, nextSeq());
+        beginBatch();
+        try
+        {
+            send(header, 0, hdrLen);
+            super.sendData(out, outLen);
+        }
+        finally
+        {
+            endBatch();
+        }
+    }
+
+    /**
+     * Asks the host to switch between the SSCP-LU and LU-LU sessions, for the SYSREQ key.
+     *
+     * @return <code>false</code> if not possible because the TN3270E SYSREQ function isn't in use, in which case SYSREQ should be sent
+     *         to the host as an AID
+     */
+    public boolean sysReq() throws IOException
+    {
+        if (!isFunction(FUNC_SYSREQ))
+        {
+            return false;
+        }
+
+        log.fine("sending SYSREQ");
+        send(new byte[]
+        {
+            (byte) IAC, (byte) AO
+        }, 0, 2);
+        return true;
+    }
+
+    @Override
+    public void handleSubOptions() throws IOException
+    {
+        if (subOptionBuffer[0] != OPT_TN3270E)
+        {
+            super.handleSubOptions();
+            return;
+        }
+
+        // Last byte buffered is the IAC of the closing IAC SE
+        int len = subOptionBufferLen - 1;
+        log.finer("> received TN3270E SUB OPTS : " + decodeSubOpts(subOptionBuffer, len));
+
+        if (len < 3)
+        {
+            log.warning("TN3270E sub-negotiation too short: " + len);
+            return;
+        }
+
+        switch (subOptionBuffer[1])
+        {
+            case TN3270E_SEND:
+                if (subOptionBuffer[2] == TN3270E_DEVICE_TYPE)
+                {
+                    // Start of, or re-start of, negotiation
+                    resetState();
+                    sendDeviceTypeRequest();
+                }
+                break;
+
+            case TN3270E_DEVICE_TYPE:
+                handleDeviceType(len);
+                break;
+
+            case TN3270E_FUNCTIONS:
+                handleFunctions(len);
+                break;
+
+            default:
+                log.warning("Unexpected TN3270E sub-negotiation: " + subOptionBuffer[1]);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // PROTECTED INSTANCE METHODS
+    //////////////////////////////////////////////////
+    @Override
+    protected void connect(String host, int port)
+        throws UnknownHostException, IOException
+    {
+        resetState();
+        super.connect(host, port);
+    }
+
+    @Override
+    protected void connect(InputStream is, OutputStream os)
+    {
+        resetState();
+        super.connect(is, os);
+    }
+
+    /**
+     * Decodes the TN3270E header, and routes the data following it in place.
+     */
+    @Override
+    protected void processTermBuffer() throws IOException
+    {
+        if (!tn3270e)
+        {
+            super.processTermBuffer();
+            return;
+        }
+
+        int len = bufferTermLen;
+        bufferTermLen = 0;
+        if (len < HEADER_LEN)
+        {
+            log.warning("TN3270E record too short: " + len);
+            return;
+        }
+
+        int dataType = Byte.toUnsignedInt(bufferTerm[0]);
+        int responseFlag = Byte.toUnsignedInt(bufferTerm[2]);
+        int seq = (Byte.toUnsignedInt(bufferTerm[3]) << 8) | Byte.toUnsignedInt(bufferTerm[4]);
+
+        switch (dataType)
+        {
+            case DT_3270_DATA:
+                sscpLu = false;
+                parse3270Data(len - HEADER_LEN, responseFlag, seq);
+                break;
+
+            case DT_SSCP_LU_DATA:
+                sscpLu = true;
+                parser.parseSscpLuData(bufferTerm, HEADER_LEN, len - HEADER_LEN);
+                break;
+
+            case DT_BIND_IMAGE:
+                log.fine("BIND received");
+                bindImage = Arrays.copyOfRange(bufferTerm, HEADER_LEN, len);
+                bound = true;
+                sscpLu = false;
+                break;
+
+            case DT_UNBIND:
+                log.fine("UNBIND received");
+                bindImage = null;
+                bound = false;
+                break;
+
+            default:
+                // SCS, NVT and printer related data aren't applicable to a display session
+                log.fine("ignoring TN3270E data type: " + dataType);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE INSTANCE METHODS
+    //////////////////////////////////////////////////
+    private void parse3270Data(int len, int responseFlag, int seq) throws IOException
+    {
+        boolean responses = isFunction(FUNC_RESPONSES) && responseFlag != RSF_NO_RESPONSE;
+
+        try
+        {
+            parser.parse(bufferTerm, HEADER_LEN, len);
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            if (!responses)
+            {
+                throw ex;
+            }
+            // Host can tell the application, so no need to drop the session as we otherwise would
+            log.warning("negative response for bad 3270 data: " + ex);
+            sendResponse(seq, false, (ex instanceof IOException) ? NEG_COMMAND_REJECT : NEG_OPERATION_CHECK);
+            return;
+        }
+
+        if (responses && responseFlag == RSF_ALWAYS_RESPONSE)
+        {
+            sendResponse(seq, true, POS_DEVICE_END);
+        }
+    }
+
+    private synchronized void sendResponse(int seq, boolean positive, int code) throws IOException
+    {
+        int len = putHeader(response, 0, DT_RESPONSE, positive ? RSF_POSITIVE_RESPONSE : RSF_NEGATIVE_RESPONSE, seq);
+        response[len++] = (byte) code;
+        response[len++] = (byte) IAC;
+        response[len++] = (byte) EOR;
+        send(response, 0, len);
+    }
+
+    /**
+     * Puts a header for an outbound record, with any IAC bytes in it doubled.
+     *
+     * @return the updated position
+     */
+    private static int putHeader(byte[] buf, int pos, int dataType, int responseFlag, int seq)
+    {
+        buf[pos++] = (byte) dataType;
+        buf[pos++] = 0;
+        buf[pos++] = (byte) responseFlag;
+        pos = putEscaped(buf, pos, seq >> 8);
+        return putEscaped(buf, pos, seq);
+    }
+
+    private static int putEscaped(byte[] buf, int pos, int b)
+    {
+        buf[pos++] = (byte) b;
+        if ((b & 0xFF) == IAC)
+        {
+            buf[pos++] = (byte) IAC;
+        }
+        return pos;
+    }
+
+    private int nextSeq()
+    {
+        // Sequence numbers only mean anything to the host when responses are in use
+        if (!isFunction(FUNC_RESPONSES))
+        {
+            return 0;
+        }
+        int seq = sendSeq;
+        sendSeq = (sendSeq + 1) & 0xFFFF;
+        return seq;
+    }
+
+    private void resetState()
+    {
+        tn3270e = false;
+        sscpLu = false;
+        bound = false;
+        bindImage = null;
+        deviceName = null;
+        functions = 0;
+        sendSeq = 0;
+    }
+
+    private void sendDeviceTypeRequest() throws IOException
+    {
+        String type = parser.getTermType();
+        int len = 3 + type.length() + ((requestedDeviceName != null) ? 1 + requestedDeviceName.length() : 0);
+        short[] opts = new short[len];
+
+        int ix = 0;
+        opts[ix++] = OPT_TN3270E;
+        opts[ix++] = TN3270E_DEVICE_TYPE;
+        opts[ix++] = TN3270E_REQUEST;
+        ix = putAscii(opts, ix, type);
+        if (requestedDeviceName != null)
+        {
+            opts[ix++] = TN3270E_CONNECT;
+            putAscii(opts, ix, requestedDeviceName);
+        }
+
+        log.fine("requesting TN3270E device type: " + type + ((requestedDeviceName != null) ? " " + requestedDeviceName : ""));
+        sendTnSubOpts(opts);
+    }
+
+    private void handleDeviceType(int len) throws IOException
+    {
+        switch (subOptionBuffer[2])
+        {
+            case TN3270E_IS:
+                int ix = 3;
+                StringBuilder type = new StringBuilder();
+                while (ix < len && subOptionBuffer[ix] != TN3270E_CONNECT)
+                {
+                    type.append((char) subOptionBuffer[ix++]);
+                }
+
+                StringBuilder name = new StringBuilder();
+                for (ix++; ix < len; ix++)
+                {
+                    name.append((char) subOptionBuffer[ix]);
+                }
+
+                deviceName = (name.length() > 0) ? name.toString() : null;
+                log.fine("TN3270E device type: " + type + ", device name: " + deviceName);
+                sendFunctions(TN3270E_REQUEST, REQUESTED_FUNCTIONS);
+                break;
+
+            case TN3270E_REJECT:
+                int reason = (len > 4 && subOptionBuffer[3] == TN3270E_REASON) ? subOptionBuffer[4] : -1;
+                log.warning(String.format("TN3270E device type %s%s rejected, reason %d - falling back to TN3270", parser.getTermType(),
+                                          (requestedDeviceName != null) ? " " + requestedDeviceName : "", reason));
+                sendTnCommand(WONT, OPT_TN3270E);
+                break;
+
+            default:
+                log.warning("Unexpected TN3270E device type sub-negotiation: " + subOptionBuffer[2]);
+        }
+    }
+
+    private void handleFunctions(int len) throws IOException
+    {
+        int listed = 0;
+        for (int ix = 3; ix < len; ix++)
+        {
+            if (subOptionBuffer[ix] < 32)
+            {
+                listed |= 1 << subOptionBuffer[ix];
+            }
+        }
+
+        switch (subOptionBuffer[2])
+        {
+            case TN3270E_IS:
+                // Host has agreed, which should only ever be some or all of what we asked for
+                startTn3270e(listed & REQUESTED_FUNCTIONS);
+                break;
+
+            case TN3270E_REQUEST:
+                // Host would rather use a different set, agree to as much of it as we can
+                int agreed = listed & REQUESTED_FUNCTIONS;
+                if (agreed == listed)
+                {
+                    sendFunctions(TN3270E_IS, agreed);
+                    startTn3270e(agreed);
+                }
+                else
+                {
+                    sendFunctions(TN3270E_REQUEST, agreed);
+                }
+                break;
+
+            default:
+                log.warning("Unexpected TN3270E functions sub-negotiation: " + subOptionBuffer[2]);
+        }
+    }
+
+    private void sendFunctions(short cmd, int functionMask) throws IOException
+    {
+        short[] opts = new short[3 + Integer.bitCount(functionMask)];
+        int ix = 0;
+        opts[ix++] = OPT_TN3270E;
+        opts[ix++] = TN3270E_FUNCTIONS;
+        opts[ix++] = cmd;
+        for (short fn = 0; fn < 32; fn++)
+        {
+            if ((functionMask & (1 << fn)) != 0)
+            {
+                opts[ix++] = fn;
+            }
+        }
+        sendTnSubOpts(opts);
+    }
+
+    private void startTn3270e(int agreedFunctions)
+    {
+        functions = agreedFunctions;
+        tn3270e = true;
+        log.fine(String.format("TN3270E mode, functions: 0x%x", functions));
+    }
+
+    private static int putAscii(short[] opts, int ix, String str)
+    {
+        for (int i = 0; i < str.length(); i++)
+        {
+            opts[ix++] = (short) (str.charAt(i) & 0xFF);
+        }
+        return ix;
+    }
+}
@@ -29,7 +29,6 @@ package com.ascert.open.term.i3270;
 
 import java.io.IOException;
 
-import java.util.Enumeration;
 import java.util.Vector;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -225,6 +224,11 @@ public class Tn3270StreamParser implements TnStreamParser
      */
     public final static short ORDER_GE = 0x08;
 
+    /**
+     * New Line, the only control character acted on in SSCP-LU data
+     */
+    public final static short SSCP_NL = 0x15;
+
     /**
      * *****************************************************************
      */
@@ -293,14 +297,20 @@ public class Tn3270StreamParser implements TnStreamParser
     private RWTelnet tn;
     private Vector fields = new Vector();
     private int counter;
-    private short[] dataIn;
+    private byte[] dataIn;
+    private int dataInOff;
     private int dataInLen;
+    private short command;
     private boolean lastWasCommand;
     private boolean newSACommand;
     private int bufferAddr;
     private short foreground = Term3270Char.FGCOLOR_DEFAULT;
     private short background = Term3270Char.BGCOLOR_DEFAULT;
     private short highlight = Term3270Char.HL_NORMAL;
+    // Re-used for inbound data streams (read buffer/modified), so key presses don't create garbage
+    private byte[] dataOut = new byte[0];
+    // Where SSCP-LU data from the host ended, input from there on is what gets sent back
+    private int sscpStart;
 
     public Tn3270StreamParser(Term3270 rw)
     {
@@ -308,21 +318,62 @@ public class Tn3270StreamParser implements TnStreamParser
     }
 
     /**
-     * This method takes an input buffer and executes the appropriate tn3270 commands and orders.
+     * Compatibility entry point for callers still holding widened data. Narrows to bytes and uses the byte-native path below.
+     */
+    @Override
+    public void parse(short[] inBuf, int inBufLen)
+        throws IOException
+    {
+        parse(RWTelnet.shortArrayToByte(inBuf, 0, inBufLen), inBufLen);
+    }
+
+    /**
+     * This method takes an input buffer and executes the appropriate tn3270 commands and orders. The buffer is only read and never
+     * modified, so callers are free to re-use it once this returns.
      */
     @Override
-    public synchronized void parse(short[] inBuf, int inBufLen)
+    public void parse(byte[] inBuf, int inBufLen)
+        throws IOException
+    {
+        parse(inBuf, 0, inBufLen);
+    }
+
+    /**
+     * Parses a data stream which starts part way into the buffer, without copying it out, e.g. the data following a TN3270E header.
+     */
+    @Override
+    public void parse(byte[] inBuf, int offset, int inBufLen)
+        throws IOException
+    {
+        // Screen readers close change generations under the terminal lock, so it's held for the whole record or changes stamped part
+        // way through could be missed. The terminal lock is always taken before the parser's own.
+        synchronized (rw.getLockObject())
+        {
+            parseRecord(inBuf, offset, inBufLen);
+        }
+        rw.resumeParentThread();
+    }
+
+    /**
+     * Unsigned read of the current data stream at the given index.
+     */
+    private short in(int ix)
+    {
+        return (short) Byte.toUnsignedInt(dataIn[dataInOff + ix]);
+    }
+
+    private synchronized void parseRecord(byte[] inBuf, int offset, int inBufLen)
         throws IOException
     {
         if (log.isLoggable(Level.FINEST))
         {
             StringBuffer inBufStr = new StringBuffer("parsing buffer: ");
 
-            for (int i = 0; i < inBufLen; i++)
+            for (int i = offset; i < offset + inBufLen; i++)
             {
                 // prepending the hex digit with 0x prefix for
                 // convenience of putting dumped data into tests
-                inBufStr.append("0x").append(Integer.toHexString(inBuf[i]))
+                inBufStr.append("0x").append(Integer.toHexString(Byte.toUnsignedInt(inBuf[i])))
                     .append(", ");
             }
 
@@ -337,47 +388,17 @@ public class Tn3270StreamParser implements TnStreamParser
 
         fields = rw.getFields();
         chars = (Term3270Char[]) rw.getCharBuffer();
+        // Each host record gets its own change generation, so consumers can pick out just what it modified
+        rw.getActivePage().nextChangeGeneration();
         dataIn = inBuf;
+        dataInOff = offset;
         dataInLen = inBufLen;
 
         //is the first byte an EBCDIC cmd, if so convert it
-        switch (dataIn[0])
-        {
-            case CMD_W_EBCDIC:
-                dataIn[0] = CMD_W;
-                break;
-
-            case CMD_EW_EBCDIC:
-                dataIn[0] = CMD_EW;
-                break;
-
-            case CMD_EWA_EBCDIC:
-                dataIn[0] = CMD_EWA;
-                break;
-
-            case CMD_EAU_EBCDIC:
-                dataIn[0] = CMD_EAU;
-                break;
-
-            case CMD_WSF_EBCDIC:
-                dataIn[0] = CMD_WSF;
-                break;
-
-            case CMD_RB_EBCDIC:
-                dataIn[0] = CMD_RB;
-                break;
-
-            case CMD_RM_EBCDIC:
-                dataIn[0] = CMD_RM;
-                break;
-
-            case CMD_RMA_EBCDIC:
-                dataIn[0] = CMD_RMA;
-                break;
-        }
+        command = toCommand(in(0));
 
         //now let's send the commands off to their appropriate methods:
-        switch (dataIn[0])
+        switch (command)
         {
             case CMD_W:
             case CMD_EW:
@@ -393,7 +414,7 @@ public class Tn3270StreamParser implements TnStreamParser
             case CMD_WSF:
                 lastWasCommand = true;
                 log.finer("WSF");
-                writeStructuredField(dataIn);
+                writeStructuredField(dataIn, dataInOff, dataInLen);
                 break;
 
             case CMD_RB:
@@ -417,8 +438,34 @@ public class Tn3270StreamParser implements TnStreamParser
             default:
                 throw new IOException("Invalid 3270 Command");
         }
+    }
 
-        rw.resumeParentThread();
+    /**
+     * Converts EBCDIC command codes to their local equivalents, anything else is returned unchanged.
+     */
+    private static short toCommand(int cmd)
+    {
+        switch (cmd)
+        {
+            case CMD_W_EBCDIC:
+                return CMD_W;
+            case CMD_EW_EBCDIC:
+                return CMD_EW;
+            case CMD_EWA_EBCDIC:
+                return CMD_EWA;
+            case CMD_EAU_EBCDIC:
+                return CMD_EAU;
+            case CMD_WSF_EBCDIC:
+                return CMD_WSF;
+            case CMD_RB_EBCDIC:
+                return CMD_RB;
+            case CMD_RM_EBCDIC:
+                return CMD_RM;
+            case CMD_RMA_EBCDIC:
+                return CMD_RMA;
+            default:
+                return (short) cmd;
+        }
     }
 
     /**
@@ -463,7 +510,7 @@ public class Tn3270StreamParser implements TnStreamParser
      */
     private synchronized void writeOperation()
     {
-        if (dataIn[0] == CMD_EAU)
+        if (command == CMD_EAU)
         {
             log.fine("erase all unprotected");
             eraseAllUnprotected();
@@ -471,7 +518,7 @@ public class Tn3270StreamParser implements TnStreamParser
         }
 
         //now let's check the WCC for bit 0
-        if ((dataIn[1] & 0x01) != 0)
+        if ((in(1) & 0x01) != 0)
         {
             //Bit 7 is set to 1, reset all modified bits
             log.fine("reset MDT");
@@ -479,7 +526,7 @@ public class Tn3270StreamParser implements TnStreamParser
             lastWasCommand = true;
         }
 
-        switch (dataIn[0])
+        switch (command)
         {
             case CMD_EW:
             case CMD_EWA:
@@ -496,13 +543,13 @@ public class Tn3270StreamParser implements TnStreamParser
         }
 
         //check the post-operation functions in the WCC
-        if ((dataIn[1] & 0x04) != 0)
+        if ((in(1) & 0x04) != 0)
         {
             //Bit 5 is set to 1
             beep();
         }
 
-        if ((dataIn[1] & 0x02) != 0)
+        if ((in(1) & 0x02) != 0)
         {
             //Bit 2 is set to 1
             rw.setKeyboardLocked(false);
@@ -524,7 +571,7 @@ public class Tn3270StreamParser implements TnStreamParser
         //System.out.println(dataInLen);
         for (counter = 2; counter < dataInLen; counter++)
         {
-            switch (dataIn[counter])
+            switch (in(counter))
             {
                 case ORDER_SF:
                     //System.err.println("SF: " + bufferAddr + " ");
@@ -591,7 +638,7 @@ public class Tn3270StreamParser implements TnStreamParser
                 default:
                     Term3270Char currChar = chars[bufferAddr++];
                     currChar.clear();
-                    currChar.setChar((char) ebc2asc[dataIn[counter]]);
+                    currChar.setChar((char) ebc2asc[in(counter)]);
 
                     //System.out.print(currChar.getChar());
                     if (newSACommand)
@@ -712,7 +759,7 @@ public class Tn3270StreamParser implements TnStreamParser
      * <LI>How many colors we support</LI>
      * <LI>Do we handle outlining</LI>
      */
-    private synchronized void writeStructuredField(short[] buf)
+    private synchronized void writeStructuredField(byte[] buf, int bufOff, int buflen)
     {
         log.finer("Write Structured Field...");
 
@@ -723,11 +770,8 @@ public class Tn3270StreamParser implements TnStreamParser
         int pid;
         int sfid;
         int type;
-        int buflen;
-        int i;
         int n;
-        buflen = buf.length;
-        offset = 1;
+        offset = bufOff + 1;
         nleft = buflen - 1;
 
         while (nleft > 0)
@@ -739,8 +783,8 @@ public class Tn3270StreamParser implements TnStreamParser
                 //WSF too small
             }
 
-            length = (buf[offset] << 8) + buf[offset + 1];
-            sfid = buf[offset + 2];
+            length = (Byte.toUnsignedInt(buf[offset]) << 8) + Byte.toUnsignedInt(buf[offset + 1]);
+            sfid = Byte.toUnsignedInt(buf[offset + 2]);
 
             switch (sfid)
             {
@@ -756,8 +800,8 @@ public class Tn3270StreamParser implements TnStreamParser
                         //WSF-RP too small
                     }
 
-                    pid = buf[offset + 3];
-                    type = buf[offset + 4];
+                    pid = Byte.toUnsignedInt(buf[offset + 3]);
+                    type = Byte.toUnsignedInt(buf[offset + 4]);
                     /* Check to see if it is a Query 0x02 */
                     switch (type)
                     {
@@ -782,7 +826,7 @@ public class Tn3270StreamParser implements TnStreamParser
                             {
                                 return;
                             }
-                            switch (buf[offset + 5])
+                            switch (Byte.toUnsignedInt(buf[offset + 5]))
                             {
                                 case SF_RPQ_LIST:
                                     log.fine("List");
@@ -822,8 +866,8 @@ public class Tn3270StreamParser implements TnStreamParser
                         //WSF-OBDS too small
                     }
 
-                    pid = buf[offset + 3];
-                    cmnd = buf[offset + 4];
+                    pid = Byte.toUnsignedInt(buf[offset + 3]);
+                    cmnd = Byte.toUnsignedInt(buf[offset + 4]);
 
                     if (pid != 0x00)
                     {
@@ -838,13 +882,12 @@ public class Tn3270StreamParser implements TnStreamParser
                         case CMD_EW_EBCDIC:
                         case CMD_EWA_EBCDIC:
                         case CMD_EAU_EBCDIC:
+                            // Write straight from the structured field, no need to copy it out
                             n = length - 4;
-                            dataIn = new short[n];
-
-                            for (i = 0; i < n; ++i)
-                            {
-                                dataIn[i] = buf[i + 4];
-                            }
+                            dataIn = buf;
+                            dataInOff = offset + 4;
+                            dataInLen = n;
+                            command = toCommand(cmnd);
 
                             writeOperation();
 
@@ -897,15 +940,14 @@ public class Tn3270StreamParser implements TnStreamParser
      */
     private synchronized void readBuffer()
     {
+        byte[] dataOut = getDataOut();
         int byteCount = 0;
-        short[] dataOut = new short[((chars.length) * 2) + 40];
 
         //get the current AID
-        dataOut[byteCount++] = rw.getAIDValue();
+        dataOut[byteCount++] = (byte) rw.getAIDValue();
 
         //convert the current cursor position to 14-bit addressing
-        dataOut[byteCount++] = addrTable[(rw.getCursorPosition() >> 6) & 0x3F];
-        dataOut[byteCount++] = addrTable[rw.getCursorPosition() & 0x3F];
+        byteCount = putAddress(dataOut, byteCount, rw.getCursorPosition());
 
         //iterate through the screen buffer, if a position
         //contains an FA send it instead of the character.
@@ -915,12 +957,12 @@ public class Tn3270StreamParser implements TnStreamParser
 
             if (currChar.isStartField())
             {
-                dataOut[byteCount++] = ORDER_SF;
-                dataOut[byteCount++] = currChar.getFieldAttribute();
+                dataOut[byteCount++] = (byte) ORDER_SF;
+                dataOut[byteCount++] = (byte) currChar.getFieldAttribute();
             }
             else
             {
-                dataOut[byteCount++] = (short) asc2ebc[currChar.getChar()];
+                dataOut[byteCount++] = (byte) asc2ebc[currChar.getChar()];
             }
         }
 
@@ -953,11 +995,17 @@ public class Tn3270StreamParser implements TnStreamParser
      */
     protected synchronized void readModified()
     {
+        if (rw.isSscpLu())
+        {
+            readSscpLu();
+            return;
+        }
+
         rw.setKeyboardLocked(true);
 
+        byte[] dataOut = getDataOut();
         int byteCount = 0;
-        short[] dataOut = new short[(chars.length * 2) + 40];
-        dataOut[byteCount++] = rw.getAIDValue();
+        dataOut[byteCount++] = (byte) rw.getAIDValue();
 
         switch (rw.getAIDEnum())
         {
@@ -977,8 +1025,7 @@ public class Tn3270StreamParser implements TnStreamParser
         }
 
         //cursor position
-        dataOut[byteCount++] = addrTable[(rw.getCursorPosition() >> 6) & 0x3F];
-        dataOut[byteCount++] = addrTable[rw.getCursorPosition() & 0x3F];
+        byteCount = putAddress(dataOut, byteCount, rw.getCursorPosition());
 
         //are there any fields? (formatted/unformatted)
         if (fields.size() == 0)
@@ -989,7 +1036,7 @@ public class Tn3270StreamParser implements TnStreamParser
 
                 if (currChar.getChar() != 0) //null suppression
                 {
-                    dataOut[byteCount++] = (short) asc2ebc[currChar.getChar()];
+                    dataOut[byteCount++] = (byte) asc2ebc[currChar.getChar()];
                 }
             }
 
@@ -1006,35 +1053,27 @@ public class Tn3270StreamParser implements TnStreamParser
             return;
         }
 
-        //get an enumeration of the current fields
-        Enumeration e = fields.elements();
-
-        //iterate through the fields, checking for modification
-        while (e.hasMoreElements())
+        //iterate through the fields, checking for modification. Indexed rather than enumerated, and the field's characters read
+        //straight from the buffer rather than via getChars(), to avoid garbage
+        for (int fx = 0; fx < fields.size(); fx++)
         {
-            Term3270Field f = (Term3270Field) e.nextElement();
+            Term3270Field f = (Term3270Field) fields.elementAt(fx);
 
             if (f.isModified())
             {
-                //field has been modified... get characters stored in the
-                //field.
-                TermChar[] fieldChars = f.getChars();
-
                 //send an SBA on the beginning of this field + 1
                 //(ignore the field attribute)
-                dataOut[byteCount++] = ORDER_SBA;
-                dataOut[byteCount++] = addrTable[((f.getBeginBA() + 1) >> 6)
-                                                     & 0x3F];
-                dataOut[byteCount++] = addrTable[(f.getBeginBA() + 1) & 0x3F];
+                dataOut[byteCount++] = (byte) ORDER_SBA;
+                byteCount = putAddress(dataOut, byteCount, f.getBeginBA() + 1);
 
-                //put the characters in the output buffer
-                for (int i = 1; i < fieldChars.length; i++)
+                //put the characters in the output buffer, allowing for the field wrapping round the end of the buffer
+                int end = (f.getEndBA() < f.getBeginBA()) ? f.getEndBA() + chars.length : f.getEndBA();
+                for (int i = f.getBeginBA() + 1; i <= end; i++)
                 {
-                    if (fieldChars[i].getChar() != 0) //null suppression
+                    char ch = chars[(i < chars.length) ? i : i - chars.length].getChar();
+                    if (ch != 0) //null suppression
                     {
-                        dataOut[byteCount++] = (short) asc2ebc[fieldChars[i].getChar()];
-
-                        //System.out.print("Hey..." + fieldChars.length + fieldChars[i].getChar());
+                        dataOut[byteCount++] = (byte) asc2ebc[ch];
                     }
                 }
             }
@@ -1051,6 +1090,64 @@ public class Tn3270StreamParser implements TnStreamParser
         }
     }
 
+    /**
+     * In an SSCP-LU session (TN3270E only), Enter sends just what was keyed in after the last SSCP message as plain text, with no AID or
+     * cursor address. Other keys are ignored.
+     */
+    private void readSscpLu()
+    {
+        if (rw.getAIDEnum() != Ohio.OHIO_AID.OHIO_AID_3270_ENTER)
+        {
+            return;
+        }
+
+        rw.setKeyboardLocked(true);
+        byte[] dataOut = getDataOut();
+        int byteCount = 0;
+
+        for (int i = sscpStart; i < chars.length; i++)
+        {
+            if (chars[i].getChar() != 0) //null suppression
+            {
+                dataOut[byteCount++] = (byte) asc2ebc[chars[i].getChar()];
+            }
+        }
+
+        try
+        {
+            rw.getTelnet().sendData(dataOut, byteCount);
+        }
+        catch (IOException ioe)
+        {
+            log.warning("exception in SSCP-LU read: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * @return buffer big enough for any inbound data stream built from the current screen, with room for the IAC EOR sendData() appends
+     */
+    private byte[] getDataOut()
+    {
+        int size = (chars.length * 2) + 40;
+        if (dataOut.length < size)
+        {
+            dataOut = new byte[size];
+        }
+        return dataOut;
+    }
+
+    /**
+     * Puts a buffer address in 12-bit form.
+     *
+     * @return the updated count
+     */
+    private static int putAddress(byte[] buf, int count, int addr)
+    {
+        buf[count++] = (byte) addrTable[(addr >> 6) & 0x3F];
+        buf[count++] = (byte) addrTable[addr & 0x3F];
+        return count;
+    }
+
     private synchronized void readModifiedAll()
     {
         readModified();
@@ -1090,8 +1187,7 @@ public class Tn3270StreamParser implements TnStreamParser
         //increment the buffer address, and clear the existing character
         chars[bufferAddr].clear();
         chars[bufferAddr].setStartField();
-        chars[bufferAddr].setFieldAttribute(dataIn[++counter]);
-        rw.setFieldsChanged(true);
+        chars[bufferAddr].setFieldAttribute(in(++counter));
 
         if (++bufferAddr == chars.length)
         {
@@ -1116,36 +1212,35 @@ public class Tn3270StreamParser implements TnStreamParser
         // define a default start field.
         chars[bufferAddr].setStartField();
         chars[bufferAddr].setFieldAttribute((short) 0x00);
-        rw.setFieldsChanged(true);
 
-        int pairs = dataIn[counter]; //get the number of attribute type pairs
+        int pairs = in(counter); //get the number of attribute type pairs
 
         for (int i = 0; i < pairs; i++)
         {
-            //System.out.println("SFE: " + Integer.toHexString(dataIn[++counter]));
-            int att = dataIn[++counter];
+            //System.out.println("SFE: " + Integer.toHexString(in(++counter)));
+            int att = in(++counter);
             counter++;
             switch (att)
             {
                 // get the next value from dataIn which will tell us what kind of attribute it is
                 case XA_SF: // same as SF command above
-                    chars[bufferAddr].setFieldAttribute(dataIn[counter]);
+                    chars[bufferAddr].setFieldAttribute(in(counter));
                     break;
 
                 case XA_VALIDATION:
-                    chars[bufferAddr].setValidation(dataIn[counter]);
+                    chars[bufferAddr].setValidation(in(counter));
                     break;
 
                 case XA_OUTLINING:
-                    chars[bufferAddr].setOutlining(dataIn[counter]);
+                    chars[bufferAddr].setOutlining(in(counter));
                     break;
 
                 case XA_HIGHLIGHTING:
-                    chars[bufferAddr].setHighlighting(dataIn[counter]);
+                    chars[bufferAddr].setHighlighting(in(counter));
                     break;
 
                 case XA_FGCOLOR:
-                    chars[bufferAddr].setForeground(dataIn[counter]);
+                    chars[bufferAddr].setForeground(in(counter));
                     break;
 
                 case XA_CHARSET:
@@ -1153,7 +1248,7 @@ public class Tn3270StreamParser implements TnStreamParser
                     break;
 
                 case XA_BGCOLOR:
-                    chars[bufferAddr].setBackground(dataIn[counter]);
+                    chars[bufferAddr].setBackground(in(counter));
                     break;
 
                 case XA_TRANSPARENCY:
@@ -1175,7 +1270,7 @@ public class Tn3270StreamParser implements TnStreamParser
      */
     private synchronized int setBufferAddress()
     {
-        return setBufferAddress(dataIn[++counter], dataIn[++counter]);
+        return setBufferAddress(in(++counter), in(++counter));
     }
 
     public static int setBufferAddress(int counter1, int counter2)
@@ -1202,8 +1297,7 @@ public class Tn3270StreamParser implements TnStreamParser
      */
     private synchronized void setAttribute()
     {
-        int att = dataIn[++counter];
-        rw.setFieldsChanged(true);
+        int att = in(++counter);
 
         counter++;
         //System.out.println("IBM SA: " + att);
@@ -1216,15 +1310,15 @@ public class Tn3270StreamParser implements TnStreamParser
                 break;
 
             case XA_HIGHLIGHTING:
-                highlight = dataIn[counter];
+                highlight = in(counter);
                 break;
 
             case XA_FGCOLOR:
-                foreground = dataIn[counter];
+                foreground = in(counter);
                 break;
 
             case XA_BGCOLOR:
-                background = dataIn[counter];
+                background = in(counter);
                 break;
         }
     }
@@ -1260,43 +1354,44 @@ public class Tn3270StreamParser implements TnStreamParser
             return;
         }
 
-        int pairs = dataIn[++counter];
+        int pairs = in(++counter);
 
         for (int i = 0; i < pairs; i++)
         {
-            //System.out.println("Attribute to modify: " + Integer.toHexString(dataIn[++counter]));
-            int att = dataIn[++counter];
+            //System.out.println("Attribute to modify: " + Integer.toHexString(in(++counter)));
+            int att = in(++counter);
             counter++;
             switch (att)
             {
                 case ORDER_SFE:
                 case ORDER_SF:
                 case XA_SF:
-                    currChar.setFieldAttribute(dataIn[counter]);
+                    currChar.setFieldAttribute(in(counter));
                     break;
 
                 case XA_VALIDATION:
-                    currChar.setValidation(dataIn[counter]);
+                    currChar.setValidation(in(counter));
                     break;
 
                 case XA_HIGHLIGHTING:
-                    currChar.setHighlighting(dataIn[counter]);
+                    currChar.setHighlighting(in(counter));
                     break;
 
                 case XA_FGCOLOR:
-                    currChar.setForeground(dataIn[counter]);
+                    currChar.setForeground(in(counter));
                     break;
 
                 case XA_BGCOLOR:
-                    currChar.setBackground(dataIn[counter]);
+                    currChar.setBackground(in(counter));
                     break;
 
                 case XA_OUTLINING:
-                    currChar.setOutlining(dataIn[counter]);
+                    currChar.setOutlining(in(counter));
                     break;
             }
         }
 
+        // Field structure is unchanged, but attribute changes are tracked so the next build picks up the effect on the chars in the field
         bufferAddr++;
     }
 
@@ -1388,7 +1483,7 @@ public class Tn3270StreamParser implements TnStreamParser
     {
         //counter++;
         int address = setBufferAddress();
-        int charIn = dataIn[++counter];
+        int charIn = in(++counter);
         char c = (char) ebc2asc[charIn];
 
         while (bufferAddr != address)
@@ -1452,7 +1547,8 @@ public class Tn3270StreamParser implements TnStreamParser
 
     private synchronized void buildFields()
     {
-        rw.buildFields(true);
+        // Only the fields touched by the write are re-scanned, unless the whole screen was erased
+        rw.buildFields(false);
     }
 
     /**
@@ -1683,9 +1779,72 @@ public class Tn3270StreamParser implements TnStreamParser
         return queryReply;
     }
 
+    /**
+     * Displays SSCP-LU data (TN3270E only). This is plain text from the SSCP, e.g. USS messages, rather than a 3270 data stream, so is
+     * written as is from the cursor onwards on an unformatted screen.
+     */
+    public void parseSscpLuData(byte[] inBuf, int offset, int len)
+    {
+        synchronized (rw.getLockObject())
+        {
+            writeSscpLuData(inBuf, offset, len);
+        }
+        rw.resumeParentThread();
+    }
+
+    private synchronized void writeSscpLuData(byte[] inBuf, int offset, int len)
+    {
+        fields = rw.getFields();
+        chars = (Term3270Char[]) rw.getCharBuffer();
+        rw.getActivePage().nextChangeGeneration();
+
+        if (fields.size() > 0)
+        {
+            // Leaving an LU-LU session, so start from a clean screen
+            for (int i = 0; i < chars.length; i++)
+            {
+                chars[i].clear();
+            }
+            rw.setCursorPosition((short) 0);
+            rw.setFieldsChanged(true);
+        }
+
+        int addr = rw.getCursorPosition();
+        for (int i = offset; i < offset + len; i++)
+        {
+            int ebc = Byte.toUnsignedInt(inBuf[i]);
+            if (ebc == SSCP_NL)
+            {
+                addr = ((addr / rw.getCols()) + 1) * rw.getCols();
+            }
+            else
+            {
+                chars[addr].clear();
+                chars[addr].setChar((char) ebc2asc[ebc]);
+                addr++;
+            }
+
+            if (addr >= chars.length)
+            {
+                addr = 0;
+            }
+        }
+
+        rw.setCursorPosition((short) addr);
+        sscpStart = addr;
+        buildFields();
+        rw.setKeyboardLocked(false);
+        rw.getClient().refresh();
+    }
+
     @Override
     public void Fkey(Ohio.OHIO_AID aid)
     {
+        // With TN3270E the SYSREQ key toggles between the SSCP-LU and LU-LU sessions rather than being sent as an AID
+        if (aid == Ohio.OHIO_AID.OHIO_AID_3270_SYSREQ && rw.sysReq())
+        {
+            return;
+        }
         readModified();
     }
 
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.core;
+
+import junit.framework.TestCase;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Checks records are passed on in order, what happens when the buffer fills up, and that close passes on everything buffered.
+ */
+public class AsyncTraceHandlerTest extends TestCase {
+    public void testOrdering() throws Exception {
+        Recorder rec = new Recorder();
+        // Small buffer, so it wraps round many times
+        AsyncTraceHandler async = new AsyncTraceHandler(rec, 8, AsyncTraceHandler.Overflow.BLOCK);
+        List<String> expected = new ArrayList<>();
+        for (int ix = 0; ix < 5000; ix++) {
+            switch (ix % 3) {
+                case 0:
+                    async.incomingData(bytes("in " + ix));
+                    expected.add("in in " + ix);
+                    break;
+                case 1:
+                    async.outgoingData(bytes("out " + ix));
+                    expected.add("out out " + ix);
+                    break;
+                default:
+                    async.traceEvent(ix, "event " + ix);
+                    expected.add("event " + ix + " @" + ix);
+                    break;
+            }
+        }
+        async.close();
+
+        assertEquals(expected, rec.received());
+        assertEquals(0, async.getDropped());
+    }
+
+    public void testDropWhenFull() throws Exception {
+        Recorder rec = new Recorder();
+        rec.hold();
+        AsyncTraceHandler async = new AsyncTraceHandler(rec, 4, AsyncTraceHandler.Overflow.DROP);
+
+        async.incomingData(bytes("0"));
+        assertTrue(rec.entered.await(5, TimeUnit.SECONDS));
+        // The record being handled keeps its slot until done, leaving room for 3 more
+        for (int ix = 1; ix <= 10; ix++) {
+            async.incomingData(bytes(String.valueOf(ix)));
+        }
+        assertEquals(7, async.getDropped());
+
+        rec.release.countDown();
+        async.close();
+        assertEquals(list("in 0", "in 1", "in 2", "in 3"), rec.received());
+    }
+
+    public void testBlockWhenFull() throws Exception {
+        Recorder rec = new Recorder();
+        rec.hold();
+        AsyncTraceHandler async = new AsyncTraceHandler(rec, 4, AsyncTraceHandler.Overflow.BLOCK);
+
+        async.incomingData(bytes("0"));
+        assertTrue(rec.entered.await(5, TimeUnit.SECONDS));
+        Thread producer = new Thread(() -> {
+            for (int ix = 1; ix <= 10; ix++) {
+                async.incomingData(bytes(String.valueOf(ix)));
+            }
+        });
+        producer.start();
+
+        // Stuck waiting for space
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        assertEquals(1, rec.received().size());
+
+        rec.release.countDown();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        async.close();
+
+        List<String> expected = new ArrayList<>();
+        for (int ix = 0; ix <= 10; ix++) {
+            expected.add("in " + ix);
+        }
+        assertEquals(expected, rec.received());
+        assertEquals(0, async.getDropped());
+    }
+
+    public void testCloseDrains() throws Exception {
+        Recorder rec = new Recorder();
+        rec.delayMillis = 1;
+        AsyncTraceHandler async = new AsyncTraceHandler(rec, 256, AsyncTraceHandler.Overflow.DROP);
+        for (int ix = 0; ix < 200; ix++) {
+            async.outgoingData(bytes(String.valueOf(ix)));
+        }
+
+        // Well behind, as each record takes a while
+        async.close();
+        assertEquals(200, rec.received().size());
+        assertEquals("out 199", rec.received().get(199));
+        assertTrue(rec.flushed > 0);
+        assertTrue(rec.closed);
+
+        // Anything after the close is dropped
+        async.incomingData(bytes("late"));
+        assertEquals(1, async.getDropped());
+        assertEquals(200, rec.received().size());
+    }
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> list(String... items) {
+        List<String> list = new ArrayList<>();
+        for (String item : items) {
+            list.add(item);
+        }
+        return list;
+    }
+
+    /**
+     * Handler keeping what it's given, which can be held up on the first record.
+     */
+    private static class Recorder implements TraceHandler, Flushable, Closeable {
+        private final List<String> received = new ArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private boolean holding;
+        volatile long delayMillis;
+        volatile int flushed;
+        volatile boolean closed;
+
+        void hold() {
+            holding = true;
+        }
+
+        synchronized List<String> received() {
+            return new ArrayList<>(received);
+        }
+
+        @Override
+        public void incomingData(byte[] data, int offset, int len) {
+            add("in " + new String(data, offset, len, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void outgoingData(byte[] data, int offset, int len) {
+            add("out " + new String(data, offset, len, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void traceEvent(long timestampMillis, String event) {
+            add(event + " @" + timestampMillis);
+        }
+
+        @Override
+        public void flush() {
+            flushed++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        private void add(String item) {
+            synchronized (this) {
+                received.add(item);
+            }
+            entered.countDown();
+            try {
+                if (holding) {
+                    release.await();
+                }
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
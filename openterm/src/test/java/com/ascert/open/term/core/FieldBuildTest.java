@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.core;
+
+import com.ascert.open.term.i3270.Term3270;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+import java.util.Vector;
+
+
+/**
+ * Checks the field list maintained incrementally from the cells changed by each write ends up the same as rebuilding it in full.
+ */
+public class FieldBuildTest extends TestCase {
+    private static final int WRITES = 9000;
+
+    public void testIncrementalMatchesFull() throws Exception {
+        for (long seed : new long[] {1, 2, 3}) {
+            compare(seed);
+        }
+    }
+
+    private static void compare(long seed) throws Exception {
+        Term3270 incremental = RandomWrites.newTerminal();
+        Term3270 full = RandomWrites.newTerminal();
+        int size = incremental.getCols() * incremental.getRows();
+        RandomWrites writes = new RandomWrites(seed, size);
+        Random rnd = new Random(seed);
+
+        for (int ix = 0; ix < WRITES; ix++) {
+            byte[] rec = writes.next();
+            incremental.getStreamParser().parse(rec, rec.length);
+            full.getStreamParser().parse(rec, rec.length);
+
+            incremental.buildFields(false);
+            full.buildFields(true);
+
+            String where = "seed " + seed + ", write " + ix;
+            assertEquals(where, describe(full.getFields()), describe(incremental.getFields()));
+            for (int pos = 0; pos < size; pos++) {
+                assertEquals(where + ", field at " + pos, fieldStart(full, pos), fieldStart(incremental, pos));
+            }
+
+            // Lookups backed by the field start index
+            int pos = rnd.nextInt(size);
+            assertEquals(where, full.getNextUnprotectedField(pos), incremental.getNextUnprotectedField(pos));
+            assertEquals(where, full.getPreviousUnprotectedField(pos), incremental.getPreviousUnprotectedField(pos));
+        }
+    }
+
+    private static String describe(Vector fields) {
+        StringBuilder buf = new StringBuilder();
+        for (Object obj : fields) {
+            TermField fld = (TermField) obj;
+            buf.append(fld.getBeginBA()).append('-').append(fld.getEndBA())
+                .append(fld.isProtected() ? " P" : " U")
+                .append(fld.isNumeric() ? "N" : "")
+                .append(fld.isModified() ? "M" : "")
+                .append(' ').append(fld.getFieldAttribute()).append('\n');
+        }
+        return buf.toString();
+    }
+
+    private static int fieldStart(Term3270 term, int pos) {
+        TermField fld = term.getChar(pos).getField();
+        return (fld != null) ? fld.getBeginBA() : -1;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.core;
+
+import com.ascert.open.term.i3270.Term3270;
+
+import junit.framework.TestCase;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Drives telnet sessions over the NIO transport against a local server socket.
+ */
+public class NioTelnetSelectorTest extends TestCase {
+    private ServerSocket server;
+    private Socket host;
+    private Term3270 term;
+    private StubTelnet telnet;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = new ServerSocket(0, 50, null);
+        term = RandomWrites.newTerminal();
+        telnet = new StubTelnet(term);
+        term.setTelnet(telnet);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        telnet.disconnect();
+        if (host != null) {
+            host.close();
+        }
+        server.close();
+    }
+
+    public void testConnect() throws Exception {
+        connect();
+        assertTrue(telnet.isConnected());
+    }
+
+    public void testFramedRead() throws Exception {
+        connect();
+        byte[] rec = RandomWrites.write(0xC2, 80, "HELLO WORLD");
+        byte[] framed = Arrays.copyOf(rec, rec.length + 2);
+        framed[rec.length] = (byte) 0xFF;
+        framed[rec.length + 1] = (byte) 0xEF;
+
+        // IAC DO EOR, IAC WILL EOR - without records ending EOR each read is taken as a whole record
+        OutputStream out = host.getOutputStream();
+        out.write(new byte[] {(byte) 0xFF, (byte) 0xFD, 0x19, (byte) 0xFF, (byte) 0xFB, 0x19});
+        out.flush();
+
+        // Record split across reads, only parsed once the IAC EOR arrives
+        out.write(framed, 0, 6);
+        out.flush();
+        Thread.sleep(100);
+        assertFalse(term.contains("HELLO"));
+
+        out.write(framed, 6, framed.length - 6);
+        out.flush();
+        assertTrue(term.waitFor(ScreenCondition.contains("HELLO WORLD"), 5000).get());
+        assertEquals(80, term.publishSnapshot().indexOf("HELLO WORLD"));
+    }
+
+    public void testQueuedPartialWrite() throws Exception {
+        connect();
+        // Far more than the socket buffers will take whilst the host isn't reading
+        byte[] data = new byte[16 * 1024 * 1024];
+        for (int ix = 0; ix < data.length; ix++) {
+            data[ix] = (byte) (ix * 31);
+        }
+        byte[] expected = data.clone();
+        telnet.send(data, 0, data.length);
+        // Callers may re-use their buffers straight away
+        Arrays.fill(data, (byte) 0);
+        telnet.send(new byte[] {1, 2, 3}, 0, 3);
+
+        byte[] received = new byte[expected.length + 3];
+        new DataInputStream(host.getInputStream()).readFully(received);
+        assertTrue(Arrays.equals(expected, Arrays.copyOf(received, expected.length)));
+        assertEquals(1, received[expected.length]);
+        assertEquals(3, received[expected.length + 2]);
+    }
+
+    public void testRemoteClose() throws Exception {
+        connect();
+        host.close();
+
+        assertTrue(telnet.closed.await(5, TimeUnit.SECONDS));
+        assertNull(telnet.closeException);
+        assertFalse(telnet.closeConnecting);
+        assertFalse(telnet.isConnected());
+
+        // Sends after the disconnect are reported rather than failing on a cleared channel
+        try {
+            telnet.send(new byte[] {1}, 0, 1);
+            fail("sent when not connected");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    public void testConnectTimeout() throws Exception {
+        // Listen queue full and never accepted, so further connects are left pending
+        server.close();
+        server = new ServerSocket(0, 1, null);
+        List<Socket> backlog = new ArrayList<>();
+        try {
+            for (int ix = 0; ix < 8; ix++) {
+                Socket sock = new Socket();
+                try {
+                    sock.connect(server.getLocalSocketAddress(), 100);
+                    backlog.add(sock);
+                } catch (SocketTimeoutException ex) {
+                    sock.close();
+                    break;
+                }
+            }
+
+            NioTelnetSelector selector = new NioTelnetSelector(1);
+            NioTelnetSelector.NioChannel channel = selector.open(telnet);
+            channel.connect((InetSocketAddress) server.getLocalSocketAddress(), 200);
+
+            assertTrue(telnet.closed.await(5, TimeUnit.SECONDS));
+            assertTrue(telnet.closeConnecting);
+            assertTrue(String.valueOf(telnet.closeException), telnet.closeException instanceof SocketTimeoutException);
+            assertFalse(channel.isConnected());
+        } finally {
+            for (Socket sock : backlog) {
+                sock.close();
+            }
+        }
+    }
+
+    public void testSendWhenNeverConnected() throws Exception {
+        try {
+            new RWTelnet(term.getStreamParser()).send(new byte[] {1}, 0, 1);
+            fail("sent when not connected");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    private void connect() throws Exception {
+        telnet.connect("localhost", server.getLocalPort());
+        host = server.accept();
+        assertTrue(telnet.connected.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * NIO telnet without the option negotiation or keep alive, noting the transport callbacks.
+     */
+    private static class StubTelnet extends RWTelnet {
+        final CountDownLatch connected = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile Exception closeException;
+        volatile boolean closeConnecting;
+
+        StubTelnet(Term3270 term) {
+            super(term.getStreamParser());
+            setNioTransport(true);
+        }
+
+        @Override
+        void nioConnected() {
+            connected.countDown();
+        }
+
+        @Override
+        void nioClosed(Exception ex, boolean connecting) {
+            closeException = ex;
+            closeConnecting = connecting;
+            super.nioClosed(ex, connecting);
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.core;
+
+import com.ascert.open.term.i3270.Term3270;
+import com.ascert.open.term.i3270.Tn3270StreamParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+
+/**
+ * Generates random 3270 write records - text, fields started on top of old ones, and cursor moves, some wrapping past the end of
+ * the screen - for tests comparing incremental screen handling with doing it all again from scratch.
+ */
+public final class RandomWrites {
+    private static final int ORDER_SBA = 0x11;
+    private static final int ORDER_SF = 0x1D;
+    private static final int ORDER_IC = 0x13;
+
+    private final Random rnd;
+    private final int size;
+
+    public RandomWrites(long seed, int size) {
+        this.rnd = new Random(seed);
+        this.size = size;
+    }
+
+    /**
+     * Terminal with its telnet output discarded, so replies to the host can be generated without a connection.
+     */
+    public static Term3270 newTerminal() {
+        Term3270 term = new Term3270("IBM-3278-2");
+        term.getTelnet().setOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        });
+        return term;
+    }
+
+    public static byte[] write(int wcc, int pos, String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(Tn3270StreamParser.CMD_W_EBCDIC);
+        out.write(wcc);
+        sba(out, pos);
+        text(out, text);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return a write with a handful of random orders, or now and then an erase/write which clears the screen first
+     */
+    public byte[] next() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(rnd.nextInt(50) == 0 ? Tn3270StreamParser.CMD_EW_EBCDIC : Tn3270StreamParser.CMD_W_EBCDIC);
+        // WCC - restore keyboard, sometimes resetting modified flags too
+        out.write(rnd.nextBoolean() ? 0xC3 : 0xC2);
+
+        int orders = 1 + rnd.nextInt(6);
+        for (int ix = 0; ix < orders; ix++) {
+            sba(out, rnd.nextInt(size));
+            switch (rnd.nextInt(5)) {
+                case 0:
+                    out.write(ORDER_SF);
+                    // Any of protected, numeric, intensity and MDT bits
+                    out.write(Tn3270StreamParser.addrTable[rnd.nextInt(64)]);
+                    break;
+
+                case 1:
+                    out.write(ORDER_IC);
+                    break;
+
+                default:
+                    StringBuilder text = new StringBuilder();
+                    int len = 1 + rnd.nextInt(rnd.nextInt(10) == 0 ? 200 : 20);
+                    for (int ch = 0; ch < len; ch++) {
+                        text.append((char) ('A' + rnd.nextInt(26)));
+                    }
+                    text(out, text.toString());
+                    break;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void sba(ByteArrayOutputStream out, int pos) {
+        out.write(ORDER_SBA);
+        out.write(Tn3270StreamParser.addrTable[(pos >> 6) & 0x3F]);
+        out.write(Tn3270StreamParser.addrTable[pos & 0x3F]);
+    }
+
+    private static void text(ByteArrayOutputStream out, String text) {
+        for (char ch : text.toCharArray()) {
+            out.write(Tn3270StreamParser.asc2ebc[ch]);
+        }
+    }
+}
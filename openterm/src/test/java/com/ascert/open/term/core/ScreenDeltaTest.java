@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.core;
+
+import com.ascert.open.term.i3270.Term3270;
+import com.ascert.open.term.i3270.Tn3270StreamParser;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Checks the deltas worked out between screen snapshots, and how they're delivered to listeners.
+ */
+public class ScreenDeltaTest extends TestCase {
+    private static final int ORDER_SBA = 0x11;
+    private static final int ORDER_SF = 0x1D;
+    private static final int ORDER_IC = 0x13;
+
+    private static final int ATTR_PROTECTED = 0x60;
+    private static final int ATTR_INPUT = 0x40;
+
+    private Term3270 term;
+
+    @Override
+    protected void setUp() throws Exception {
+        term = RandomWrites.newTerminal();
+    }
+
+    public void testSpans() throws Exception {
+        ScreenSnapshot before = term.publishSnapshot();
+        host(write(false).sba(85).text("ABC").sba(158).text("WXYZ12"));
+        ScreenSnapshot after = term.publishSnapshot();
+
+        ScreenDelta delta = ScreenDelta.between(before, after, true);
+        assertTrue(delta.isHostUpdate());
+        assertTrue(delta.isContentChanged());
+        assertFalse(delta.isCursorMoved());
+
+        // Spans never cross the end of a row
+        List<ScreenDelta.Span> spans = delta.getChangedSpans();
+        assertEquals(3, spans.size());
+        assertSpan(spans.get(0), 1, 5, 3, "ABC");
+        assertSpan(spans.get(1), 1, 78, 2, "WX");
+        assertSpan(spans.get(2), 2, 0, 4, "YZ12");
+        assertEquals(85, delta.getFirstChanged());
+        assertEquals(163, delta.getLastChanged());
+
+        // Re-writing the same text changes nothing
+        host(write(false).sba(85).text("ABC"));
+        assertTrue(ScreenDelta.between(after, term.publishSnapshot(), true).isEmpty());
+        assertTrue(ScreenDelta.between(after, after, false).isEmpty());
+    }
+
+    public void testNoPreviousSnapshot() throws Exception {
+        host(write(true).sba(0).text("X"));
+        ScreenSnapshot snap = term.publishSnapshot();
+
+        // Everything counts as changed, one span per row
+        ScreenDelta delta = ScreenDelta.between(null, snap, true);
+        assertEquals(term.getRows(), delta.getChangedSpans().size());
+        assertEquals(0, delta.getFirstChanged());
+        assertEquals(term.getRows() * term.getCols() - 1, delta.getLastChanged());
+        assertTrue(delta.isCursorMoved());
+        assertTrue(delta.getFieldsRemoved().isEmpty());
+    }
+
+    public void testFieldsAddedAndRemoved() throws Exception {
+        int size = term.getRows() * term.getCols();
+        host(write(true).sba(0).sf(ATTR_PROTECTED).text("NAME").sba(10).sf(ATTR_INPUT));
+        ScreenSnapshot form = term.publishSnapshot();
+        assertEquals(2, form.getFields().size());
+
+        // New field part way into the input field, which it cuts short
+        host(write(false).sba(40).sf(ATTR_INPUT));
+        ScreenSnapshot split = term.publishSnapshot();
+        ScreenDelta delta = ScreenDelta.between(form, split, true);
+        assertEquals(2, delta.getFieldsAdded().size());
+        assertField(delta.getFieldsAdded().get(0), 10, 30);
+        assertField(delta.getFieldsAdded().get(1), 40, size - 40);
+        assertEquals(1, delta.getFieldsRemoved().size());
+        assertField(delta.getFieldsRemoved().get(0), 10, size - 10);
+
+        // Text over the field attribute takes it away again
+        host(write(false).sba(40).text("X"));
+        delta = ScreenDelta.between(split, term.publishSnapshot(), true);
+        assertEquals(1, delta.getFieldsAdded().size());
+        assertField(delta.getFieldsAdded().get(0), 10, size - 10);
+        assertEquals(2, delta.getFieldsRemoved().size());
+    }
+
+    public void testFieldAttributeChange() throws Exception {
+        host(write(true).sba(0).sf(ATTR_PROTECTED).text("NAME").sba(10).sf(ATTR_INPUT));
+        ScreenSnapshot before = term.publishSnapshot();
+
+        // Same field, now protected
+        host(write(false).sba(10).sf(ATTR_PROTECTED));
+        ScreenDelta delta = ScreenDelta.between(before, term.publishSnapshot(), true);
+        assertEquals(1, delta.getFieldsAdded().size());
+        assertTrue(delta.getFieldsAdded().get(0).isProtected());
+        assertEquals(1, delta.getFieldsRemoved().size());
+        assertFalse(delta.getFieldsRemoved().get(0).isProtected());
+    }
+
+    public void testCursorOnly() throws Exception {
+        ScreenSnapshot before = term.publishSnapshot();
+        host(write(false).sba(500).ic());
+        ScreenDelta delta = ScreenDelta.between(before, term.publishSnapshot(), true);
+        assertTrue(delta.isCursorMoved());
+        assertFalse(delta.isContentChanged());
+        assertFalse(delta.isEmpty());
+        assertEquals(-1, delta.getFirstChanged());
+    }
+
+    public void testDispatcherMergesWhileBusy() throws Exception {
+        ScreenChangeDispatcher dispatcher = new ScreenChangeDispatcher();
+        BlockingQueue<ScreenDelta> delivered = new LinkedBlockingQueue<>();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.addListener((delta) -> {
+            delivered.add(delta);
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        ScreenSnapshot first = term.publishSnapshot();
+        dispatcher.snapshotPublished(first, false);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // Listener busy, so these all end up as one delta
+        ScreenSnapshot latest = null;
+        for (int ix = 0; ix < 10; ix++) {
+            host(write(false).sba(ix).text("Z"));
+            latest = term.publishSnapshot();
+            dispatcher.snapshotPublished(latest, ix == 5);
+        }
+        release.countDown();
+
+        ScreenDelta delta = delivered.poll(5, TimeUnit.SECONDS);
+        assertNull(delta.getBefore());
+        assertSame(first, delta.getAfter());
+
+        delta = delivered.poll(5, TimeUnit.SECONDS);
+        assertNotNull(delta);
+        assertSame(first, delta.getBefore());
+        assertSame(latest, delta.getAfter());
+        assertTrue(delta.isHostUpdate());
+        assertEquals(1, delta.getChangedSpans().size());
+        assertEquals("ZZZZZZZZZZ", delta.getChangedSpans().get(0).getText());
+
+        assertNull(delivered.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE METHODS
+    //////////////////////////////////////////////////
+    private void host(Record rec) throws Exception {
+        byte[] data = rec.out.toByteArray();
+        term.getStreamParser().parse(data, data.length);
+    }
+
+    private static Record write(boolean erase) {
+        return new Record(erase ? Tn3270StreamParser.CMD_EW_EBCDIC : Tn3270StreamParser.CMD_W_EBCDIC);
+    }
+
+    private static void assertSpan(ScreenDelta.Span span, int row, int col, int len, String text) {
+        assertEquals(row, span.getRow());
+        assertEquals(col, span.getCol());
+        assertEquals(len, span.length());
+        assertEquals(text, span.getText());
+    }
+
+    private static void assertField(ScreenSnapshot.Field fld, int begin, int size) {
+        assertEquals(begin, fld.getBeginBA());
+        assertEquals(size, fld.size());
+    }
+
+    /**
+     * Write record built up order by order.
+     */
+    private static class Record {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Record(int cmd) {
+            out.write(cmd);
+            // WCC - restore keyboard
+            out.write(0xC2);
+        }
+
+        Record sba(int pos) {
+            out.write(ORDER_SBA);
+            out.write(Tn3270StreamParser.addrTable[(pos >> 6) & 0x3F]);
+            out.write(Tn3270StreamParser.addrTable[pos & 0x3F]);
+            return this;
+        }
+
+        Record sf(int attr) {
+            out.write(ORDER_SF);
+            out.write(attr);
+            return this;
+        }
+
+        Record ic() {
+            out.write(ORDER_IC);
+            return this;
+        }
+
+        Record text(String text) {
+            for (char ch : text.toCharArray()) {
+                out.write(Tn3270StreamParser.asc2ebc[ch]);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.core;
+
+import com.ascert.open.term.i3270.Term3270;
+import com.ascert.open.term.i3270.Tn3270StreamParser;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+
+
+/**
+ * Checks screen signatures are stable, and screens are recognised by full signature or field layout as registered.
+ */
+public class ScreenRegistryTest extends TestCase {
+    private static final int ORDER_SBA = 0x11;
+    private static final int ORDER_SF = 0x1D;
+
+    private static final int ATTR_PROTECTED = 0x60;
+    private static final int ATTR_INPUT = 0x40;
+
+    public void testSignatureStable() throws Exception {
+        ScreenSnapshot logon = screen("LOGON", "");
+
+        // Same screen on another terminal
+        assertEquals(logon.getSignature(), screen("LOGON", "").getSignature());
+        assertEquals(logon.getLayoutSignature(), screen("LOGON", "").getLayoutSignature());
+
+        // Data typed into the input field doesn't make it a different screen
+        assertEquals(logon.getSignature(), screen("LOGON", "USER01").getSignature());
+
+        // Different protected text does, but the layout's the same
+        ScreenSnapshot other = screen("LOGOFF", "");
+        assertFalse(logon.getSignature() == other.getSignature());
+        assertEquals(logon.getLayoutSignature(), other.getLayoutSignature());
+
+        // Fixed values, as signatures may be kept in configuration
+        assertEquals(4888066233981782737L, logon.getSignature());
+        assertEquals(5417040118846278980L, logon.getLayoutSignature());
+    }
+
+    public void testFullSignatureBeforeLayout() throws Exception {
+        ScreenRegistry registry = new ScreenRegistry();
+        registry.registerLayout("ANY", screen("MENU 1", ""));
+        registry.register("MENU1", screen("MENU 1", ""));
+
+        assertEquals("MENU1", registry.recognise(screen("MENU 1", "X")));
+        // Protected text differs, so only the layout matches
+        assertEquals("ANY", registry.recognise(screen("MENU 2", "")));
+        assertNull(registry.recognise(unformatted("MENU 1")));
+
+        registry.unregister("ANY");
+        assertNull(registry.recognise(screen("MENU 2", "")));
+        assertEquals("MENU1", registry.recognise(screen("MENU 1", "")));
+    }
+
+    public void testLayoutOnly() throws Exception {
+        ScreenRegistry registry = new ScreenRegistry();
+        registry.registerLayout("DETAIL", screen("ACCOUNT 0001", ""));
+        assertEquals("DETAIL", registry.recognise(screen("ACCOUNT 9999", "")));
+
+        // Unformatted screens have no layout apart from their text
+        registry.registerLayout("BANNER", unformatted("WELCOME"));
+        assertEquals("BANNER", registry.recognise(unformatted("WELCOME")));
+        assertNull(registry.recognise(unformatted("GOODBYE")));
+    }
+
+    public void testRegisteringAfterMiss() throws Exception {
+        ScreenRegistry registry = new ScreenRegistry();
+        ScreenSnapshot snap = screen("LOGON", "");
+        assertNull(registry.recognise(snap));
+
+        registry.register("LOGON", snap);
+        assertEquals("LOGON", registry.recognise(snap));
+
+        registry.clear();
+        assertNull(registry.recognise(snap));
+    }
+
+    public void testSharedAcrossSessions() throws Exception {
+        ScreenRegistry registry = new ScreenRegistry();
+        registry.register("A", screen("SCREEN A", ""));
+        registry.register("B", screen("SCREEN B", ""));
+
+        // Sessions on different screens, taking turns
+        ScreenSnapshot a = screen("SCREEN A", "");
+        ScreenSnapshot b = screen("SCREEN B", "");
+        for (int ix = 0; ix < 10; ix++) {
+            assertEquals("A", registry.recognise(a));
+            assertEquals("B", registry.recognise(b));
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE METHODS
+    //////////////////////////////////////////////////
+    /**
+     * Formatted screen - protected title, an input field and a protected trailer.
+     */
+    private static ScreenSnapshot screen(String title, String input) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(Tn3270StreamParser.CMD_EW_EBCDIC);
+        out.write(0xC2);
+        sba(out, 0);
+        out.write(ORDER_SF);
+        out.write(ATTR_PROTECTED);
+        text(out, title);
+        sba(out, 40);
+        out.write(ORDER_SF);
+        out.write(ATTR_INPUT);
+        text(out, input);
+        sba(out, 80);
+        out.write(ORDER_SF);
+        out.write(ATTR_PROTECTED);
+        return host(out.toByteArray());
+    }
+
+    private static ScreenSnapshot unformatted(String text) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(Tn3270StreamParser.CMD_EW_EBCDIC);
+        out.write(0xC2);
+        text(out, text);
+        return host(out.toByteArray());
+    }
+
+    private static ScreenSnapshot host(byte[] rec) throws Exception {
+        Term3270 term = RandomWrites.newTerminal();
+        term.getStreamParser().parse(rec, rec.length);
+        return term.publishSnapshot();
+    }
+
+    private static void sba(ByteArrayOutputStream out, int pos) {
+        out.write(ORDER_SBA);
+        out.write(Tn3270StreamParser.addrTable[(pos >> 6) & 0x3F]);
+        out.write(Tn3270StreamParser.addrTable[pos & 0x3F]);
+    }
+
+    private static void text(ByteArrayOutputStream out, String text) {
+        for (char ch : text.toCharArray()) {
+            out.write(Tn3270StreamParser.asc2ebc[ch]);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.core;
+
+import com.ascert.open.term.i3270.Term3270;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Checks sessions are re-used, validated, reset, capped and evicted, using stub sessions which connect to nothing.
+ */
+public class SessionPoolTest extends TestCase {
+    private static final Host HOST = new Host("host", 23, "IBM-3278-2");
+    private static final Host OTHER_HOST = new Host("other", 23, "IBM-3278-2");
+
+    private StubPool pool;
+
+    @Override
+    protected void setUp() throws Exception {
+        // Logs on by putting up the ready screen, which idle sessions must still show
+        pool = new StubPool();
+        pool.setLogonAction((term) -> show(term, "READY"));
+        pool.setValidScreen(ScreenCondition.contains("READY"));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        pool.close();
+    }
+
+    public void testReuse() throws Exception {
+        Terminal term = pool.checkout(HOST);
+        assertTrue(term.getTelnet().isConnected());
+        assertEquals(1, pool.getActiveCount());
+
+        pool.checkin(term);
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        assertSame(term, pool.checkout(HOST));
+        assertEquals(1, pool.created.size());
+        // Sessions for another host aren't interchangeable
+        assertNotSame(term, pool.checkout(OTHER_HOST));
+    }
+
+    public void testValidationFailureOnCheckout() throws Exception {
+        StubTerm wrongScreen = (StubTerm) pool.checkout(HOST);
+        StubTerm dropped = (StubTerm) pool.checkout(HOST);
+        pool.checkin(wrongScreen);
+        pool.checkin(dropped);
+        show(wrongScreen, "BUSY ");
+        dropped.connected = false;
+
+        // Both idle sessions fail validation, so are discarded for a new one
+        Terminal term = pool.checkout(HOST);
+        assertEquals(3, pool.created.size());
+        assertSame(pool.created.get(2), term);
+        assertEquals(1, wrongScreen.disconnects);
+        assertEquals(1, dropped.disconnects);
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    public void testResetFailureOnCheckin() throws Exception {
+        pool.setResetAction((term) -> {
+            throw new IllegalStateException("reset failed");
+        });
+        StubTerm term = (StubTerm) pool.checkout(HOST);
+        pool.checkin(term);
+
+        assertEquals(1, term.disconnects);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    public void testLogonFailure() throws Exception {
+        pool.setLogonAction((term) -> {
+            throw new IllegalStateException("logon failed");
+        });
+        try {
+            pool.checkout(HOST);
+            fail("logon failure ignored");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+        assertEquals(1, pool.created.get(0).disconnects);
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    public void testMaxIdlePerHost() throws Exception {
+        pool.setMaxIdlePerHost(2);
+        List<Terminal> terms = new ArrayList<>();
+        for (int ix = 0; ix < 3; ix++) {
+            terms.add(pool.checkout(HOST));
+        }
+        Terminal other = pool.checkout(OTHER_HOST);
+        for (Terminal term : terms) {
+            pool.checkin(term);
+        }
+        pool.checkin(other);
+
+        // Cap is per host
+        assertEquals(3, pool.getIdleCount());
+        assertEquals(0, ((StubTerm) terms.get(0)).disconnects);
+        assertEquals(0, ((StubTerm) terms.get(1)).disconnects);
+        assertEquals(1, ((StubTerm) terms.get(2)).disconnects);
+    }
+
+    public void testEvictIdle() throws Exception {
+        StubTerm stale = (StubTerm) pool.checkout(HOST);
+        pool.checkin(stale);
+        pool.setIdleTimeout(0);
+        Thread.sleep(20);
+
+        // No timeout, only dropped connections go
+        pool.evictIdle();
+        assertEquals(1, pool.getIdleCount());
+
+        pool.setIdleTimeout(10);
+        pool.evictIdle();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, stale.disconnects);
+
+        StubTerm dropped = (StubTerm) pool.checkout(HOST);
+        pool.setIdleTimeout(0);
+        pool.checkin(dropped);
+        dropped.connected = false;
+        pool.evictIdle();
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    public void testIdleTimeoutChangeKeepsSweeping() throws Exception {
+        StubTerm term = (StubTerm) pool.checkout(HOST);
+        pool.checkin(term);
+
+        // Swept at the new interval, with no further checkins to restart it
+        pool.setIdleTimeout(10);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getIdleCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, term.disconnects);
+    }
+
+    public void testClose() throws Exception {
+        StubTerm idle = (StubTerm) pool.checkout(HOST);
+        StubTerm active = (StubTerm) pool.checkout(HOST);
+        pool.checkin(idle);
+
+        pool.close();
+        assertEquals(1, idle.disconnects);
+        assertEquals(0, pool.getIdleCount());
+        try {
+            pool.checkout(HOST);
+            fail("checkout after close");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+
+        // Returned after the close, so discarded
+        pool.checkin(active);
+        assertEquals(1, active.disconnects);
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    private static void show(Terminal term, String text) throws Exception {
+        byte[] rec = RandomWrites.write(0xC2, 0, text);
+        term.getStreamParser().parse(rec, rec.length);
+    }
+
+    /**
+     * Pool creating stub sessions.
+     */
+    private static class StubPool extends SessionPool {
+        final List<StubTerm> created = new ArrayList<>();
+
+        @Override
+        protected Terminal createTerminal(Host host) {
+            StubTerm term = new StubTerm();
+            created.add(term);
+            return term;
+        }
+    }
+
+    /**
+     * Session which only pretends to connect.
+     */
+    private static class StubTerm extends Term3270 {
+        volatile boolean connected;
+        int disconnects;
+
+        StubTerm() {
+            super("IBM-3278-2");
+            setTelnet(new RWTelnet(getStreamParser()) {
+                @Override
+                public boolean isConnected() {
+                    return connected;
+                }
+            });
+        }
+
+        @Override
+        public void connect() {
+            connected = true;
+            setKeyboardLocked(false);
+        }
+
+        @Override
+        public void disconnect() {
+            connected = false;
+            disconnects++;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.core;
+
+import com.ascert.open.term.i3270.Term3270;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * Records a session with {@link SessionRecorder} and replays it with {@link SessionReplayer}.
+ */
+public class SessionReplayerTest extends TestCase {
+    private static final int RECORDS = 200;
+
+    // Live session the recording is taken from
+    private Term3270 live;
+    private byte[] recording;
+    // Length of the recording before the last host record was written
+    private int beforeLast;
+    private long firstTime;
+
+    @Override
+    protected void setUp() throws Exception {
+        live = RandomWrites.newTerminal();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SessionRecorder recorder = new SessionRecorder(out, "test session");
+
+        RandomWrites writes = new RandomWrites(11, live.getCols() * live.getRows());
+        // Later than the recording start, so the first record keeps its time
+        firstTime = System.currentTimeMillis() + 1000;
+        long time = firstTime;
+        for (int ix = 0; ix < RECORDS; ix++) {
+            byte[] rec = frame(writes.next());
+            if (ix == RECORDS - 1) {
+                recorder.flush();
+                beforeLast = out.size();
+            }
+            recorder.traceData(true, time, rec, 0, rec.length);
+            live.getTelnet().processDataIn(rec);
+            time += ix;
+
+            if (ix % 50 == 0) {
+                // Skipped on replay
+                recorder.traceEvent(time, "event " + ix);
+                recorder.traceData(false, time, new byte[] {0x7D, 0x40, 0x40}, 0, 3);
+            }
+        }
+        recorder.close();
+        recording = out.toByteArray();
+    }
+
+    public void testRoundTrip() throws Exception {
+        Term3270 replayed = RandomWrites.newTerminal();
+        try (SessionReplayer replayer = new SessionReplayer(new ByteArrayInputStream(recording))) {
+            assertEquals("test session", replayer.getDescription());
+            assertEquals(RECORDS, replayer.replay(replayed.getTelnet(), null, 0));
+        }
+
+        assertSameScreen(live, replayed);
+    }
+
+    public void testRecordsRead() throws Exception {
+        try (SessionReplayer replayer = new SessionReplayer(new ByteArrayInputStream(recording))) {
+            SessionReplayer.Record rec = replayer.next();
+            assertEquals(SessionRecorder.REC_IN, rec.getType());
+            assertEquals(firstTime, rec.getTimestamp());
+
+            rec = replayer.next();
+            assertEquals(SessionRecorder.REC_EVENT, rec.getType());
+            assertEquals("event 0", rec.getEvent());
+
+            rec = replayer.next();
+            assertEquals(SessionRecorder.REC_OUT, rec.getType());
+            assertEquals(3, rec.getLength());
+        }
+    }
+
+    public void testTruncated() throws Exception {
+        // Cut off part way through the last record, as per a process killed before the final flush
+        byte[] truncated = Arrays.copyOf(recording, beforeLast + (recording.length - beforeLast) / 2);
+        Term3270 replayed = RandomWrites.newTerminal();
+        try (SessionReplayer replayer = new SessionReplayer(new ByteArrayInputStream(truncated))) {
+            assertEquals(RECORDS - 1, replayer.replay(replayed.getTelnet(), null, 0));
+            assertNull(replayer.next());
+        }
+
+        // Everything up to the last write replayed
+        Term3270 expected = RandomWrites.newTerminal();
+        RandomWrites writes = new RandomWrites(11, expected.getCols() * expected.getRows());
+        for (int ix = 0; ix < RECORDS - 1; ix++) {
+            expected.getTelnet().processDataIn(frame(writes.next()));
+        }
+        assertSameScreen(expected, replayed);
+
+        // Not even a complete header
+        try {
+            new SessionReplayer(new ByteArrayInputStream(Arrays.copyOf(recording, 8)));
+            fail("header truncated");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    public void testOversizedLength() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SessionRecorder(out, "").close();
+        // Inbound record, no time gap, then a length of 2^35 - 1
+        out.write(new byte[] {SessionRecorder.REC_IN, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F});
+
+        try (SessionReplayer replayer = new SessionReplayer(new ByteArrayInputStream(out.toByteArray()))) {
+            replayer.next();
+            fail("oversized record accepted");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Malformed"));
+        }
+    }
+
+    private static byte[] frame(byte[] rec) {
+        // Each record ends IAC EOR, as sent by the host
+        byte[] framed = Arrays.copyOf(rec, rec.length + 2);
+        framed[rec.length] = (byte) 0xFF;
+        framed[rec.length + 1] = (byte) 0xEF;
+        return framed;
+    }
+
+    private static void assertSameScreen(Term3270 expected, Term3270 actual) {
+        assertEquals(new String(expected.getDisplay()), new String(actual.getDisplay()));
+        assertEquals(expected.getCursorPosition(), actual.getCursorPosition());
+        assertEquals(expected.publishSnapshot().getFields(), actual.publishSnapshot().getFields());
+    }
+}
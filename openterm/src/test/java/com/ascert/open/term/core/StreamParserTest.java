@@ -22,11 +22,18 @@
 
 package com.ascert.open.term.core;
 
+import com.ascert.open.ohio.Ohio;
+import com.ascert.open.ohio.OhioField;
+import com.ascert.open.ohio.OhioPosition;
 import com.ascert.open.term.i3270.Term3270;
 import com.ascert.open.term.i3270.Tn3270StreamParser;
 
 import junit.framework.TestCase;
 
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -188,6 +195,228 @@ public class StreamParserTest extends TestCase {
 
         client.dumpLog(rw);
     }
+
+    public void testByteParse() throws Exception {
+        Term3270 rwShort = new Term3270();
+        rwShort.setClient(new RWTnActionAdapter());
+        new Tn3270StreamParser(rwShort).parse(buf, buf.length);
+
+        Term3270 rwByte = new Term3270();
+        rwByte.setClient(new RWTnActionAdapter());
+        // oversized, as per a re-used receive buffer
+        byte[] bBuf = RWTelnet.shortArrayToByte(buf, 0, buf.length, new byte[buf.length + 100]);
+        byte[] orig = bBuf.clone();
+        new Tn3270StreamParser(rwByte).parse(bBuf, buf.length);
+
+        assertEquals(new String(rwShort.getDisplay()), new String(rwByte.getDisplay()));
+        assertTrue("buffer modified", Arrays.equals(orig, bBuf));
+    }
+
+    public void testChangedCells() throws Exception {
+        Term3270 rw = new Term3270();
+        rw.setClient(new RWTnActionAdapter());
+        Tn3270StreamParser parser = new Tn3270StreamParser(rw);
+        parser.parse(buf, buf.length);
+
+        long seen = rw.nextChangeGeneration();
+        // Write, SBA to row 2 col 1, "ABC"
+        short[] wr = {0xF1, 0xC3, 0x11, 0xC1, 0x50, 0xC1, 0xC2, 0xC3};
+        parser.parse(wr, wr.length);
+
+        BitSet changed = rw.getChangedCells(seen);
+        assertEquals(3, changed.cardinality());
+        assertEquals(80, changed.nextSetBit(0));
+        assertEquals("ABC", rw.getCharString(80, 3));
+    }
+
+    public void testWaitForCondition() throws Exception {
+        Term3270 rw = new Term3270();
+        rw.setClient(new RWTnActionAdapter());
+        Tn3270StreamParser parser = new Tn3270StreamParser(rw);
+        parser.parse(buf, buf.length);
+
+        CompletableFuture<Boolean> found = rw.waitFor(ScreenCondition.textAt(2, 1, "ABC"), 0);
+        assertFalse(found.isDone());
+
+        // Write, SBA to row 3 col 1, "ABC" - not where we're looking
+        short[] wr1 = {0xF1, 0xC3, 0x11, 0xC2, 0x60, 0xC1, 0xC2, 0xC3};
+        parser.parse(wr1, wr1.length);
+        assertFalse(found.isDone());
+
+        // Write, SBA to row 2 col 1, "ABC"
+        short[] wr2 = {0xF1, 0xC3, 0x11, 0xC1, 0x50, 0xC1, 0xC2, 0xC3};
+        parser.parse(wr2, wr2.length);
+        assertTrue(found.isDone());
+        assertTrue(found.get());
+
+        assertTrue(rw.waitForText("ABC", 10));
+        assertFalse(rw.waitFor(ScreenCondition.contains("XYZ"), 10).get());
+    }
+
+    public void testSendAidWaitsForHost() throws Exception {
+        Term3270 rw = RandomWrites.newTerminal();
+        Tn3270StreamParser parser = (Tn3270StreamParser) rw.getStreamParser();
+        byte[] wr = RandomWrites.write(0xC3, 80, "ABC");
+        parser.parse(wr, wr.length);
+        assertTrue(rw.contains("ABC"));
+
+        AsyncSession session = new AsyncSession(rw, Runnable::run);
+        CompletableFuture<AsyncSession> reply = session.sendAid(Ohio.OHIO_AID.OHIO_AID_3270_ENTER, ScreenCondition.contains("ABC"), 0);
+        // Screen already matched when the AID was sent, which doesn't count
+        assertFalse(reply.isDone());
+
+        parser.parse(wr, wr.length);
+        assertTrue(reply.isDone());
+        assertSame(session, reply.get());
+    }
+
+    public void testSnapshot() throws Exception {
+        Term3270 rw = new Term3270();
+        rw.setClient(new RWTnActionAdapter());
+        Tn3270StreamParser parser = new Tn3270StreamParser(rw);
+        parser.parse(buf, buf.length);
+
+        ScreenSnapshot before = rw.getSnapshot();
+        assertSame(before, rw.publishSnapshot());
+
+        // Write, SBA to row 2 col 1, "ABC"
+        short[] wr = {0xF1, 0xC3, 0x11, 0xC1, 0x50, 0xC1, 0xC2, 0xC3};
+        parser.parse(wr, wr.length);
+
+        ScreenSnapshot after = rw.getSnapshot();
+        assertTrue(after.getGeneration() > before.getGeneration());
+        assertEquals("ABC", after.getString(80, 3));
+        assertEquals(new String(rw.getDisplay()), new String(after.getDisplay()));
+        assertFalse("ABC".equals(before.getString(80, 3)));
+        assertEquals(80, after.indexOf("ABC"));
+        assertEquals(80, after.indexOf("abc", 100, 30, false, true));
+        assertEquals(-1, after.indexOf("ABC", 81, 0, true, false));
+    }
+
+    public void testLocalChangesSearched() throws Exception {
+        Term3270 rw = new Term3270();
+        rw.setClient(new RWTnActionAdapter());
+        new Tn3270StreamParser(rw).parse(buf, buf.length);
+        assertFalse(rw.contains("ZQXJ"));
+
+        TermField input = null;
+        for (Object fld : rw.getFields()) {
+            if (!((TermField) fld).isProtected() && ((TermField) fld).size() > 5) {
+                input = (TermField) fld;
+                break;
+            }
+        }
+        assertNotNull(input);
+        input.setData("ZQXJ");
+        assertTrue(rw.contains("ZQXJ"));
+
+        OhioField found = new OhioScreenWrapper(rw).getFields()
+            .findByString("ZQXJ", null, 0, Ohio.OHIO_DIRECTION.OHIO_DIRECTION_FORWARD, false);
+        assertNotNull(found);
+        assertEquals(input.getBeginBA(), OhioPosition.convertPositionToScreenOffset(found.getStart(), rw.getCols()));
+        assertTrue(found.getString().startsWith("ZQXJ"));
+
+        // The field found is a copy, unaffected by later changes
+        input.setData("ABCD");
+        assertTrue(found.getString().startsWith("ZQXJ"));
+    }
+
+    public void testReadReplies() throws Exception {
+        Term3270 rw = RandomWrites.newTerminal();
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        rw.getTelnet().setOutputStream(sent);
+        Tn3270StreamParser parser = (Tn3270StreamParser) rw.getStreamParser();
+
+        // Erase/write - protected "NAME" at 5, modified input "ABC" at 20, protected at 30, and a modified input field at 1915 whose
+        // "WRAPPED12" runs past the end of the screen up to the field at 5. Cursor to 21.
+        short[] wr = {0xF5, 0xC2,
+            0x11, 0x40, 0xC5, 0x1D, 0x60, 0xD5, 0xC1, 0xD4, 0xC5,
+            0x11, 0x40, 0xD4, 0x1D, 0xC1, 0xC1, 0xC2, 0xC3,
+            0x11, 0x40, 0x5E, 0x1D, 0x60,
+            0x11, 0x5D, 0x7B, 0x1D, 0xC1, 0xE6, 0xD9, 0xC1, 0xD7, 0xD7, 0xC5, 0xC4, 0xF1, 0xF2,
+            0x11, 0x40, 0xD5, 0x13};
+        parser.parse(wr, wr.length);
+        assertEquals("PED12", rw.getCharString(0, 5));
+
+        // Read buffer - AID, cursor, then every position with SF and the attribute in place of field attribute positions
+        short[] rb = {0xF2};
+        parser.parse(rb, rb.length);
+        byte[] reply = sent.toByteArray();
+        assertEquals(3 + 1920 + 4, reply.length);
+        assertEquals((byte) rw.getAIDValue(), reply[0]);
+        assertBytes(reply, 1, 0x40, 0xD5);
+        assertBytes(reply, 3, 0xD7, 0xC5, 0xC4, 0xF1, 0xF2, 0x1D, 0x60, 0xD5, 0xC1, 0xD4, 0xC5);
+        assertBytes(reply, 3 + 20 + 1, 0x1D, 0xC1, 0xC1, 0xC2, 0xC3, 0x00);
+        assertBytes(reply, 3 + 30 + 2, 0x1D, 0x60, 0x00);
+        assertBytes(reply, reply.length - 6, 0x1D, 0xC1, 0xE6, 0xD9, 0xC1, 0xD7);
+
+        // Read modified on Enter - AID, cursor, then SBA and non-null data for each modified field, including the one that wraps
+        sent.reset();
+        rw.Fkey(Ohio.OHIO_AID.OHIO_AID_3270_ENTER);
+        reply = sent.toByteArray();
+        assertBytes(reply, 0, 0x7D, 0x40, 0xD5,
+            0x11, 0x40, 0xD5, 0xC1, 0xC2, 0xC3,
+            0x11, 0x5D, 0x7C, 0xE6, 0xD9, 0xC1, 0xD7, 0xD7, 0xC5, 0xC4, 0xF1, 0xF2);
+        assertEquals(21, reply.length);
+        assertTrue(rw.isKeyboardLocked());
+
+        // Short read for PA keys, just the AID
+        sent.reset();
+        rw.setKeyboardLocked(false);
+        rw.Fkey(Ohio.OHIO_AID.OHIO_AID_3270_PA1);
+        assertEquals(1, sent.size());
+        assertEquals((byte) 0x6C, sent.toByteArray()[0]);
+    }
+
+    public void testConcurrentChangedCells() throws Exception {
+        Term3270 rw = new Term3270();
+        rw.setClient(new RWTnActionAdapter());
+        Tn3270StreamParser parser = new Tn3270StreamParser(rw);
+        parser.parse(buf, buf.length);
+
+        // Reader keeps its own copy of the screen up to date from the changed cells alone, as the renderer and watchers do
+        char[] copy = rw.getDisplay();
+        long[] seen = {rw.nextChangeGeneration()};
+        Runnable catchUp = () -> {
+            synchronized (rw.getLockObject()) {
+                long closed = rw.nextChangeGeneration();
+                BitSet changed = rw.getChangedCells(seen[0]);
+                char[] display = rw.getDisplay();
+                for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                    copy[i] = display[i];
+                }
+                seen[0] = closed;
+            }
+        };
+
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 20000; i++) {
+                    // Write, SBA to row 2 col 1, then a row of chars which differs from the last record's
+                    short[] wr = new short[85];
+                    System.arraycopy(new short[] {0xF1, 0xC3, 0x11, 0xC1, 0x50}, 0, wr, 0, 5);
+                    Arrays.fill(wr, 5, wr.length, (short) (0xC1 + (i % 9)));
+                    parser.parse(wr, wr.length);
+                }
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            catchUp.run();
+        }
+        writer.join();
+        catchUp.run();
+
+        assertEquals(new String(rw.getDisplay()), new String(copy));
+    }
+
+    private static void assertBytes(byte[] data, int from, int... expected) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("byte " + (from + i), (byte) expected[i], data[from + i]);
+        }
+    }
 }
 
 
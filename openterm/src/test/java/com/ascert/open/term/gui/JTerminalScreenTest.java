@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.gui;
+
+import com.ascert.open.term.core.RWTelnet;
+import com.ascert.open.term.core.RandomWrites;
+import com.ascert.open.term.i3270.Term3270;
+
+import junit.framework.TestCase;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+
+/**
+ * Checks incremental rendering, which only repaints the cells changed since the last refresh, ends up with exactly the same image
+ * as rendering the whole screen each time.
+ */
+public class JTerminalScreenTest extends TestCase {
+    public void testIncrementalMatchesFull() throws Exception {
+        // Each screen needs its own terminal, fed the same data
+        Term3270 incTerm = newTerminal();
+        JTerminalScreen incremental = new JTerminalScreen(incTerm, null);
+        incremental.setIncrementalRender(true);
+        Term3270 fullTerm = newTerminal();
+        JTerminalScreen full = new JTerminalScreen(fullTerm, null);
+        full.setIncrementalRender(false);
+
+        int size = incTerm.getCols() * incTerm.getRows();
+        RandomWrites writes = new RandomWrites(5, size);
+        Random rnd = new Random(7);
+        for (int ix = 0; ix < 500; ix++) {
+            byte[] rec = writes.next();
+            incTerm.getStreamParser().parse(rec, rec.length);
+            fullTerm.getStreamParser().parse(rec, rec.length);
+            if (rnd.nextInt(4) == 0) {
+                // Local cursor movement, as per the arrow keys
+                int pos = rnd.nextInt(size);
+                incTerm.setCursorPosition(pos);
+                fullTerm.setCursorPosition(pos);
+            }
+
+            incremental.refresh();
+            full.refresh();
+            assertTrue("render " + ix, Arrays.equals(pixels(full.getScreenBuffer()), pixels(incremental.getScreenBuffer())));
+        }
+    }
+
+    private static Term3270 newTerminal() {
+        Term3270 term = RandomWrites.newTerminal();
+        // Disconnected screens are always rendered in full
+        term.setTelnet(new RWTelnet(term.getStreamParser()) {
+            @Override
+            public boolean isConnected() {
+                return true;
+            }
+        });
+        term.getTelnet().setOutputStream(new ByteArrayOutputStream());
+        return term;
+    }
+
+    private static int[] pixels(BufferedImage img) {
+        return img.getRGB(0, 0, img.getWidth(), img.getHeight(), null, 0, img.getWidth());
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package com.ascert.open.term.i3270;
+
+import com.ascert.open.ohio.Ohio;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static com.ascert.open.term.core.RWTelnet.*;
+import static com.ascert.open.term.i3270.Tn3270ETelnet.*;
+
+
+/**
+ * Feeds host data through the TN3270E telnet handling, checking what it does to the screen and what it sends back.
+ */
+public class Tn3270ETelnetTest extends TestCase {
+    private Term3270 term;
+    private Tn3270ETelnet tn;
+    private ByteArrayOutputStream out;
+
+    @Override
+    protected void setUp() throws Exception {
+        term = new Term3270();
+        tn = (Tn3270ETelnet) term.getTelnet();
+        out = new ByteArrayOutputStream();
+        tn.setOutputStream(out);
+    }
+
+    public void testNegotiation() throws Exception {
+        hostSends(IAC, DO, OPT_TN3270E);
+        assertReply(IAC, WILL, OPT_TN3270E);
+
+        hostSends(IAC, SB, OPT_TN3270E, TN3270E_SEND, TN3270E_DEVICE_TYPE, IAC, SE);
+        assertReply(concat(new int[] {IAC, SB, OPT_TN3270E, TN3270E_DEVICE_TYPE, TN3270E_REQUEST}, ascii(term.getTermType()),
+                           new int[] {IAC, SE}));
+
+        hostSends(concat(new int[] {IAC, SB, OPT_TN3270E, TN3270E_DEVICE_TYPE, TN3270E_IS}, ascii(term.getTermType()),
+                         new int[] {TN3270E_CONNECT}, ascii("LU0001"), new int[] {IAC, SE}));
+        assertReply(IAC, SB, OPT_TN3270E, TN3270E_FUNCTIONS, TN3270E_REQUEST, FUNC_BIND_IMAGE, FUNC_RESPONSES, FUNC_SYSREQ, IAC, SE);
+        assertEquals("LU0001", tn.getDeviceName());
+        assertFalse(tn.isTn3270e());
+
+        // Host only agrees to some of the functions asked for
+        hostSends(IAC, SB, OPT_TN3270E, TN3270E_FUNCTIONS, TN3270E_IS, FUNC_RESPONSES, IAC, SE);
+        assertReply();
+        assertTrue(tn.isTn3270e());
+        assertTrue(tn.isFunction(FUNC_RESPONSES));
+        assertFalse(tn.isFunction(FUNC_SYSREQ));
+        assertEquals("LU0001", term.getDeviceName());
+    }
+
+    public void testFunctionsCounterRequest() throws Exception {
+        negotiate(FUNC_RESPONSES);
+
+        // Host asks for something we can't do, so we counter with what we can
+        hostSends(IAC, SB, OPT_TN3270E, TN3270E_FUNCTIONS, TN3270E_REQUEST, FUNC_RESPONSES, FUNC_SCS_CTL_CODES, IAC, SE);
+        assertReply(IAC, SB, OPT_TN3270E, TN3270E_FUNCTIONS, TN3270E_REQUEST, FUNC_RESPONSES, IAC, SE);
+
+        hostSends(IAC, SB, OPT_TN3270E, TN3270E_FUNCTIONS, TN3270E_REQUEST, FUNC_RESPONSES, IAC, SE);
+        assertReply(IAC, SB, OPT_TN3270E, TN3270E_FUNCTIONS, TN3270E_IS, FUNC_RESPONSES, IAC, SE);
+        assertTrue(tn.isFunction(FUNC_RESPONSES));
+    }
+
+    public void testRejectFallsBack() throws Exception {
+        hostSends(IAC, DO, OPT_TN3270E);
+        hostSends(IAC, SB, OPT_TN3270E, TN3270E_SEND, TN3270E_DEVICE_TYPE, IAC, SE);
+        out.reset();
+
+        hostSends(IAC, SB, OPT_TN3270E, TN3270E_DEVICE_TYPE, TN3270E_REJECT, TN3270E_REASON, 4, IAC, SE);
+        assertReply(IAC, WONT, OPT_TN3270E);
+        assertFalse(tn.isTn3270e());
+
+        // Plain TN3270 records, without any header
+        hostSends(concat(write(80, "PLAIN"), new int[] {IAC, EOR}));
+        assertEquals("PLAIN", term.getCharString(80, 5));
+    }
+
+    public void testHeaderDecode() throws Exception {
+        negotiate(FUNC_BIND_IMAGE, FUNC_RESPONSES);
+
+        hostSends(concat(new int[] {DT_3270_DATA, 0, RSF_NO_RESPONSE, 0, 1}, write(80, "HELLO"), new int[] {IAC, EOR}));
+        assertEquals("HELLO", term.getCharString(80, 5));
+        assertReply();
+
+        hostSends(DT_BIND_IMAGE, 0, 0, 0, 2, 0x31, 0x01, IAC, EOR);
+        assertTrue(tn.isBound());
+        assertTrue(Arrays.equals(new byte[] {0x31, 0x01}, tn.getBindImage()));
+
+        hostSends(DT_UNBIND, 0, 0, 0, 3, 0x01, IAC, EOR);
+        assertFalse(tn.isBound());
+        assertNull(tn.getBindImage());
+    }
+
+    public void testResponses() throws Exception {
+        negotiate(FUNC_RESPONSES);
+
+        hostSends(concat(new int[] {DT_3270_DATA, 0, RSF_ALWAYS_RESPONSE, 0x12, 0x34}, write(80, "OK"), new int[] {IAC, EOR}));
+        assertEquals("OK", term.getCharString(80, 2));
+        assertReply(DT_RESPONSE, 0, RSF_POSITIVE_RESPONSE, 0x12, 0x34, POS_DEVICE_END, IAC, EOR);
+
+        // Only errors wanted, and there aren't any
+        hostSends(concat(new int[] {DT_3270_DATA, 0, RSF_ERROR_RESPONSE, 0x12, 0x35}, write(80, "OK"), new int[] {IAC, EOR}));
+        assertReply();
+
+        // Invalid command, which is rejected rather than dropping the session
+        hostSends(DT_3270_DATA, 0, RSF_ERROR_RESPONSE, 0x12, 0x36, 0x00, IAC, EOR);
+        assertReply(DT_RESPONSE, 0, RSF_NEGATIVE_RESPONSE, 0x12, 0x36, NEG_COMMAND_REJECT, IAC, EOR);
+    }
+
+    public void testSequenceNumberIacDoubled() throws Exception {
+        negotiate(FUNC_RESPONSES);
+
+        // Sequence number 0xFFFF, both bytes doubled by the host and then by us in reply
+        hostSends(concat(new int[] {DT_3270_DATA, 0, RSF_ALWAYS_RESPONSE, IAC, IAC, IAC, IAC}, write(80, "FF"), new int[] {IAC, EOR}));
+        assertEquals("FF", term.getCharString(80, 2));
+        assertReply(DT_RESPONSE, 0, RSF_POSITIVE_RESPONSE, IAC, IAC, IAC, IAC, POS_DEVICE_END, IAC, EOR);
+    }
+
+    public void testSscpLuDisplayAndEnter() throws Exception {
+        negotiate(FUNC_RESPONSES);
+
+        hostSends(concat(new int[] {DT_SSCP_LU_DATA, 0, 0, 0, 0}, ebcdic("USS READY"), new int[] {IAC, EOR}));
+        assertTrue(tn.isSscpLu());
+        assertTrue(term.isSscpLu());
+        assertEquals("USS READY", term.getCharString(0, 9));
+        assertEquals(9, term.getCursorPosition());
+        assertFalse(term.isKeyboardLocked());
+
+        for (char ch : "LOGON".toCharArray()) {
+            term.getCharHandler().type(ch);
+        }
+        term.Fkey(Ohio.OHIO_AID.OHIO_AID_3270_ENTER);
+        // Only what was typed after the SSCP's message goes back, with an SSCP-LU header
+        assertReply(concat(new int[] {DT_SSCP_LU_DATA, 0, RSF_NO_RESPONSE, 0, 0}, ebcdic("LOGON"), new int[] {IAC, EOR}));
+
+        // Back to the LU-LU session
+        hostSends(concat(new int[] {DT_3270_DATA, 0, 0, 0, 1}, write(80, "APPL"), new int[] {IAC, EOR}));
+        assertFalse(tn.isSscpLu());
+    }
+
+    public void testSysReq() throws Exception {
+        negotiate(FUNC_SYSREQ);
+
+        term.Fkey(Ohio.OHIO_AID.OHIO_AID_3270_SYSREQ);
+        assertReply(IAC, AO);
+    }
+
+    public void testSysReqWithoutFunction() throws Exception {
+        negotiate(FUNC_RESPONSES);
+        assertFalse(term.sysReq());
+        assertReply();
+    }
+
+    public void testSysReqSendFailure() throws Exception {
+        negotiate(FUNC_SYSREQ);
+        tn.setOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("connection gone");
+            }
+        });
+
+        // So the key is sent as an AID instead
+        assertFalse(term.sysReq());
+    }
+
+    //////////////////////////////////////////////////
+    // PRIVATE METHODS
+    //////////////////////////////////////////////////
+    private void negotiate(int... functions) throws IOException {
+        hostSends(IAC, DO, OPT_TN3270E);
+        hostSends(IAC, SB, OPT_TN3270E, TN3270E_SEND, TN3270E_DEVICE_TYPE, IAC, SE);
+        hostSends(concat(new int[] {IAC, SB, OPT_TN3270E, TN3270E_DEVICE_TYPE, TN3270E_IS}, ascii(term.getTermType()),
+                         new int[] {IAC, SE}));
+        hostSends(concat(new int[] {IAC, SB, OPT_TN3270E, TN3270E_FUNCTIONS, TN3270E_IS}, functions, new int[] {IAC, SE}));
+        assertTrue(tn.isTn3270e());
+        out.reset();
+    }
+
+    private void hostSends(int... data) throws IOException {
+        byte[] buf = new byte[data.length];
+        for (int ix = 0; ix < data.length; ix++) {
+            buf[ix] = (byte) data[ix];
+        }
+        tn.processDataIn(buf);
+    }
+
+    private void assertReply(int... expected) {
+        byte[] buf = new byte[expected.length];
+        for (int ix = 0; ix < expected.length; ix++) {
+            buf[ix] = (byte) expected[ix];
+        }
+        assertEquals(hex(buf), hex(out.toByteArray()));
+        out.reset();
+    }
+
+    /**
+     * Write, restoring the keyboard, with the text at the given position.
+     */
+    private static int[] write(int pos, String text) {
+        return concat(new int[] {Tn3270StreamParser.CMD_W_EBCDIC, 0xC2, 0x11, Tn3270StreamParser.addrTable[(pos >> 6) & 0x3F],
+                                 Tn3270StreamParser.addrTable[pos & 0x3F]}, ebcdic(text));
+    }
+
+    private static int[] ebcdic(String text) {
+        int[] buf = new int[text.length()];
+        for (int ix = 0; ix < buf.length; ix++) {
+            buf[ix] = Tn3270StreamParser.asc2ebc[text.charAt(ix)];
+        }
+        return buf;
+    }
+
+    private static int[] ascii(String text) {
+        int[] buf = new int[text.length()];
+        for (int ix = 0; ix < buf.length; ix++) {
+            buf[ix] = text.charAt(ix);
+        }
+        return buf;
+    }
+
+    private static int[] concat(int[]... parts) {
+        int len = 0;
+        for (int[] part : parts) {
+            len += part.length;
+        }
+        int[] all = new int[len];
+        int pos = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, all, pos, part.length);
+            pos += part.length;
+        }
+        return all;
+    }
+
+    private static String hex(byte[] buf) {
+        StringBuilder str = new StringBuilder();
+        for (byte b : buf) {
+            str.append(String.format("%02x ", b & 0xFF));
+        }
+        return str.toString();
+    }
+}
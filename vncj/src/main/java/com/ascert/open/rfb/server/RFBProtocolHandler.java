@@ -31,6 +31,9 @@ import java.util.*;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.Deflater;
+
+import com.ascert.open.util.Threads;
 
 public class RFBProtocolHandler implements RFBClient, Runnable
 {
@@ -57,12 +60,14 @@ public class RFBProtocolHandler implements RFBClient, Runnable
     private boolean threadFinished = false;
     private Vector updateQueue = new Vector();
     private boolean keepAliveSupported = false;
+    // ZRLE uses one zlib stream for the life of the connection, so created on first use
+    private Deflater zrleDeflater = null;
 
     private int keepAliveInterval = 20 * 1000;    // default 20s to check connection is alive
     private long lastServerMsgTs = 0;
 
     //TODO - def need to review the number of Qs, syncs, and threads we have per client and see if they can be rationalised/optimised
-    ScheduledThreadPoolExecutor updateHandler = new ScheduledThreadPoolExecutor(1);
+    ScheduledThreadPoolExecutor updateHandler = Threads.newScheduledExecutor("rfb-update");
 
     /**
      * new constructor by Marcus Wolschon
@@ -77,7 +82,7 @@ public class RFBProtocolHandler implements RFBClient, Runnable
         output = new DataOutputStream(os);
 
         // Start socket listener thread        
-        new Thread(this).start();
+        Threads.newThread("rfb-reader", this).start();
     }
 
     //
@@ -149,7 +154,18 @@ public class RFBProtocolHandler implements RFBClient, Runnable
 
         for (i = 0; i < rects.length; i++)
         {
-            rects[i].writeData(output);
+            if (rects[i] instanceof ZRLE)
+            {
+                if (zrleDeflater == null)
+                {
+                    zrleDeflater = new Deflater();
+                }
+                ((ZRLE) rects[i]).writeData(output, zrleDeflater);
+            }
+            else
+            {
+                rects[i].writeData(output);
+            }
         }
 
         int tot = output.size();
@@ -232,6 +248,13 @@ public class RFBProtocolHandler implements RFBClient, Runnable
         {
             output = null;
             input = null;
+            if (zrleDeflater != null)
+            {
+                zrleDeflater.end();
+                zrleDeflater = null;
+            }
+            // Otherwise the update thread lives on after the client has gone
+            updateHandler.shutdown();
         }
     }
 
@@ -450,8 +473,9 @@ public class RFBProtocolHandler implements RFBClient, Runnable
             }
         }
         
-        // Bit of a kludge, but makes sure we paint initial FB
-        if (initial)
+        // Full requests must be answered straight away. Incremental ones can wait for the next update, unless the server
+        // already has changes queued that arrived while the client wasn't asking
+        if (initial || !incremental || server.hasFrameBufferUpdate(this, x, y, w, h))
         {
             initial = false;
             updateAvailable();
@@ -466,6 +490,11 @@ public class RFBProtocolHandler implements RFBClient, Runnable
             while (iter.hasNext())
             {
                 UpdateRequest ur = (UpdateRequest) iter.next();
+                // RFB allows incremental requests to be held until there is actually something to send
+                if (ur.incremental && !server.hasFrameBufferUpdate(this, ur.x, ur.y, ur.w, ur.h))
+                {
+                    continue;
+                }
                 iter.remove();
                 // Delegate to server
                 try
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package com.ascert.open.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Central place for creating the per-session threads used by telnet and VNC handling, so that how they are created can be configured
+ * in one go. By default virtual threads are used when running on a JDK which has them (21+), else normal platform threads.
+ *
+ * Virtual threads are picked up via reflection, so this all still builds and runs on Java 8. The <code>openterm.threads</code> system
+ * property can be set to <code>platform</code> to force platform threads, or an application can supply its own factory via
+ * {@link #setThreadFactory(ThreadFactory)}.
+ *
+ * Also provides a single shared scheduler for periodic housekeeping work such as keep-alives, rather than each session needing its own
+ * thread just to sleep between checks.
+ *
+ * @version 1,0 18-Oct-2026
+ * @author agent
+ */
+public class Threads
+{
+
+    private static final Logger log = Logger.getLogger(Threads.class.getName());
+
+    public static final String THREADS_PROPERTY = "openterm.threads";
+
+    private static final ThreadFactory virtualFactory = initVirtualFactory();
+    private static volatile ThreadFactory customFactory;
+
+    private static ScheduledThreadPoolExecutor sharedScheduler;
+
+    private Threads()
+    {
+    }
+
+    //////////////////////////////////////////////////
+    // STATIC PUBLIC METHODS
+    //////////////////////////////////////////////////
+    public static boolean isVirtualAvailable()
+    {
+        return virtualFactory != null;
+    }
+
+    /**
+     * @return whether new threads will be virtual ones
+     */
+    public static boolean isVirtual()
+    {
+        return customFactory == null && virtualFactory != null && !"platform".equalsIgnoreCase(System.getProperty(THREADS_PROPERTY));
+    }
+
+    /**
+     * Overrides how threads are created. Threads are still named as usual. Pass <code>null</code> to revert to the default.
+     */
+    public static void setThreadFactory(ThreadFactory factory)
+    {
+        customFactory = factory;
+    }
+
+    /**
+     * Creates, but does not start, a thread.
+     *
+     * @param daemon only applies to platform threads, virtual threads are always daemon
+     */
+    public static Thread newThread(String name, Runnable r, boolean daemon)
+    {
+        Thread t;
+        if (customFactory != null)
+        {
+            t = customFactory.newThread(r);
+        }
+        else if (isVirtual())
+        {
+            t = virtualFactory.newThread(r);
+        }
+        else
+        {
+            t = new Thread(r);
+            t.setDaemon(daemon);
+        }
+        t.setName(name);
+        return t;
+    }
+
+    public static Thread newThread(String name, Runnable r)
+    {
+        return newThread(name, r, false);
+    }
+
+    /**
+     * @return factory for threads named <code>namePrefix-n</code>
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix, boolean daemon)
+    {
+        AtomicInteger count = new AtomicInteger();
+        return (r) -> newThread(namePrefix + "-" + count.incrementAndGet(), r, daemon);
+    }
+
+    /**
+     * Single threaded scheduled executor, using the configured kind of thread.
+     */
+    public static ScheduledThreadPoolExecutor newScheduledExecutor(String namePrefix)
+    {
+        return new ScheduledThreadPoolExecutor(1, newThreadFactory(namePrefix, false));
+    }
+
+    /**
+     * Scheduler shared by everything, for short periodic tasks. Tasks must not block for any length of time, as they hold up everyone
+     * else's. Always uses a platform daemon thread, as it lives for the life of the JVM.
+     */
+    public static synchronized ScheduledThreadPoolExecutor getSharedScheduler()
+    {
+        if (sharedScheduler == null)
+        {
+            sharedScheduler = new ScheduledThreadPoolExecutor(1, (r) ->
+            {
+                Thread t = new Thread(r, "openterm-scheduler");
+                t.setDaemon(true);
+                return t;
+            });
+            sharedScheduler.setRemoveOnCancelPolicy(true);
+        }
+        return sharedScheduler;
+    }
+
+    //////////////////////////////////////////////////
+    // STATIC PRIVATE METHODS
+    //////////////////////////////////////////////////
+    private static ThreadFactory initVirtualFactory()
+    {
+        try
+        {
+            // Thread.ofVirtual().factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            ThreadFactory tf = (ThreadFactory) factory.invoke(builder);
+            log.fine("virtual threads available");
+            return tf;
+        }
+        catch (NoSuchMethodException | ClassNotFoundException ex)
+        {
+            // Pre-21 JDK, quite normal
+            return null;
+        }
+        catch (Exception ex)
+        {
+            log.log(Level.FINE, "virtual threads not usable", ex);
+            return null;
+        }
+    }
+}
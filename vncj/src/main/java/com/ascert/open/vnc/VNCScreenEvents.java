@@ -32,6 +32,8 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.ascert.open.util.Threads;
+
 
 
 public class VNCScreenEvents
@@ -267,7 +269,7 @@ public class VNCScreenEvents
     // We're not really using the 'pool' aspect, just the deferred execution part
     //TODO - possible optimisation would be to share the events and screen update queue, which would reduce per-session
     //       thread usage count. Revisit if or when becomes an issue
-    ScheduledThreadPoolExecutor eventsHandler = new ScheduledThreadPoolExecutor(1);
+    ScheduledThreadPoolExecutor eventsHandler = Threads.newScheduledExecutor("vnc-events");
 
     public static HashMap getEventMap()
     {
@@ -28,19 +28,27 @@ import gnu.rfb.server.*;
 import java.io.*;
 import java.awt.color.ColorSpace;
 import java.awt.image.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import gnu.awt.PixelsOwner;
+import gnu.awt.Rectangle;
 import gnu.vnc.VNCQueue;
 
+import com.ascert.open.util.Threads;
+
 
 public class VNCScreenRobot implements RFBServer, PixelsOwner, ScreenImageListener
 {
     private static final Logger log = Logger.getLogger(VNCScreenRobot.class.getName());
 
+    // Change detection granularity, in pixels
+    private static final int TILE_SIZE = 16;
+
     public VNCScreenRobot(Screen screen, String displayName)
     {
         this.displayName = displayName;
@@ -49,7 +57,6 @@ public class VNCScreenRobot implements RFBServer, PixelsOwner, ScreenImageListen
         events = new VNCScreenEvents(screen, clients);
         queue = new VNCQueue(clients);
 
-        initPixels();
         updateScreenShot();
         //queue.takeSnapshot(this);
 
@@ -154,9 +161,14 @@ public class VNCScreenRobot implements RFBServer, PixelsOwner, ScreenImageListen
     public void frameBufferUpdateRequest(RFBClient client, boolean incremental, int x, int y, int w, int h) throws IOException
     {
         log.fine(String.format("update request - x: %d, y: %d, w:%d, h:%d, incremental: %b", x, y, w, h, incremental));
-        //TODO - we don't do incrementals at this stage. An exception will be thrown if we attempt to do this
-        //       with no incremental rectangles queued
-        queue.frameBufferUpdate(client, false, x, y, w, h);
+        // Incrementals are sent from the changed areas queued for this client by updateScreenShot
+        queue.frameBufferUpdate(client, incremental, x, y, w, h);
+    }
+
+    @Override
+    public boolean hasFrameBufferUpdate(RFBClient client, int x, int y, int w, int h)
+    {
+        return queue.hasPending(client, x, y, w, h);
     }
 
     public void keyEvent(RFBClient client, boolean down, int key)
@@ -188,10 +200,9 @@ public class VNCScreenRobot implements RFBServer, PixelsOwner, ScreenImageListen
     private String displayName;
     private int mouseModifiers = 0;
     private Screen screen;
-    private BufferedImage imgBuffer;
 
     // We're not really using the 'pool' aspect, just the deferred execution part
-    ScheduledThreadPoolExecutor updateHandler = new ScheduledThreadPoolExecutor(1);
+    ScheduledThreadPoolExecutor updateHandler = Threads.newScheduledExecutor("vnc-screen-update");
 
     private void updateAll()
     {
@@ -217,50 +228,175 @@ public class VNCScreenRobot implements RFBServer, PixelsOwner, ScreenImageListen
         }, 200, TimeUnit.MILLISECONDS);
     }
 
-    private int[] updateImage()
-    {
-        return screen.getScreenPixels();
-    }
-
     private boolean updateScreenShot()
     {
-        boolean changed = false;
-        int[] oldPixels = pixelArray;
+        Rectangle[] changes;
 
         // Messy, but change detection needs it
         synchronized (this)
         {
-            pixelArray = updateImage();
+            changes = updatePixels();
+        }
+
+        if (changes.length > 0)
+        {
+            log.fine("screen changed, new pixels - " + displayName + ", areas: " + changes.length);
+            queue.takeSnapshot(this, changes);
+        }
+
+        return changes.length > 0;
+    }
+
+    /**
+     * Brings our retained copy of the screen up to date, and returns the areas that changed. The screen image is compared tile by tile
+     * against the retained copy, and only tiles which differ are copied. Where possible the image's own pixel data is read directly, so
+     * there is no per update copy of the whole screen.
+     */
+    private Rectangle[] updatePixels()
+    {
+        BufferedImage img = screen.getScreenBuffer();
+        int width = img.getWidth();
+        int height = img.getHeight();
+
+        int[] live;
+        // Pixels from getRGB always have the alpha bits set, so we keep doing likewise for images that don't carry alpha
+        int alpha = 0;
+        if (isDirectPixels(img))
+        {
+            live = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+            alpha = (img.getType() == BufferedImage.TYPE_INT_RGB) ? 0xFF000000 : 0;
+        }
+        else
+        {
+            live = screen.getScreenPixels();
+        }
+
+        if (pixelArray == null || pixelWidth != width || pixelHeight != height)
+        {
+            log.fine("new pixels, w:" + width + ", h:" + height + " - " + displayName);
+            pixelArray = new int[width * height];
+            pixelWidth = width;
+            pixelHeight = height;
+            copyPixels(live, alpha, 0, pixelArray.length);
+            return new Rectangle[] { new Rectangle(0, 0, width, height) };
+        }
+
+        List<Rectangle> changes = new ArrayList<>();
+        // Changed areas from the previous tile row, which can be extended downwards by an identical run in the current one
+        List<Rectangle> open = new ArrayList<>();
+        List<Rectangle> nextOpen = new ArrayList<>();
+
+        for (int ty = 0; ty < height; ty += TILE_SIZE)
+        {
+            int th = Math.min(TILE_SIZE, height - ty);
+            int runStart = -1;
+
+            for (int tx = 0; tx <= width; tx += TILE_SIZE)
+            {
+                boolean changed = tx < width && updateTile(live, alpha, tx, ty, Math.min(TILE_SIZE, width - tx), th);
+
+                if (changed && runStart < 0)
+                {
+                    runStart = tx;
+                }
+                else if (!changed && runStart >= 0)
+                {
+                    Rectangle run = extendOrAdd(open, changes, runStart, ty, Math.min(tx, width) - runStart, th);
+                    nextOpen.add(run);
+                    runStart = -1;
+                }
+            }
+
+            List<Rectangle> tmp = open;
+            open = nextOpen;
+            nextOpen = tmp;
+            nextOpen.clear();
+        }
+
+        return changes.toArray(new Rectangle[changes.size()]);
+    }
 
-            for (int ix = 0; ix < pixelArray.length && !changed; ix++)
+    /**
+     * Compares a single tile against our retained copy, and copies over any rows from the first that differs onwards.
+     */
+    private boolean updateTile(int[] live, int alpha, int x, int y, int w, int h)
+    {
+        boolean changed = false;
+        for (int row = y; row < y + h; row++)
+        {
+            int off = row * pixelWidth + x;
+            if (!changed)
             {
-                if (pixelArray[ix] != oldPixels[ix])
+                for (int ix = off; ix < off + w; ix++)
                 {
-                    changed = true;
+                    if ((live[ix] | alpha) != pixelArray[ix])
+                    {
+                        changed = true;
+                        break;
+                    }
                 }
             }
+
+            if (changed)
+            {
+                copyPixels(live, alpha, off, w);
+            }
         }
+        return changed;
+    }
 
-        if (changed)
+    private void copyPixels(int[] live, int alpha, int off, int len)
+    {
+        if (alpha == 0)
         {
-            log.fine("screen changed, new pixels - " + displayName);
-            queue.takeSnapshot(this);
+            System.arraycopy(live, off, pixelArray, off, len);
+            return;
         }
 
-        return changed;
+        for (int ix = off; ix < off + len; ix++)
+        {
+            pixelArray[ix] = live[ix] | alpha;
+        }
+    }
+
+    private Rectangle extendOrAdd(List<Rectangle> open, List<Rectangle> changes, int x, int y, int w, int h)
+    {
+        for (Rectangle r : open)
+        {
+            if (r.x == x && r.width == w && r.y + r.height == y)
+            {
+                r.height += h;
+                return r;
+            }
+        }
+
+        Rectangle r = new Rectangle(x, y, w, h);
+        changes.add(r);
+        return r;
+    }
+
+    // Only simple packed int images with no padding or offsets can be read directly
+    private boolean isDirectPixels(BufferedImage img)
+    {
+        if (!(img.getRaster().getDataBuffer() instanceof DataBufferInt) || !(img.getSampleModel() instanceof SinglePixelPackedSampleModel))
+        {
+            return false;
+        }
+
+        DataBufferInt db = (DataBufferInt) img.getRaster().getDataBuffer();
+        SinglePixelPackedSampleModel sm = (SinglePixelPackedSampleModel) img.getSampleModel();
+        return db.getNumBanks() == 1 && db.getOffset() == 0 && sm.getScanlineStride() == img.getWidth()
+               && img.getRaster().getSampleModelTranslateX() == 0 && img.getRaster().getSampleModelTranslateY() == 0
+               && (img.getType() == BufferedImage.TYPE_INT_RGB || img.getType() == BufferedImage.TYPE_INT_ARGB);
     }
 
     //
     // PixelsOwner
     //
+    // Retained copy of the screen as at the last update, also used as the source for snapshots
     private int[] pixelArray = null;
-
-    private void initPixels()
-    {
-        log.fine("initPixels:" + getPixelWidth() + ", h:" + getPixelHeight() + " - " + displayName);
-        this.pixelArray = new int[getPixelWidth() * getPixelHeight()];
-        imgBuffer = new BufferedImage(getPixelWidth(), getPixelHeight(), BufferedImage.TYPE_INT_ARGB);
-    }
+    private int pixelWidth;
+    private int pixelHeight;
 
     public int[] getPixels()
     {
@@ -179,6 +179,38 @@ public class PixelFormat
 		blueFix = fixColorModel( 0xFF, blueMax, blueMask );
 	}
 	
+	//
+	// Object
+	//
+
+	/**
+	* Formats are equal if they produce identical bytes for the same pixels, which includes the colour model used to
+	* translate them.
+	*/
+	public boolean equals( Object obj )
+	{
+		if( obj == this )
+			return true;
+		if( !( obj instanceof PixelFormat ) )
+			return false;
+
+		PixelFormat other = (PixelFormat) obj;
+		return bitsPerPixel == other.bitsPerPixel && depth == other.depth && bigEndian == other.bigEndian && trueColour == other.trueColour &&
+			redMax == other.redMax && greenMax == other.greenMax && blueMax == other.blueMax &&
+			redShift == other.redShift && greenShift == other.greenShift && blueShift == other.blueShift &&
+			redMask == other.redMask && greenMask == other.greenMask && blueMask == other.blueMask &&
+			redFix == other.redFix && greenFix == other.greenFix && blueFix == other.blueFix;
+	}
+
+	public int hashCode()
+	{
+		int hash = bitsPerPixel;
+		hash = hash * 31 + depth;
+		hash = hash * 31 + ( ( redMax << redShift ) | ( greenMax << greenShift ) | ( blueMax << blueShift ) );
+		hash = hash * 31 + ( redMask ^ greenMask ^ blueMask );
+		return hash;
+	}
+
 	///////////////////////////////////////////////////////////////////////////////////////
 	// Private
 
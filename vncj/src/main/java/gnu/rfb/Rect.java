@@ -48,6 +48,7 @@ public abstract class Rect implements Cloneable
 			case rfb.EncodingRRE:
 			case rfb.EncodingCoRRE:
 			case rfb.EncodingHextile:
+			case rfb.EncodingZRLE:
 				return encodings[i];
 			}
 		}
@@ -98,6 +99,8 @@ public abstract class Rect implements Cloneable
 			return new CoRREStub( pixels, pixelFormat, offsetX, offsetY, scanline, x, y, w, h );
 		case rfb.EncodingHextile:
 			return new Hextile( pixels, pixelFormat, offsetX, offsetY, scanline, x, y, w, h );
+		case rfb.EncodingZRLE:
+			return new ZRLE( pixels, pixelFormat, offsetX, offsetY, scanline, x, y, w, h );
 		default:
 			return null;
 		}
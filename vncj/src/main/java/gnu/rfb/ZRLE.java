@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package gnu.rfb;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+* ZRLE Encoding.
+* <p>
+* The rectangle is divided into 64x64 tiles, each of which is sent as raw pixels, a single solid colour, a packed palette,
+* or run lengths of either pixels or palette indexes - whichever comes out smallest. The tile data for the whole rectangle
+* is then zlib compressed, using a single zlib stream which lasts for the life of the connection.
+* <p>
+* Because of that, the tile data is held uncompressed here and only compressed when written, against the stream belonging
+* to the client it is being written to. This also means the same encoded rectangle can be written to any number of clients.
+* <p>
+* Pixels are written as CPIXELs i.e. 3 bytes for 32 bit true colour formats whose colours all fit within 3 of the bytes.
+* Byte order follows the rest of this package, which always writes pixels little endian.
+*/
+public class ZRLE extends Rect
+{
+	//
+	// Static attributes
+	//
+
+	public static final int TILE_SIZE = 64;
+
+	// Largest palette the palette RLE sub-encoding allows
+	private static final int MAX_PALETTE = 127;
+
+	private static final int SUB_RAW = 0;
+	private static final int SUB_SOLID = 1;
+	private static final int SUB_PLAIN_RLE = 128;
+
+	//
+	// Attributes
+	//
+
+	public PixelFormat pixelFormat;
+	public byte[] data; // uncompressed tile data
+
+	//
+	// Construction
+	//
+
+	public ZRLE( int[] pixels, PixelFormat pixelFormat, int offsetX, int offsetY, int scanline, int x, int y, int w, int h )
+	{
+		super( x, y, w, h );
+		this.pixelFormat = pixelFormat;
+
+		Encoder encoder = new Encoder( pixelFormat, w * h );
+		for( int ty = 0; ty < h; ty += TILE_SIZE )
+		{
+			for( int tx = 0; tx < w; tx += TILE_SIZE )
+			{
+				encoder.tile( pixels, scanline, x - offsetX + tx, y - offsetY + ty, Math.min( TILE_SIZE, w - tx ), Math.min( TILE_SIZE, h - ty ) );
+			}
+		}
+		data = encoder.toByteArray();
+	}
+
+	public ZRLE( int x, int y, int w, int h, PixelFormat pixelFormat, byte[] data )
+	{
+		super( x, y, w, h );
+		this.pixelFormat = pixelFormat;
+		this.data = data;
+	}
+
+	//
+	// Rect
+	//
+
+	public void writeData( DataOutput output ) throws IOException
+	{
+		throw new IOException( "ZRLE rectangles can only be written against a client zlib stream" );
+	}
+
+	/**
+	* Writes the rectangle, compressing the tile data against the given client's zlib stream. Rectangles must be
+	* written to a client in the same order they are compressed.
+	*/
+	public void writeData( DataOutput output, Deflater deflater ) throws IOException
+	{
+		super.writeData( output );
+		output.writeInt( rfb.EncodingZRLE );
+
+		deflater.setInput( data );
+		byte[] buf = new byte[ Math.max( 64, data.length / 4 ) ];
+		int len = 0;
+		while( true )
+		{
+			len += deflater.deflate( buf, len, buf.length - len, Deflater.SYNC_FLUSH );
+			if( len < buf.length )
+				break;
+			buf = Arrays.copyOf( buf, buf.length * 2 );
+		}
+
+		output.writeInt( len );
+		output.write( buf, 0, len );
+	}
+
+	//
+	// Object
+	//
+
+	public Object clone() throws CloneNotSupportedException
+	{
+		return new ZRLE( x, y, w, h, pixelFormat, data.clone() );
+	}
+
+	///////////////////////////////////////////////////////////////////////////////////////
+	// Private
+
+	private static class Encoder extends ByteArrayOutputStream
+	{
+		private final PixelFormat pixelFormat;
+		private final int cpixelSize;
+		private final int cpixelShift;
+		private final int[] palette = new int[ MAX_PALETTE ];
+
+		Encoder( PixelFormat pixelFormat, int pixels )
+		{
+			// Typical terminal screens squash down to a small fraction of raw size before zlib even sees them
+			super( Math.max( 256, pixels / 8 ) );
+			this.pixelFormat = pixelFormat;
+
+			int mask = ( pixelFormat.redMax << pixelFormat.redShift ) | ( pixelFormat.greenMax << pixelFormat.greenShift ) | ( pixelFormat.blueMax << pixelFormat.blueShift );
+			if( pixelFormat.trueColour && pixelFormat.bitsPerPixel == 32 && pixelFormat.depth <= 24 && ( mask & 0xFF000000 ) == 0 )
+			{
+				cpixelSize = 3;
+				cpixelShift = 0;
+			}
+			else if( pixelFormat.trueColour && pixelFormat.bitsPerPixel == 32 && pixelFormat.depth <= 24 && ( mask & 0xFF ) == 0 )
+			{
+				cpixelSize = 3;
+				cpixelShift = 8;
+			}
+			else
+			{
+				cpixelSize = pixelFormat.bitsPerPixel >> 3;
+				cpixelShift = 0;
+			}
+		}
+
+		void tile( int[] pixels, int scanline, int x, int y, int w, int h )
+		{
+			// Single pass to collect the palette and run statistics needed to cost each sub-encoding
+			int paletteSize = 0;
+			boolean paletteFull = false;
+			int runs = 0;
+			int singleRuns = 0;
+			int runLengthBytes = 0;
+			int prev = pixels[ y * scanline + x ];
+			int runLength = 0;
+
+			for( int row = y; row < y + h; row++ )
+			{
+				int p = row * scanline + x;
+				for( int end = p + w; p < end; p++ )
+				{
+					int pixel = pixels[ p ];
+					if( pixel == prev && runLength > 0 )
+					{
+						runLength++;
+						continue;
+					}
+
+					if( runLength > 0 )
+					{
+						runs++;
+						singleRuns += ( runLength == 1 ) ? 1 : 0;
+						runLengthBytes += lengthBytes( runLength );
+					}
+					prev = pixel;
+					runLength = 1;
+
+					if( !paletteFull && indexOf( pixel, paletteSize ) < 0 )
+					{
+						if( paletteSize < MAX_PALETTE )
+							palette[ paletteSize++ ] = pixel;
+						else
+							paletteFull = true;
+					}
+				}
+			}
+			runs++;
+			singleRuns += ( runLength == 1 ) ? 1 : 0;
+			runLengthBytes += lengthBytes( runLength );
+
+			if( paletteSize == 1 )
+			{
+				write( SUB_SOLID );
+				writeCPixel( palette[0] );
+				return;
+			}
+
+			// Work out which sub-encoding gives the least data
+			int best = SUB_RAW;
+			int bestSize = w * h * cpixelSize;
+
+			int size = runs * cpixelSize + runLengthBytes;
+			if( size < bestSize )
+			{
+				best = SUB_PLAIN_RLE;
+				bestSize = size;
+			}
+
+			if( !paletteFull )
+			{
+				if( paletteSize <= 16 )
+				{
+					size = paletteSize * cpixelSize + h * ( ( w * indexBits( paletteSize ) + 7 ) / 8 );
+					if( size < bestSize )
+					{
+						best = paletteSize;
+						bestSize = size;
+					}
+				}
+
+				// Index byte per run, plus lengths for all but runs of 1
+				size = paletteSize * cpixelSize + runs + runLengthBytes - singleRuns;
+				if( size < bestSize )
+				{
+					best = 128 + paletteSize;
+					bestSize = size;
+				}
+			}
+
+			write( best );
+			if( best == SUB_RAW )
+			{
+				for( int row = y; row < y + h; row++ )
+				{
+					for( int p = row * scanline + x, end = p + w; p < end; p++ )
+						writeCPixel( pixels[ p ] );
+				}
+			}
+			else if( best == SUB_PLAIN_RLE )
+			{
+				writeRuns( pixels, scanline, x, y, w, h, false, paletteSize );
+			}
+			else if( best < 128 )
+			{
+				writePalette( paletteSize );
+				writePacked( pixels, scanline, x, y, w, h, paletteSize );
+			}
+			else
+			{
+				writePalette( paletteSize );
+				writeRuns( pixels, scanline, x, y, w, h, true, paletteSize );
+			}
+		}
+
+		private void writeRuns( int[] pixels, int scanline, int x, int y, int w, int h, boolean indexed, int paletteSize )
+		{
+			// Runs carry on across row ends
+			int prev = pixels[ y * scanline + x ];
+			int runLength = 0;
+			for( int row = y; row < y + h; row++ )
+			{
+				for( int p = row * scanline + x, end = p + w; p < end; p++ )
+				{
+					if( pixels[ p ] == prev )
+					{
+						runLength++;
+						continue;
+					}
+					writeRun( prev, runLength, indexed, paletteSize );
+					prev = pixels[ p ];
+					runLength = 1;
+				}
+			}
+			writeRun( prev, runLength, indexed, paletteSize );
+		}
+
+		private void writeRun( int pixel, int runLength, boolean indexed, int paletteSize )
+		{
+			if( indexed )
+			{
+				int index = indexOf( pixel, paletteSize );
+				if( runLength == 1 )
+				{
+					write( index );
+					return;
+				}
+				write( index | 128 );
+			}
+			else
+			{
+				writeCPixel( pixel );
+			}
+
+			int len = runLength - 1;
+			while( len >= 255 )
+			{
+				write( 255 );
+				len -= 255;
+			}
+			write( len );
+		}
+
+		private void writePacked( int[] pixels, int scanline, int x, int y, int w, int h, int paletteSize )
+		{
+			int bits = indexBits( paletteSize );
+			for( int row = y; row < y + h; row++ )
+			{
+				// Each row starts on a byte boundary, most significant bits first
+				int b = 0;
+				int used = 0;
+				for( int p = row * scanline + x, end = p + w; p < end; p++ )
+				{
+					b = ( b << bits ) | indexOf( pixels[ p ], paletteSize );
+					used += bits;
+					if( used == 8 )
+					{
+						write( b );
+						b = 0;
+						used = 0;
+					}
+				}
+				if( used > 0 )
+					write( b << ( 8 - used ) );
+			}
+		}
+
+		private void writePalette( int paletteSize )
+		{
+			for( int i = 0; i < paletteSize; i++ )
+				writeCPixel( palette[ i ] );
+		}
+
+		private void writeCPixel( int pixel )
+		{
+			pixel = pixelFormat.translatePixel( pixel ) >>> cpixelShift;
+			for( int i = 0; i < cpixelSize; i++ )
+			{
+				write( pixel & 0xFF );
+				pixel >>>= 8;
+			}
+		}
+
+		private int indexOf( int pixel, int paletteSize )
+		{
+			for( int i = 0; i < paletteSize; i++ )
+			{
+				if( palette[ i ] == pixel )
+					return i;
+			}
+			return -1;
+		}
+
+		private static int indexBits( int paletteSize )
+		{
+			return ( paletteSize <= 2 ) ? 1 : ( paletteSize <= 4 ) ? 2 : 4;
+		}
+
+		private static int lengthBytes( int runLength )
+		{
+			return ( runLength - 1 ) / 255 + 1;
+		}
+	}
+}
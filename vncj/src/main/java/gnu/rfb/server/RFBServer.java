@@ -49,6 +49,17 @@ public interface RFBServer
 	public void setEncodings( RFBClient client, int[] encodings ) throws IOException; // not supported
 	public void fixColourMapEntries( RFBClient client, int firstColour, Colour[] colourMap ) throws IOException;
 	public void frameBufferUpdateRequest( RFBClient client, boolean incremental, int x, int y, int w, int h ) throws IOException;
+	
+	/**
+	 * Whether an incremental update of the given area has anything to send. RFB allows incremental requests to be held
+	 * until something changes, so requests are left queued while this returns false and looked at again on the next
+	 * RFBClient.updateAvailable(). Servers that don't track changes per client should leave this as is, and will be asked
+	 * for every incremental request straight away.
+	 */
+	public default boolean hasFrameBufferUpdate( RFBClient client, int x, int y, int w, int h )
+	{
+		return true;
+	}
 	public void keyEvent( RFBClient client, boolean down, int key ) throws IOException;
 	public void pointerEvent( RFBClient client, int buttonMask, int x, int y ) throws IOException;
 	public void clientCutText( RFBClient client, String text ) throws IOException;
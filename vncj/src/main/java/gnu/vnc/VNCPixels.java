@@ -169,6 +169,11 @@ public class VNCPixels implements RFBServer, PixelsOwner
 	    queue.frameBufferUpdate( client, incremental, x, y, w, h);
 	}
 
+	public boolean hasFrameBufferUpdate( RFBClient client, int x, int y, int w, int h )
+	{
+		return queue.hasPending( client, x, y, w, h );
+	}
+
 	public void keyEvent( RFBClient client, boolean down, int key ) throws IOException
 	{
         log.finest("DEBUG[VNCPixels] keyEvent");
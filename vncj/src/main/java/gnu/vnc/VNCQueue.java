@@ -39,6 +39,8 @@ public class VNCQueue {
     //
     int[] snapshot;
     int scanline;
+    // Bumped for every snapshot, so identifies the pixels any encoded rect was taken from
+    long generation;
     
    
     Object snapshotSemaphor = new Object();
@@ -63,9 +65,11 @@ public class VNCQueue {
                 rects = popEncoded( client, x, y, w, h, snapshot, scanline );
             }
             else {
+                // Anything queued for this region is covered by the full update
+                pop( client, x, y, w, h );
                 // Encode specified region
                 rects = new Rect[1];
-                rects[0] = Rect.encode( client.getPreferredEncoding(), snapshot, client.getPixelFormat(), scanline, x, y, w, h );
+                rects[0] = encode( client.getPreferredEncoding(), client.getPixelFormat(), snapshot, scanline, new Rectangle( x, y, w, h ) );
             }
             client.writeFrameBufferUpdate( rects );
         }
@@ -85,7 +89,7 @@ public class VNCQueue {
         int encoding = client.getPreferredEncoding();
         Rect[] rects = new Rect[ rectangles.length ];
         for( int i = 0; i < rectangles.length; i++ ) {
-            rects[i] = Rect.encode( encoding, pixels, pixelFormat, scanline, rectangles[i].x, rectangles[i].y, rectangles[i].width, rectangles[i].height );
+            rects[i] = encode( encoding, pixelFormat, pixels, scanline, rectangles[i] );
         }
                
         if( rects.length == 0 ) {
@@ -129,20 +133,39 @@ public class VNCQueue {
         return pop( client, new Rectangle( x, y, w, h ) );
     }
     
+    public boolean hasPending( RFBClient client, int x, int y, int w, int h ) {
+        return hasPending( client, new Rectangle( x, y, w, h ) );
+    }
+    
+    /**
+     * Whether any queued rectangles for the client overlap the given area, i.e. whether an incremental update of it has anything to send.
+     */
+    public boolean hasPending( RFBClient client, Rectangle clip ) {
+        Vector queue = getQueue( client );
+        synchronized( queue ) {
+            for( Enumeration e = queue.elements(); e.hasMoreElements(); ) {
+                Rectangle r = clip.intersection( (Rectangle) e.nextElement() );
+                if( ( r.width > 0 ) && ( r.height > 0 ) )
+                    return true;
+            }
+        }
+        return false;
+    }
+    
     public Rectangle[] pop( RFBClient client, Rectangle clip ) {
         log.finest("DEBUG[VNCQueue]: pop()");
         Vector queue = getQueue( client );
         
-        // Collect rectangles in area
+        // Collect rectangles in area, clipped to it. Any part outside the area is dropped along with the rest, since
+        // viewers pretty much always ask for the whole screen anyway
         Vector v = new Vector();
         Rectangle r;
         synchronized( queue ) {
-            for( Enumeration e = queue.elements(); e.hasMoreElements(); ) {
-                r = (Rectangle) e.nextElement();
-                if( clip.contains( r.getLocation() ) || clip.contains( new Point( r.x + r.width, r.y + r.height ) ) ) {
-                    queue.removeElement( r );
+            for( Iterator it = queue.iterator(); it.hasNext(); ) {
+                r = clip.intersection( (Rectangle) it.next() );
+                if( ( r.width > 0 ) && ( r.height > 0 ) ) {
+                    it.remove();
                     v.addElement( r );
-                    e = queue.elements();
                 }
             }
         }
@@ -153,11 +176,74 @@ public class VNCQueue {
         return array;
     }
     
+    public long getGeneration() {
+        return generation;
+    }
+    
     ///////////////////////////////////////////////////////////////////////////////////////
     // Private
     
+    // Cap on rects held for one generation, in case clients ask for wildly differing areas
+    private static final int MAX_ENCODED = 256;
+    
     private RFBClients clients;
     
+    // Rects already encoded from the current snapshot. Clients sharing a server are all queued the same changed areas,
+    // so with matching pixel formats and encodings each area only needs encoding once however many viewers there are.
+    // Only touched under snapshotSemaphor.
+    private HashMap<EncodedKey, Rect> encoded = new HashMap<EncodedKey, Rect>();
+    private long encodedGeneration = -1;
+    
+    private Rect encode( int encoding, PixelFormat pixelFormat, int[] pixels, int scanline, Rectangle r ) {
+        if( pixels != snapshot )
+            return Rect.encode( encoding, pixels, pixelFormat, scanline, r.x, r.y, r.width, r.height );
+        
+        if( encodedGeneration != generation || encoded.size() >= MAX_ENCODED ) {
+            encoded.clear();
+            encodedGeneration = generation;
+        }
+        
+        EncodedKey key = new EncodedKey( generation, r, pixelFormat, encoding );
+        Rect rect = encoded.get( key );
+        if( rect == null ) {
+            rect = Rect.encode( encoding, pixels, pixelFormat, scanline, r.x, r.y, r.width, r.height );
+            encoded.put( key, rect );
+        }
+        else {
+            log.finest( "re-using encoded rect: " + rect );
+        }
+        return rect;
+    }
+    
+    private static class EncodedKey {
+        private final long generation;
+        private final int x, y, w, h;
+        private final PixelFormat pixelFormat;
+        private final int encoding;
+        
+        EncodedKey( long generation, Rectangle area, PixelFormat pixelFormat, int encoding ) {
+            this.generation = generation;
+            this.x = area.x;
+            this.y = area.y;
+            this.w = area.width;
+            this.h = area.height;
+            this.pixelFormat = pixelFormat;
+            this.encoding = encoding;
+        }
+        
+        public boolean equals( Object obj ) {
+            if( !( obj instanceof EncodedKey ) )
+                return false;
+            EncodedKey other = (EncodedKey) obj;
+            return generation == other.generation && encoding == other.encoding && x == other.x && y == other.y && w == other.w && h == other.h &&
+                pixelFormat.equals( other.pixelFormat );
+        }
+        
+        public int hashCode() {
+            return ( ( ( x * 31 + y ) * 31 + w ) * 31 + h ) * 31 + pixelFormat.hashCode() * 7 + encoding;
+        }
+    }
+    
     private Vector getQueue( RFBClient client ) {
         Vector queue = (Vector) clients.getProperty( client, "queue" );
         if( queue == null ) {
@@ -261,19 +347,33 @@ public class VNCQueue {
     }    
     
     public void takeSnapshot(PixelsOwner p){
+        takeSnapshot(p, null);
+    }
+    
+    /**
+     * Takes a snapshot, and queues the given changed areas for every client as part of the same step. Doing both under the
+     * snapshot lock means a client can never be sent a queued area encoded from an older snapshot than the one it changed in.
+     */
+    public void takeSnapshot(PixelsOwner p, Rectangle[] changes){
     	if(p==null || p.getPixels()==null )
     	{
     		log.warning("takeSnapshot has no pixels: " + p);
     		return;
     	}
         synchronized(this.snapshotSemaphor){
-            if(snapshot == null){
+            if(snapshot == null || snapshot.length != p.getPixels().length){
                 snapshot = new int[p.getPixels().length];
             }
             
             System.arraycopy(p.getPixels(),0,snapshot,0,p.getPixels().length);
+            generation++;
             
             scanline=p.getPixelWidth();
+            if(changes != null){
+                for(int i = 0; i < changes.length; i++){
+                    addRectangle(changes[i], p);
+                }
+            }
             Enumeration enumerate = clients.elements();
             while(enumerate.hasMoreElements()){
                 ((RFBClient)enumerate.nextElement()).updateAvailable();
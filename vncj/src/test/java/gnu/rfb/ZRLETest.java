@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 Ascert, LLC.
+ * www.ascert.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package gnu.rfb;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+* Encodes tiles picked to come out as each ZRLE sub-encoding, checks the CPIXEL layout of the tile data and decodes it
+* back again.
+*/
+public class ZRLETest extends TestCase
+{
+	private static final int A = 0x112233;
+	private static final int B = 0x445566;
+	private static final int C = 0x778899;
+
+	public void testSolid()
+	{
+		int[] pixels = fill( 4, 4, A );
+		byte[] data = encode( pixels, 4, 4 );
+
+		// CPIXELs are 3 bytes, least significant first
+		assertBytes( data, 1, 0x33, 0x22, 0x11 );
+		assertDecodes( pixels, data, 4, 4 );
+	}
+
+	public void testPackedPalette()
+	{
+		int[] pixels = new int[ 8 * 2 ];
+		for( int i = 0; i < pixels.length; i++ )
+			pixels[ i ] = ( ( i + i / 8 ) % 2 == 0 ) ? A : B;
+		byte[] data = encode( pixels, 8, 2 );
+
+		// Palette of 2, then a bit per pixel with rows packed most significant bit first
+		assertBytes( data, 2, 0x33, 0x22, 0x11, 0x66, 0x55, 0x44, 0x55, 0xAA );
+		assertDecodes( pixels, data, 8, 2 );
+	}
+
+	public void testPlainRLE()
+	{
+		// Too many colours for a palette, in long runs
+		int[] pixels = new int[ 64 * 64 ];
+		for( int i = 0; i < pixels.length; i++ )
+			pixels[ i ] = 0x010203 * ( i / 32 );
+		byte[] data = encode( pixels, 64, 64 );
+
+		assertEquals( 128, data[ 0 ] & 0xFF );
+		assertEquals( 1 + 128 * 4, data.length );
+		assertBytes( Arrays.copyOfRange( data, 5, 9 ), 0x03, 0x02, 0x01, 31 );
+		assertDecodes( pixels, data, 64, 64 );
+	}
+
+	public void testPaletteRLE()
+	{
+		// Few colours, in runs which carry on across row ends, with one long enough to need more than one length byte
+		int[] pixels = new int[ 64 * 64 ];
+		int[] colours = { A, B, C };
+		for( int i = 0; i < pixels.length; i++ )
+			pixels[ i ] = ( i < 300 ) ? C : colours[ ( i / 40 ) % 3 ];
+		byte[] data = encode( pixels, 64, 64 );
+
+		assertEquals( 128 + 3, data[ 0 ] & 0xFF );
+		// Palette in order first seen
+		assertBytes( Arrays.copyOfRange( data, 1, 10 ), 0x99, 0x88, 0x77, 0x66, 0x55, 0x44, 0x33, 0x22, 0x11 );
+		// Index with the top bit set, then the run length less one as 255, 44
+		assertBytes( Arrays.copyOfRange( data, 10, 13 ), 128, 255, 44 );
+		assertDecodes( pixels, data, 64, 64 );
+	}
+
+	public void testRaw()
+	{
+		// Every pixel different
+		int[] pixels = new int[ 16 * 16 ];
+		for( int i = 0; i < pixels.length; i++ )
+			pixels[ i ] = 0x10000 + i * 0x0101;
+		byte[] data = encode( pixels, 16, 16 );
+
+		assertEquals( 0, data[ 0 ] );
+		assertEquals( 1 + 16 * 16 * 3, data.length );
+		assertBytes( Arrays.copyOfRange( data, 1, 7 ), 0x00, 0x00, 0x01, 0x01, 0x01, 0x01 );
+		assertDecodes( pixels, data, 16, 16 );
+	}
+
+	public void testShiftedCPixel()
+	{
+		// Colours in the top 3 bytes, so the CPIXEL drops the bottom one
+		PixelFormat pixelFormat = new PixelFormat( 32, 24, false, true, 0xFF, 0xFF, 0xFF, 24, 16, 8 );
+		int[] pixels = fill( 2, 2, 0x11223300 );
+		byte[] data = new ZRLE( pixels, pixelFormat, 0, 0, 2, 0, 0, 2, 2 ).data;
+
+		assertBytes( data, 1, 0x33, 0x22, 0x11 );
+	}
+
+	public void testTiles()
+	{
+		// Rectangle taken from part of a larger buffer, split into 64x64 tiles
+		int scanline = 100;
+		int[] pixels = new int[ scanline * 80 ];
+		for( int i = 0; i < pixels.length; i++ )
+			pixels[ i ] = ( ( i % scanline ) < 80 ) ? A : B;
+		byte[] data = new ZRLE( pixels, new PixelFormat( PixelFormat.RGB888 ), 0, 0, scanline, 10, 0, 80, 70 ).data;
+
+		// Left tiles all A, the right ones 16 wide with A then B in each row
+		assertBytes( Arrays.copyOfRange( data, 0, 4 ), 1, 0x33, 0x22, 0x11 );
+		assertBytes( Arrays.copyOfRange( data, 4, 13 ), 2, 0x33, 0x22, 0x11, 0x66, 0x55, 0x44, 0x03, 0xFF );
+		// Next row of tiles, only 6 high
+		int next = 4 + 1 + 6 + 64 * 2;
+		assertBytes( Arrays.copyOfRange( data, next, next + 4 ), 1, 0x33, 0x22, 0x11 );
+		assertEquals( next + 4 + 1 + 6 + 6 * 2, data.length );
+	}
+
+	//////////////////////////////////////////////////
+	// PRIVATE METHODS
+	//////////////////////////////////////////////////
+
+	private static byte[] encode( int[] pixels, int w, int h )
+	{
+		return new ZRLE( pixels, new PixelFormat( PixelFormat.RGB888 ), 0, 0, w, 0, 0, w, h ).data;
+	}
+
+	private static int[] fill( int w, int h, int pixel )
+	{
+		int[] pixels = new int[ w * h ];
+		Arrays.fill( pixels, pixel );
+		return pixels;
+	}
+
+	private static void assertBytes( byte[] data, int... expected )
+	{
+		assertEquals( expected.length, data.length );
+		for( int i = 0; i < expected.length; i++ )
+			assertEquals( "byte " + i, expected[ i ], data[ i ] & 0xFF );
+	}
+
+	/**
+	* Decodes a single tile, as per the RFB protocol, and checks every byte was used.
+	*/
+	private static void assertDecodes( int[] expected, byte[] data, int w, int h )
+	{
+		int[] pixels = new int[ w * h ];
+		int[] pos = { 1 };
+		int sub = data[ 0 ] & 0xFF;
+
+		int[] palette = new int[ sub & 127 ];
+		for( int i = 0; i < palette.length && sub != 128; i++ )
+			palette[ i ] = cpixel( data, pos );
+
+		if( sub == 0 )
+		{
+			for( int i = 0; i < pixels.length; i++ )
+				pixels[ i ] = cpixel( data, pos );
+		}
+		else if( sub == 1 )
+		{
+			Arrays.fill( pixels, palette[ 0 ] );
+		}
+		else if( sub < 128 )
+		{
+			int bits = ( sub <= 2 ) ? 1 : ( sub <= 4 ) ? 2 : 4;
+			for( int row = 0; row < h; row++ )
+			{
+				int used = 8;
+				int b = 0;
+				for( int col = 0; col < w; col++ )
+				{
+					if( used == 8 )
+					{
+						b = data[ pos[ 0 ]++ ] & 0xFF;
+						used = 0;
+					}
+					used += bits;
+					pixels[ row * w + col ] = palette[ ( b >> ( 8 - used ) ) & ( ( 1 << bits ) - 1 ) ];
+				}
+			}
+		}
+		else
+		{
+			int i = 0;
+			while( i < pixels.length )
+			{
+				int pixel;
+				int runLength = 1;
+				if( sub == 128 )
+				{
+					pixel = cpixel( data, pos );
+					runLength = runLength( data, pos );
+				}
+				else
+				{
+					int index = data[ pos[ 0 ]++ ] & 0xFF;
+					pixel = palette[ index & 127 ];
+					if( index >= 128 )
+						runLength = runLength( data, pos );
+				}
+				Arrays.fill( pixels, i, i + runLength, pixel );
+				i += runLength;
+			}
+		}
+
+		assertEquals( data.length, pos[ 0 ] );
+		assertTrue( Arrays.equals( expected, pixels ) );
+	}
+
+	private static int cpixel( byte[] data, int[] pos )
+	{
+		int p = pos[ 0 ];
+		pos[ 0 ] += 3;
+		return ( data[ p ] & 0xFF ) | ( ( data[ p + 1 ] & 0xFF ) << 8 ) | ( ( data[ p + 2 ] & 0xFF ) << 16 );
+	}
+
+	private static int runLength( byte[] data, int[] pos )
+	{
+		int len = 1;
+		int b;
+		do
+		{
+			b = data[ pos[ 0 ]++ ] & 0xFF;
+			len += b;
+		}
+		while( b == 255 );
+		return len;
+	}
+}